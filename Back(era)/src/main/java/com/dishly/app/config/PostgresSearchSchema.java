@@ -0,0 +1,39 @@
+package com.dishly.app.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Crea (si falta) lo que necesita la búsqueda full-text en PostgreSQL: configuración
+ * en español sin acentos, columnas tsvector con índice GIN y los triggers que las mantienen.
+ * Corre después de que Hibernate actualizó las tablas.
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "postgres")
+public class PostgresSearchSchema implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(PostgresSearchSchema.class);
+
+    private final DataSource dataSource;
+
+    public PostgresSearchSchema(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("db/search-postgres.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        // Los cuerpos de las funciones PL/pgSQL llevan ";", así que el script separa con ";;"
+        populator.setSeparator(";;");
+        populator.execute(dataSource);
+        log.info("PostgreSQL full-text search schema ready");
+    }
+}
@@ -68,6 +68,8 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/recipes/*/reviews").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/recipes/search").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/search/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/images").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/favorites/recipes/**").authenticated()
                         .requestMatchers(HttpMethod.POST,   "/api/favorites/recipes/**").authenticated()
                         .requestMatchers(HttpMethod.DELETE, "/api/favorites/recipes/**").authenticated()
@@ -81,6 +83,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/api/mealpreps/*").authenticated()
                         .requestMatchers(HttpMethod.POST, "/api/mealpreps/*/reviews").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/mealpreps/*/reviews").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/mealpreps/*/reviews/cursor").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/mealpreps/search").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/mealpreps/search/cursor").permitAll()
                         .requestMatchers(HttpMethod.GET,"/api/favorites/mealpreps/**").authenticated()
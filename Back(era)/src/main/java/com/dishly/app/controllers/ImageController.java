@@ -0,0 +1,134 @@
+package com.dishly.app.controllers;
+
+import com.dishly.app.dto.ImageUploadDTO;
+import com.dishly.app.services.ImageStoreService;
+import com.dishly.app.services.ImageStoreService.StoredImage;
+import com.dishly.app.services.ImageVariant;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imágenes del blob store. Se suben en binario (multipart u octet-stream, sin base64) y el
+ * id que devuelve la subida es lo que después se manda en recetas, meal preps y perfil.
+ * El ETag es el hash del contenido (más la variante), así que una vista repetida con
+ * {@code If-None-Match} se contesta 304 sin tocar base ni disco.
+ * El cuerpo es un {@link Resource}: Spring lo copia desde el archivo sin cargarlo en
+ * memoria y atiende por su cuenta los pedidos con {@code Range} (206 con {@code ResourceRegion}).
+ */
+@RestController
+@RequestMapping("/api/images")
+public class ImageController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    /** Original servido en lugar de una variante que todavía no se generó. */
+    private static final CacheControl PROVISIONAL = CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic();
+
+    private final ImageStoreService images;
+
+    public ImageController(ImageStoreService images) {
+        this.images = images;
+    }
+
+    /* ---------- Subida ---------- */
+
+    /** Formulario multipart con el archivo en {@code file}. */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImageUploadDTO> upload(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return created(images.store(in));
+        }
+    }
+
+    /** El cuerpo es la imagen tal cual; se copia a disco a medida que llega. */
+    @PostMapping(consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public ResponseEntity<ImageUploadDTO> uploadRaw(HttpServletRequest request) throws IOException {
+        try (InputStream in = request.getInputStream()) {
+            return created(images.store(in));
+        }
+    }
+
+    private ResponseEntity<ImageUploadDTO> created(String hash) {
+        String url = images.url(hash);
+        return ResponseEntity.created(URI.create(url)).body(new ImageUploadDTO(hash, url));
+    }
+
+    /* ---------- Lectura ---------- */
+
+    @GetMapping("/{hash:[0-9a-f]{64}}")
+    public ResponseEntity<Resource> get(@PathVariable String hash,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = etagOf(hash, null);
+        if (matches(ifNoneMatch, etag)) return notModified(etag, IMMUTABLE);
+
+        StoredImage image = images.find(hash)
+                .orElseThrow(() -> new EntityNotFoundException("Imagen no encontrada: " + hash));
+        return serve(image, etag, IMMUTABLE);
+    }
+
+    /** Tamaño derivado (avatar, card, detail). Mientras no está generado va el original con caché corta. */
+    @GetMapping("/{hash:[0-9a-f]{64}}/{variant}")
+    public ResponseEntity<Resource> getVariant(@PathVariable String hash, @PathVariable String variant,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ImageVariant size = ImageVariant.fromPath(variant)
+                .orElseThrow(() -> new EntityNotFoundException("Tamaño de imagen desconocido: " + variant));
+        // Las variantes generadas no se borran: si el cliente ya la tiene, sigue valiendo
+        String variantEtag = etagOf(hash, size);
+        if (matches(ifNoneMatch, variantEtag)) return notModified(variantEtag, IMMUTABLE);
+
+        StoredImage image = images.find(hash, size)
+                .orElseThrow(() -> new EntityNotFoundException("Imagen no encontrada: " + hash));
+        if (image.variant() != null) return serve(image, variantEtag, IMMUTABLE);
+
+        String originalEtag = etagOf(hash, null);
+        if (matches(ifNoneMatch, originalEtag)) return notModified(originalEtag, PROVISIONAL);
+        return serve(image, originalEtag, PROVISIONAL);
+    }
+
+    private static String etagOf(String hash, ImageVariant variant) {
+        return "\"" + hash + (variant != null ? "-" + variant.path() : "") + "\"";
+    }
+
+    /** Comparación débil de {@code If-None-Match}, como pide la RFC 9110 para GET. */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static ResponseEntity<Resource> notModified(String etag, CacheControl cache) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cache).build();
+    }
+
+    // Sin Content-Length propio: lo pone el converter, que en un 206 es el del rango
+    private static ResponseEntity<Resource> serve(StoredImage image, String etag, CacheControl cache) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .eTag(etag)
+                .cacheControl(cache)
+                .body(new FileSystemResource(image.path()));
+    }
+}
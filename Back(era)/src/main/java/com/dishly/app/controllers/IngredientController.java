@@ -30,8 +30,15 @@ public class IngredientController {
     }
 
     @GetMapping("/search")
-    public List<IngredientModel> search(@RequestParam String term) {
-        return service.searchByName(term);
+    public List<IngredientModel> search(@RequestParam String term,
+                                        @RequestParam(defaultValue = "10") int limit) {
+        return service.searchByName(term, limit);
+    }
+
+    @GetMapping("/autocomplete")
+    public List<IngredientDTO> autocomplete(@RequestParam String term,
+                                            @RequestParam(defaultValue = "8") int limit) {
+        return service.autocomplete(term, limit);
     }
 
     @PostMapping
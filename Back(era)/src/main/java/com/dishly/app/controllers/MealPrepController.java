@@ -4,16 +4,18 @@ import com.dishly.app.dto.MealPrepRequestDTO;
 import com.dishly.app.dto.MealPrepResponseDTO;
 import com.dishly.app.dto.PagedResponse;
 import com.dishly.app.services.MealPrepService;
-import com.dishly.app.services.PdfExportService;
+import com.dishly.app.services.PdfCacheService;
 import com.dishly.app.services.UserService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.http.ResponseEntity;
 
 import java.nio.file.AccessDeniedException;
@@ -25,12 +27,12 @@ public class MealPrepController {
 
     private final MealPrepService mealPrepService;
     private final UserService userService;
-    private final PdfExportService pdfExportService;
+    private final PdfCacheService pdfCache;
 
-    public MealPrepController(MealPrepService mealPrepService, UserService userService, PdfExportService pdfExportService) {
+    public MealPrepController(MealPrepService mealPrepService, UserService userService, PdfCacheService pdfCache) {
         this.mealPrepService = mealPrepService;
         this.userService = userService;
-        this.pdfExportService = pdfExportService;
+        this.pdfCache = pdfCache;
     }
 
 //    @GetMapping
@@ -58,11 +60,15 @@ public class MealPrepController {
         return mealPrepService.getById(id);
     }
 
+    // ETag = versión del meal prep y de sus recetas: si no cambió, 304 sin armar ni leer el PDF
     @GetMapping("{id}/pdf")
-    public ResponseEntity<byte[]> exportMealPrepPdf(@PathVariable Long id) {
-        byte[] pdf = pdfExportService.mealPrepToPdf(id);
+    public ResponseEntity<byte[]> exportMealPrepPdf(@PathVariable Long id, WebRequest request) {
+        String key = pdfCache.mealPrepKey(id);
+        if (request.checkNotModified(key)) return null;
+        byte[] pdf = pdfCache.mealPrepPdf(id, key);
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_PDF)
+                .cacheControl(CacheControl.noCache())
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"mealprep-" + id + ".pdf\"")
                 .body(pdf);
     }
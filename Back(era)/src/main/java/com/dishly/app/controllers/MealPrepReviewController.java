@@ -2,6 +2,7 @@ package com.dishly.app.controllers;
 
 import com.dishly.app.dto.MealPrepReviewDTO;
 import com.dishly.app.dto.MealPrepReviewRequestDTO;
+import com.dishly.app.dto.PagedResponse;
 import com.dishly.app.services.MealPrepReviewService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -32,4 +33,11 @@ public class MealPrepReviewController {
     public List<MealPrepReviewDTO> getAll(@PathVariable Long mealPrepId) {
         return mealPrepReviewService.getAllByMealPrep(mealPrepId);
     }
+
+    @GetMapping("/cursor")
+    public PagedResponse<MealPrepReviewDTO> getByCursor(@PathVariable Long mealPrepId,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "10") int limit) {
+        return mealPrepReviewService.getByCursor(mealPrepId, cursor, limit);
+    }
 }
@@ -3,21 +3,27 @@ package com.dishly.app.controllers;
 import com.dishly.app.dto.RecipeRequestDTO;
 import com.dishly.app.dto.RecipeResponseDTO;
 import com.dishly.app.dto.PagedResponse;
-import com.dishly.app.services.PdfExportService;
+import com.dishly.app.services.ImageContent;
+import com.dishly.app.services.PdfCacheService;
 import com.dishly.app.services.RecipeService;
 import com.dishly.app.services.UserService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;   // <-- importa esto
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
 import java.nio.file.AccessDeniedException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/recipes")
@@ -26,14 +32,14 @@ public class RecipeController {
     /* === inyecciones ============================ */
     private final RecipeService recipeService;
     private final UserService   userService;
-    private final PdfExportService pdfExportService;
+    private final PdfCacheService pdfCache;
 
     public RecipeController(RecipeService recipeService,
                             UserService   userService,
-                            PdfExportService pdfExportService) {
+                            PdfCacheService pdfCache) {
         this.recipeService = recipeService;
         this.userService   = userService;
-        this.pdfExportService = pdfExportService;
+        this.pdfCache = pdfCache;
     }
 
     /* ---------- GETs ---------- */
@@ -45,12 +51,15 @@ public class RecipeController {
         return recipeService.getPublic(pageable, email);
     }
 
+    /** {@code view=card} devuelve tarjetas livianas; el DTO completo queda para el detalle. */
     @GetMapping("/cursor")
-    public PagedResponse<RecipeResponseDTO> getAllPublicByCursor(
+    public PagedResponse<?> getAllPublicByCursor(
             @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "full") String view,
             Authentication auth) {
         String email = auth != null ? auth.getName() : null;
+        if (isCardView(view)) return recipeService.getPublicCardsByCursor(cursor, limit, email);
         return recipeService.getPublicByCursor(cursor, limit, email);
     }
 
@@ -59,11 +68,30 @@ public class RecipeController {
         return recipeService.getById(id);
     }
 
+    // Migrada: al blob, que tiene ETag y Range sin cargarla entera. Si no, la fila decodificada
+    @GetMapping("/{id:\\d+}/image")
+    public ResponseEntity<byte[]> getImage(@PathVariable Long id) {
+        Optional<String> blob = recipeService.getImageUrl(id);
+        if (blob.isPresent()) {
+            return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(blob.get())).build();
+        }
+        ImageContent image = recipeService.getLegacyImage(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf(image.contentType()))
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic())
+                .header("X-Content-Type-Options", "nosniff")
+                .body(image.bytes());
+    }
+
+    // ETag = versión de la receta: si no cambió, 304 sin armar ni leer el PDF
     @GetMapping("/{id:\\d+}/pdf")
-    public ResponseEntity<byte[]> exportRecipePdf(@PathVariable Long id) {
-        byte[] pdf = pdfExportService.recipeToPdf(id);
+    public ResponseEntity<byte[]> exportRecipePdf(@PathVariable Long id, WebRequest request) {
+        String key = pdfCache.recipeKey(id);
+        if (request.checkNotModified(key)) return null;
+        byte[] pdf = pdfCache.recipePdf(id, key);
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_PDF)
+                .cacheControl(CacheControl.noCache())
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recipe-" + id + ".pdf\"")
                 .body(pdf);
     }
@@ -80,7 +108,7 @@ public class RecipeController {
     }
 
     @GetMapping("/search/cursor")
-    public PagedResponse<RecipeResponseDTO> searchRecipesByCursor(
+    public PagedResponse<?> searchRecipesByCursor(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String ingredient,
             @RequestParam(required = false) String author,
@@ -88,10 +116,17 @@ public class RecipeController {
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(defaultValue = "false") boolean onlyFollowing,
             @RequestParam(defaultValue = "false") boolean excludeUndesired,
+            @RequestParam(defaultValue = "recent") String sort,
+            @RequestParam(defaultValue = "full") String view,
             Authentication auth
     ) {
         String email = auth != null ? auth.getName() : null;
-        return recipeService.searchByCursor(name, ingredient, author, cursor, limit, email, onlyFollowing, excludeUndesired);
+        if (isCardView(view)) {
+            return recipeService.searchCardsByCursor(name, ingredient, author, cursor, limit, email, onlyFollowing,
+                    excludeUndesired, "relevance".equalsIgnoreCase(sort));
+        }
+        return recipeService.searchByCursor(name, ingredient, author, cursor, limit, email, onlyFollowing, excludeUndesired,
+                "relevance".equalsIgnoreCase(sort));
     }
 
 
@@ -121,4 +156,7 @@ public class RecipeController {
         return ResponseEntity.noContent().build();
     }
 
+    static boolean isCardView(String view) {
+        return "card".equalsIgnoreCase(view);
+    }
 }
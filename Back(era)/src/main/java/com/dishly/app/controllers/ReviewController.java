@@ -1,5 +1,6 @@
 package com.dishly.app.controllers;
 
+import com.dishly.app.dto.PagedResponse;
 import com.dishly.app.dto.ReviewDTO;
 import com.dishly.app.dto.ReviewRequestDTO;
 import com.dishly.app.services.ReviewService;
@@ -30,4 +31,12 @@ public class ReviewController {
     public List<ReviewDTO> getReviews(@PathVariable Long recipeId) {
         return reviewService.getReviewsByRecipe(recipeId);
     }
+
+    @GetMapping("/{recipeId}/reviews/cursor")
+    public PagedResponse<ReviewDTO> getReviewsByCursor(
+            @PathVariable Long recipeId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit) {
+        return reviewService.getReviewsByCursor(recipeId, cursor, limit);
+    }
 }
@@ -1,8 +1,9 @@
 package com.dishly.app.controllers;
 
+import com.dishly.app.dto.FederatedSearchResponseDTO;
 import com.dishly.app.dto.MealPrepResponseDTO;
 import com.dishly.app.dto.PagedResponse;
-import com.dishly.app.dto.RecipeResponseDTO;
+import com.dishly.app.services.FederatedSearchService;
 import com.dishly.app.services.MealPrepService;
 import com.dishly.app.services.RecipeService;
 import lombok.RequiredArgsConstructor;
@@ -19,18 +20,26 @@ public class SearchController {
 
     private final RecipeService recipeService;
     private final MealPrepService mealPrepService;
+    private final FederatedSearchService federatedSearchService;
 
     @GetMapping("/recipes/cursor")
-    public PagedResponse<RecipeResponseDTO> searchRecipesByCursor(
+    public PagedResponse<?> searchRecipesByCursor(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String ingredient,
             @RequestParam(required = false) String author,
             @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "recent") String sort,
+            @RequestParam(defaultValue = "full") String view,
             Authentication auth
     ) {
         String email = auth != null ? auth.getName() : null;
-        return recipeService.searchByCursor(name, ingredient, author, cursor, limit, email, false, false);
+        if (RecipeController.isCardView(view)) {
+            return recipeService.searchCardsByCursor(name, ingredient, author, cursor, limit, email, false, false,
+                    "relevance".equalsIgnoreCase(sort));
+        }
+        return recipeService.searchByCursor(name, ingredient, author, cursor, limit, email, false, false,
+                "relevance".equalsIgnoreCase(sort));
     }
 
     @GetMapping("/mealpreps/cursor")
@@ -45,4 +54,17 @@ public class SearchController {
         String email = auth != null ? auth.getName() : null;
         return mealPrepService.searchByCursor(name, ingredient, author, cursor, limit, email, false, false);
     }
+
+    @GetMapping("/all")
+    public FederatedSearchResponseDTO searchAll(
+            @RequestParam String q,
+            @RequestParam(required = false) String recipeCursor,
+            @RequestParam(required = false) String mealPrepCursor,
+            @RequestParam(required = false) String userCursor,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication auth
+    ) {
+        String email = auth != null ? auth.getName() : null;
+        return federatedSearchService.searchAll(q, recipeCursor, mealPrepCursor, userCursor, limit, email);
+    }
 }
@@ -31,6 +31,13 @@ public class UndesiredIngredientController {
         userService.addUndesiredIngredient(uid, ingredientId);
     }
 
+    /** Reemplaza el conjunto completo, p. ej. al guardar la página de no deseados. */
+    @PutMapping
+    public void replaceUndesired(@RequestBody List<Long> ingredientIds, Authentication auth) {
+        Long uid = userService.getIdByEmail(auth.getName());
+        userService.replaceUndesiredIngredients(uid, ingredientIds);
+    }
+
     @DeleteMapping("/{ingredientId}")
     public void removeUndesired(@PathVariable Long ingredientId, Authentication auth) {
         Long uid = userService.getIdByEmail(auth.getName());
@@ -15,12 +15,17 @@ import com.dishly.app.dto.UserProfileDTO;
 import com.dishly.app.dto.userdto.RegisterRequest;
 import com.dishly.app.dto.userdto.UpdateRequest;
 import com.dishly.app.models.UserModel;
+import com.dishly.app.services.ImageStoreService;
 import com.dishly.app.services.RecipeService;
 import com.dishly.app.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -37,6 +42,9 @@ public class UserController {
     @Autowired
     private RecipeService recipeService;
 
+    @Autowired
+    private ImageStoreService imageStore;
+
     public UserController(JwtUtil jwtUtil) {
         this.jwtUtil = jwtUtil;
     }
@@ -87,6 +95,19 @@ public class UserController {
         return ResponseEntity.ok(updated);
     }
 
+    // 2b) La misma foto subida como archivo, sin pasar por base64
+    @PutMapping(value = "/me/photo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<UserProfileDTO> uploadMyPhoto(
+            Authentication auth,
+            @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        String imageId;
+        try (InputStream in = file.getInputStream()) {
+            imageId = imageStore.store(in);
+        }
+        return ResponseEntity.ok(service.updatePhoto(auth.getName(), imageId));
+    }
+
     // 3) Eliminar mi propia cuenta
     @DeleteMapping("/me")
     public ResponseEntity<Void> deleteMyAccount(Authentication auth) {
@@ -131,6 +152,24 @@ public class UserController {
         return service.getFollowing(id, auth.getName());
     }
 
+    @GetMapping("/{id}/followers/cursor")
+    public PagedResponse<UserProfileDTO> getFollowersByCursor(
+            @PathVariable Long id,
+            Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit) {
+        return service.getFollowersByCursor(id, auth.getName(), cursor, limit);
+    }
+
+    @GetMapping("/{id}/following/cursor")
+    public PagedResponse<UserProfileDTO> getFollowingByCursor(
+            @PathVariable Long id,
+            Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit) {
+        return service.getFollowingByCursor(id, auth.getName(), cursor, limit);
+    }
+
     @GetMapping("/me/followers/cursor")
     public PagedResponse<UserProfileDTO> getMyFollowersByCursor(
             Authentication auth,
@@ -152,6 +191,15 @@ public class UserController {
         return service.searchUsers(term, auth.getName());
     }
 
+    @GetMapping("/search/cursor")
+    public PagedResponse<UserProfileDTO> searchUsersByCursor(
+            @RequestParam String term,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication auth) {
+        return service.searchUsersByCursor(term, auth.getName(), cursor, limit);
+    }
+
     @GetMapping("/{id}/public")
     public ResponseEntity<UserPublicDTO> getPublicProfile(@PathVariable Long id, Authentication auth) {
         UserPublicDTO dto = service.getPublicProfile(id, auth.getName());
@@ -0,0 +1,18 @@
+package com.dishly.app.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de /api/search/all: una sección por fuente, cada una con su propio cursor.
+ * {@code timedOut} lista las fuentes que no respondieron a tiempo (su sección viene vacía y
+ * con el cursor recibido, para poder reintentarla); {@code failed}, las que dieron error
+ * (vacía y sin cursor).
+ */
+public record FederatedSearchResponseDTO(
+        PagedResponse<RecipeResponseDTO> recipes,
+        PagedResponse<MealPrepResponseDTO> mealPreps,
+        PagedResponse<UserProfileDTO> users,
+        List<IngredientDTO> ingredients,
+        List<String> timedOut,
+        List<String> failed
+) {}
@@ -0,0 +1,7 @@
+package com.dishly.app.dto;
+
+/** Imagen recién subida: {@code id} es lo que después se manda en el campo image / photo. */
+public record ImageUploadDTO(
+        String id,
+        String url
+) {}
@@ -5,7 +5,7 @@ import java.util.List;
 public record MealPrepRequestDTO(
         String name,
         String description,
-        String image,
+        String image,          // id de POST /api/images, su URL, o base64
         Boolean publicMealPrep,
         List<Long> recipeIds
 ) {}
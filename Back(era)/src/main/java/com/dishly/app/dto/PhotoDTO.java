@@ -3,7 +3,7 @@ package com.dishly.app.dto;
 import jakarta.validation.constraints.NotBlank;
 
 public record PhotoDTO(
-        @NotBlank String photoBase64
+        @NotBlank String photoBase64   // base64, o el id de una imagen subida por POST /api/images
 ) {
 
     public String getPhotoBase64() {
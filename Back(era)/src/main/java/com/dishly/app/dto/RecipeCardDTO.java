@@ -0,0 +1,16 @@
+package com.dishly.app.dto;
+
+/** Tarjeta de receta para feeds y búsquedas ({@code view=card}); el detalle sigue en /api/recipes/{id}. */
+public record RecipeCardDTO(
+        Long    id,
+        String  name,
+        String  category,
+        String  time,
+        String  imageUrl,
+        Long    userId,
+        String  author,
+        Double  averageRating,
+        int     ratingCount,
+        Boolean publicRecipe,
+        boolean hasUndesiredIngredients
+) {}
@@ -8,7 +8,7 @@ import java.util.Map;
 public record RecipeRequestDTO(
         String name,
         String description,
-        String image,          // Base64 o URL
+        String image,          // id de POST /api/images, su URL, o base64
         String category,
         String author,
         String time,
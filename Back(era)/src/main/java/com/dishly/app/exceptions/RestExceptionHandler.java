@@ -3,6 +3,7 @@ package com.dishly.app.exceptions;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.Map;
 
@@ -20,4 +21,10 @@ public class RestExceptionHandler {
     public Map<String, String> handleBadRequest(Exception ex) {
         return Map.of("error", ex.getMessage());
     }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public Map<String, String> handleTooLarge(MaxUploadSizeExceededException ex) {
+        return Map.of("error", "La imagen supera el máximo de " + ex.getMaxUploadSize() + " bytes");
+    }
 }
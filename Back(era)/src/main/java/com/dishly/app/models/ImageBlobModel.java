@@ -0,0 +1,29 @@
+package com.dishly.app.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Imagen guardada en el blob store: los bytes viven en disco bajo su SHA-256 y acá
+ * queda sólo lo necesario para servirlos. La misma imagen subida dos veces es una fila.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "image_blobs")
+public class ImageBlobModel {
+
+    /** SHA-256 del contenido, en hexadecimal. */
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    private String contentType;
+
+    private long size;
+
+    private ZonedDateTime createdAt = ZonedDateTime.now();
+}
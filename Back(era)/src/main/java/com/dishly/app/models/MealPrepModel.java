@@ -3,6 +3,7 @@ package com.dishly.app.models;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,6 +12,9 @@ import java.util.List;
 @Getter
 @Setter
 @Table(name = "meal_preps")
+// El UPDATE lleva sólo las columnas cambiadas: guardar una edición no pisa el agregado de
+// reseñas ni la versión, que se incrementan en la base (addRating, bumpContentVersion)
+@DynamicUpdate
 public class MealPrepModel {
 
     @Id
@@ -20,12 +24,24 @@ public class MealPrepModel {
     private String name;
     private String description;
 
+    /** Base64 de antes del blob store; ImageMigrationService lo pasa a {@code imageHash}. */
     @Column(columnDefinition = "TEXT")
     private String image;
 
+    /** SHA-256 de la imagen en el blob store ({@code /api/images/{hash}}). */
+    @Column(length = 64)
+    private String imageHash;
+
     @Column(columnDefinition = "boolean default true")
     private boolean publicMealPrep = true;
 
+    /**
+     * Sube con cada cambio de contenido o reseña; identifica la versión cacheada del PDF
+     * (PdfCacheService). Sólo la cambian los UPDATE del repositorio, nunca el setter.
+     */
+    @Column(columnDefinition = "bigint default 0")
+    private long contentVersion;
+
     private String author;
     private Long userId;
 
@@ -39,4 +55,7 @@ public class MealPrepModel {
 
     @OneToMany(mappedBy = "mealPrep", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<MealPrepReviewModel> reviews = new ArrayList<>();
+
+    @Embedded
+    private RatingAggregate rating = new RatingAggregate();
 }
@@ -9,7 +9,8 @@ import java.time.ZonedDateTime;
 @Entity
 @Getter
 @Setter
-@Table(name = "mealprep_reviews")
+@Table(name = "mealprep_reviews",
+        indexes = @Index(name = "idx_mealprep_reviews_mealprep_id", columnList = "mealprep_id, id"))
 public class MealPrepReviewModel {
 
     @Id
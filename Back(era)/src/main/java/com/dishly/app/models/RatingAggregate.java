@@ -0,0 +1,47 @@
+package com.dishly.app.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Resumen de reseñas guardado junto a la receta / meal prep: suma, cantidad e
+ * histograma de 1 a 5 estrellas. Se incrementa en la misma transacción que la reseña
+ * y {@code RatingAggregateService} lo recalcula desde las tablas de reseñas.
+ */
+@Getter
+@Setter
+@Embeddable
+public class RatingAggregate {
+
+    @Column(name = "rating_sum", columnDefinition = "bigint default 0")
+    private long ratingSum;
+
+    @Column(name = "rating_count", columnDefinition = "bigint default 0")
+    private long ratingCount;
+
+    @Column(name = "rating_stars1", columnDefinition = "bigint default 0")
+    private long stars1;
+
+    @Column(name = "rating_stars2", columnDefinition = "bigint default 0")
+    private long stars2;
+
+    @Column(name = "rating_stars3", columnDefinition = "bigint default 0")
+    private long stars3;
+
+    @Column(name = "rating_stars4", columnDefinition = "bigint default 0")
+    private long stars4;
+
+    @Column(name = "rating_stars5", columnDefinition = "bigint default 0")
+    private long stars5;
+
+    public double average() {
+        return ratingCount == 0 ? 0d : (double) ratingSum / ratingCount;
+    }
+
+    /** Cantidad de reseñas por estrella; el índice 0 son las de 1 estrella. */
+    public long[] histogram() {
+        return new long[]{stars1, stars2, stars3, stars4, stars5};
+    }
+}
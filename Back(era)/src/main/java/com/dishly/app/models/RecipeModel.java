@@ -3,6 +3,7 @@ package com.dishly.app.models;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,13 +12,29 @@ import java.util.List;
 @Setter
 @Entity
 @Table(name = "recipes")
+// El UPDATE lleva sólo las columnas cambiadas: guardar una edición no pisa el agregado de
+// reseñas ni la versión, que se incrementan en la base (addRating, bumpContentVersion)
+@DynamicUpdate
+// Ingredientes con su IngredientModel en un solo JOIN. Los pasos no entran: son otra bolsa
+// y traer las dos juntas multiplica las filas (ver RecipeRepository.findDetailById).
+@NamedEntityGraph(
+        name = RecipeModel.WITH_INGREDIENTS,
+        attributeNodes = @NamedAttributeNode(value = "ingredients", subgraph = "ingredient"),
+        subgraphs = @NamedSubgraph(name = "ingredient", attributeNodes = @NamedAttributeNode("ingredient"))
+)
 public class RecipeModel {
+    public static final String WITH_INGREDIENTS = "Recipe.withIngredients";
+
     @Id
     @GeneratedValue
     private Long id;
     private String name;
     private String description;
+    /** Base64 de antes del blob store; ImageMigrationService lo pasa a {@code imageHash}. */
     @Lob private String image;
+    /** SHA-256 de la imagen en el blob store ({@code /api/images/{hash}}). */
+    @Column(length = 64)
+    private String imageHash;
     private String category;
     private String author;
     private Long userId;
@@ -26,15 +43,27 @@ public class RecipeModel {
     @Column(columnDefinition = "boolean default true")
     private boolean publicRecipe = true;
 
+    /**
+     * Sube con cada cambio de contenido o reseña; identifica la versión cacheada del PDF
+     * (PdfCacheService). Sólo la cambian los UPDATE del repositorio, nunca el setter.
+     */
+    @Column(columnDefinition = "bigint default 0")
+    private long contentVersion;
+
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<RecipeIngredientModel> ingredients = new ArrayList<>();
 
+    // El orden de los pasos es parte del dato: se guarda su posición y se lee por ella
     @ElementCollection
     @CollectionTable(name = "recipe_steps", joinColumns = @JoinColumn(name = "recipe_id"))
     @Column(name = "step")
+    @OrderColumn(name = "step_index")
     private List<String> steps = new ArrayList<>();
 
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL)
     private List<ReviewModel> reviews;
 
+    @Embedded
+    private RatingAggregate rating = new RatingAggregate();
+
 }
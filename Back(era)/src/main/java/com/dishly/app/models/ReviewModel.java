@@ -9,7 +9,8 @@ import java.time.ZonedDateTime;
 @Entity
 @Getter
 @Setter
-@Table(name = "reviews")
+@Table(name = "reviews",
+        indexes = @Index(name = "idx_reviews_recipe_id", columnList = "recipe_id, id"))
 public class ReviewModel {
 
     @Id
@@ -38,13 +38,21 @@ public class UserModel implements UserDetails {
     @Setter
     @Getter
     @Column(columnDefinition = "TEXT")
-    private String photo;
+    private String photo;   // base64 de antes del blob store; ImageMigrationService lo pasa a photoHash
+
+    /** SHA-256 de la foto en el blob store ({@code /api/images/{hash}}). */
+    @Setter
+    @Getter
+    @Column(length = 64)
+    private String photoHash;
 
     @ManyToMany
     @JoinTable(
             name = "undesired_ingredients",
             joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "ingredient_id")
+            inverseJoinColumns = @JoinColumn(name = "ingredient_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_undesired_ingredients_user_ingredient",
+                    columnNames = {"user_id", "ingredient_id"})
     )
     private List<IngredientModel> undesiredIngredients = new ArrayList<>();
 
@@ -52,7 +60,12 @@ public class UserModel implements UserDetails {
     @JoinTable(
             name = "user_followers",
             joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "follower_id")
+            inverseJoinColumns = @JoinColumn(name = "follower_id"),
+            // Una arista por par; el índice de la restricción sirve al keyset de seguidores
+            uniqueConstraints = @UniqueConstraint(name = "uk_user_followers_user_follower",
+                    columnNames = {"user_id", "follower_id"}),
+            // y este, al de seguidos
+            indexes = @Index(name = "idx_user_followers_follower_user", columnList = "follower_id, user_id")
     )
     private List<UserModel> followers = new ArrayList<>();
 
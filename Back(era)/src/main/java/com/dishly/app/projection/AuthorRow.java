@@ -0,0 +1,9 @@
+package com.dishly.app.projection;
+
+/** Lo mínimo del autor que muestran las tarjetas y detalles. */
+public interface AuthorRow {
+    Long   getId();
+    String getUsername();
+    String getPhoto();
+    String getPhotoHash();
+}
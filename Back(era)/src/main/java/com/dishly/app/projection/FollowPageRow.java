@@ -0,0 +1,12 @@
+package com.dishly.app.projection;
+
+/** Usuario de una página de seguidores/seguidos, con "lo sigo" del que pregunta resuelto en la consulta. */
+public interface FollowPageRow {
+    Long   getId();
+    String getUsername();
+    String getEmail();
+    String getFullName();
+    String getPhoto();
+    String getPhotoHash();
+    Long   getFollowedByMe();
+}
@@ -0,0 +1,6 @@
+package com.dishly.app.projection;
+
+public interface FollowRow {
+    Long getUserId();
+    Long getFollowerId();
+}
@@ -0,0 +1,9 @@
+package com.dishly.app.projection;
+
+public interface MealPrepIndexRow {
+    Long    getId();
+    Long    getUserId();
+    Boolean getPublicMealPrep();
+    String  getName();
+    String  getAuthor();
+}
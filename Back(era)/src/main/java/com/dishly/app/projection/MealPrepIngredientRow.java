@@ -0,0 +1,6 @@
+package com.dishly.app.projection;
+
+public interface MealPrepIngredientRow {
+    Long getMealPrepId();
+    Long getIngredientId();
+}
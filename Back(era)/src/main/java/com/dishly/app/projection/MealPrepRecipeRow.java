@@ -0,0 +1,6 @@
+package com.dishly.app.projection;
+
+public interface MealPrepRecipeRow {
+    Long getMealPrepId();
+    Long getRecipeId();
+}
@@ -0,0 +1,10 @@
+package com.dishly.app.projection;
+
+/** Receta de un meal prep con lo que muestra {@link com.dishly.app.dto.RecipeSummaryDTO}. */
+public interface MealPrepRecipeSummaryRow {
+    Long   getMealPrepId();
+    Long   getRecipeId();
+    String getName();
+    String getImage();
+    String getImageHash();
+}
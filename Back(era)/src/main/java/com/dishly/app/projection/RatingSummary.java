@@ -1,6 +0,0 @@
-package com.dishly.app.projection;
-
-public interface RatingSummary {
-    Double getAvgRating();
-    Long   getReviewCount();
-}
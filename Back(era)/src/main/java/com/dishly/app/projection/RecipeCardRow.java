@@ -0,0 +1,16 @@
+package com.dishly.app.projection;
+
+/** Lo que necesita una tarjeta de receta, sin la imagen ni las colecciones. */
+public interface RecipeCardRow {
+    Long    getId();
+    String  getName();
+    String  getCategory();
+    String  getTime();
+    Boolean getHasImage();
+    String  getImageHash();
+    Long    getUserId();
+    String  getUsername();
+    Long    getRatingSum();
+    Long    getRatingCount();
+    Boolean getPublicRecipe();
+}
@@ -0,0 +1,10 @@
+package com.dishly.app.projection;
+
+public interface RecipeIndexRow {
+    Long    getId();
+    Long    getUserId();
+    Boolean getPublicRecipe();
+    String  getName();
+    String  getAuthor();
+    String  getDescription();
+}
@@ -0,0 +1,8 @@
+package com.dishly.app.projection;
+
+public interface RecipeIngredientLinkRow {
+    Long   getRecipeId();
+    Long   getIngredientId();
+    String getIngredientName();
+    String getQuantity();
+}
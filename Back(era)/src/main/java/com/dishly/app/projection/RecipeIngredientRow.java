@@ -0,0 +1,7 @@
+package com.dishly.app.projection;
+
+public interface RecipeIngredientRow {
+    Long   getRecipeId();
+    Long   getIngredientId();
+    String getIngredientName();
+}
@@ -0,0 +1,14 @@
+package com.dishly.app.projection;
+
+import java.time.ZonedDateTime;
+
+/** Reseña (de receta o de meal prep, según {@code parentId}) con el nombre de su autor; la foto va por caché. */
+public interface ReviewRow {
+    Long          getParentId();
+    Long          getId();
+    String        getComment();
+    Integer       getRating();
+    ZonedDateTime getCreatedAt();
+    Long          getUserId();
+    String        getUsername();
+}
@@ -0,0 +1,7 @@
+package com.dishly.app.projection;
+
+public interface UserIndexRow {
+    Long   getId();
+    String getUsername();
+    String getFullName();
+}
@@ -0,0 +1,11 @@
+package com.dishly.app.projection;
+
+/** Fila de usuario para listados; contadores y "lo sigo" salen de FollowGraphService. */
+public interface UserSummaryRow {
+    Long    getId();
+    String  getUsername();
+    String  getEmail();
+    String  getFullName();
+    String  getPhoto();
+    String  getPhotoHash();
+}
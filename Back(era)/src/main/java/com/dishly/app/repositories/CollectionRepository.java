@@ -5,6 +5,7 @@ import com.dishly.app.models.MealPrepModel;
 import com.dishly.app.models.RecipeModel;
 import com.dishly.app.models.UserModel;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,7 +14,18 @@ import java.util.List;
 import java.util.Optional;
 
 public interface CollectionRepository extends JpaRepository<CollectionModel, Long> {
+    // Las recetas de todas las colecciones en la misma consulta (antes, una carga lazy por colección)
+    @EntityGraph(attributePaths = "recipes")
     List<CollectionModel> findByUser(UserModel user);
+
+    // Segunda pasada para los meal preps: juntarlos con las recetas multiplicaría las filas
+    @Query("""
+            SELECT DISTINCT c
+            FROM CollectionModel c
+            LEFT JOIN FETCH c.mealPreps
+            WHERE c IN :collections
+            """)
+    List<CollectionModel> fetchMealPreps(@Param("collections") List<CollectionModel> collections);
     Optional<CollectionModel> findByIdAndUser(Long id, UserModel user);
 
     @Query("""
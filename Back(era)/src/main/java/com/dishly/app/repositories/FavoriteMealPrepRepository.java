@@ -5,6 +5,7 @@ import com.dishly.app.models.MealPrepModel;
 import com.dishly.app.models.UserModel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,8 +15,17 @@ import java.util.List;
 public interface FavoriteMealPrepRepository extends JpaRepository<FavoriteMealPrepModel, Long> {
     boolean existsByUserAndMealPrep(UserModel user, MealPrepModel mealPrep);
     void deleteByUserAndMealPrep(UserModel user, MealPrepModel mealPrep);
+
+    // El meal prep viene en el mismo join; el resto del DTO lo arma MealPrepDTOAssembler por lote
+    @EntityGraph(attributePaths = "mealPrep")
     List<FavoriteMealPrepModel> findByUser(UserModel user);
+
+    @EntityGraph(attributePaths = "mealPrep")
     Page<FavoriteMealPrepModel> findByUserId(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "mealPrep")
     List<FavoriteMealPrepModel> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "mealPrep")
     List<FavoriteMealPrepModel> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long cursorId, Pageable pageable);
 }
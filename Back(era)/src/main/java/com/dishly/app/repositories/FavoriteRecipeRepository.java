@@ -5,6 +5,7 @@ import com.dishly.app.models.RecipeModel;
 import com.dishly.app.models.UserModel;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,8 +15,17 @@ import java.util.List;
 public interface FavoriteRecipeRepository extends JpaRepository<FavoriteRecipeModel, Long> {
     boolean existsByUserAndRecipe(UserModel user, RecipeModel recipe);
     void deleteByUserAndRecipe(UserModel user, RecipeModel recipe);
+
+    // La receta viene en el mismo join; el resto del DTO lo arma RecipeDTOAssembler por lote
+    @EntityGraph(attributePaths = "recipe")
     List<FavoriteRecipeModel> findByUser(UserModel user);
+
+    @EntityGraph(attributePaths = "recipe")
     Page<FavoriteRecipeModel> findByUserId(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "recipe")
     List<FavoriteRecipeModel> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "recipe")
     List<FavoriteRecipeModel> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long cursorId, Pageable pageable);
 }
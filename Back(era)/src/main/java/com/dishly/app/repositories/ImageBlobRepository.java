@@ -0,0 +1,7 @@
+package com.dishly.app.repositories;
+
+import com.dishly.app.models.ImageBlobModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlobModel, String> {
+}
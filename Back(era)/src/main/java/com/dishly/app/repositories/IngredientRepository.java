@@ -2,11 +2,30 @@ package com.dishly.app.repositories;
 
 import com.dishly.app.models.IngredientModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface IngredientRepository extends JpaRepository<IngredientModel, Long> {
     List<IngredientModel> findByNameContainingIgnoreCase(String name);
     boolean existsByNameContainingIgnoreCase(String name);
     IngredientModel findByNameIgnoreCase(String term);
+
+    @Query("SELECT i.id FROM IngredientModel i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // pg_trgm sobre el nombre sin acentos (índice GIN en db/search-postgres.sql)
+    @Query(value = """
+       SELECT i.*
+       FROM   ingredients i
+       WHERE  dishly_fold(i.name) % dishly_fold(:term)
+          OR  dishly_fold(i.name) LIKE '%' || dishly_fold(:term) || '%'
+       ORDER  BY (dishly_fold(i.name) LIKE '%' || dishly_fold(:term) || '%') DESC,
+                 similarity(dishly_fold(i.name), dishly_fold(:term)) DESC,
+                 length(i.name), i.id
+       LIMIT  :limit
+       """, nativeQuery = true)
+    List<IngredientModel> findSimilarByName(@Param("term") String term, @Param("limit") int limit);
 }
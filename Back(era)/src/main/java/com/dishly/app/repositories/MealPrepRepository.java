@@ -1,11 +1,23 @@
 package com.dishly.app.repositories;
 
 import com.dishly.app.models.MealPrepModel;
+import com.dishly.app.projection.MealPrepIndexRow;
+import com.dishly.app.projection.MealPrepIngredientRow;
+import com.dishly.app.projection.MealPrepRecipeRow;
+import com.dishly.app.projection.MealPrepRecipeSummaryRow;
+import com.dishly.app.projection.RankedIdRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface MealPrepRepository extends JpaRepository<MealPrepModel, Long> {
     List<MealPrepModel> findByUserId(Long userId);
@@ -21,4 +33,178 @@ public interface MealPrepRepository extends JpaRepository<MealPrepModel, Long> {
     List<MealPrepModel> findByUserIdAndPublicMealPrepTrueOrderByIdDesc(Long userId, Pageable pageable);
 
     List<MealPrepModel> findByUserIdAndPublicMealPrepTrueAndIdLessThanOrderByIdDesc(Long userId, Long cursorId, Pageable pageable);
+
+    // detail: el meal prep con sus recetas (para los resúmenes) en una consulta
+    @EntityGraph(attributePaths = "recipes")
+    Optional<MealPrepModel> findDetailById(Long id);
+
+    // shopping: sólo las recetas; sus ingredientes salen de RecipeRepository.findForShoppingByIdIn
+    @EntityGraph(attributePaths = "recipes")
+    @Query("SELECT mp FROM MealPrepModel mp WHERE mp.id IN :ids")
+    List<MealPrepModel> findForShoppingByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Filas livianas para armar el índice de búsqueda sin cargar imágenes ni recetas
+    @Query("""
+       SELECT mp.id             AS id,
+              mp.userId         AS userId,
+              mp.publicMealPrep AS publicMealPrep,
+              mp.name           AS name,
+              mp.author         AS author
+       FROM   MealPrepModel mp
+       """)
+    List<MealPrepIndexRow> findAllIndexRows();
+
+    @Query("""
+       SELECT mp.id AS mealPrepId,
+              r.id  AS recipeId
+       FROM   MealPrepModel mp
+       JOIN   mp.recipes r
+       """)
+    List<MealPrepRecipeRow> findAllRecipeRows();
+
+    // Hidratación por página (MealPrepDTOAssembler): una consulta para todos los ids
+    @Query("""
+       SELECT mp.id   AS mealPrepId,
+              r.id    AS recipeId,
+              r.name  AS name,
+              r.image AS image,
+              r.imageHash AS imageHash
+       FROM   MealPrepModel mp
+       JOIN   mp.recipes r
+       WHERE  mp.id IN :ids
+       """)
+    List<MealPrepRecipeSummaryRow> findRecipeSummariesByMealPrepIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+       SELECT DISTINCT mp.id AS mealPrepId,
+              i.id           AS ingredientId
+       FROM   MealPrepModel mp
+       JOIN   mp.recipes r
+       JOIN   r.ingredients ri
+       JOIN   ri.ingredient i
+       WHERE  mp.id IN :ids
+       """)
+    List<MealPrepIngredientRow> findIngredientIdsByMealPrepIdIn(@Param("ids") Collection<Long> ids);
+
+    // Full-text en PostgreSQL (app.search.backend=postgres); el esquema está en db/search-postgres.sql
+    @Query(value = """
+       SELECT mp.id AS id, ts_rank(mp.search_vector, q) AS score
+       FROM   meal_preps mp, websearch_to_tsquery('dishly_es', :text) q
+       WHERE  mp.public_meal_prep = true
+         AND  mp.search_vector @@ q
+         AND  (:onlyFollowing = false OR mp.user_id IN (
+                  SELECT uf.user_id FROM user_followers uf WHERE uf.follower_id = :userId))
+         AND  (:excludeUndesired = false OR NOT EXISTS (
+                  SELECT 1
+                  FROM   meal_prep_recipes mpr
+                  JOIN   recipe_ingredients ri ON ri.recipe_id = mpr.recipe_id
+                  JOIN   undesired_ingredients ui ON ui.ingredient_id = ri.ingredient_id
+                  WHERE  mpr.meal_prep_id = mp.id AND ui.user_id = :userId))
+       ORDER  BY score DESC, mp.id DESC
+       LIMIT  :limit
+       """, nativeQuery = true)
+    List<RankedIdRow> searchFullText(@Param("text") String text,
+                                     @Param("onlyFollowing") boolean onlyFollowing,
+                                     @Param("excludeUndesired") boolean excludeUndesired,
+                                     @Param("userId") Long userId,
+                                     @Param("limit") int limit);
+
+    @Query(value = """
+       SELECT mp.id AS id, ts_rank(mp.search_vector, q) AS score
+       FROM   meal_preps mp, websearch_to_tsquery('dishly_es', :text) q
+       WHERE  mp.public_meal_prep = true
+         AND  mp.search_vector @@ q
+         AND  (ts_rank(mp.search_vector, q), mp.id) < (:cursorScore, :cursorId)
+         AND  (:onlyFollowing = false OR mp.user_id IN (
+                  SELECT uf.user_id FROM user_followers uf WHERE uf.follower_id = :userId))
+         AND  (:excludeUndesired = false OR NOT EXISTS (
+                  SELECT 1
+                  FROM   meal_prep_recipes mpr
+                  JOIN   recipe_ingredients ri ON ri.recipe_id = mpr.recipe_id
+                  JOIN   undesired_ingredients ui ON ui.ingredient_id = ri.ingredient_id
+                  WHERE  mpr.meal_prep_id = mp.id AND ui.user_id = :userId))
+       ORDER  BY score DESC, mp.id DESC
+       LIMIT  :limit
+       """, nativeQuery = true)
+    List<RankedIdRow> searchFullTextAfter(@Param("text") String text,
+                                          @Param("cursorScore") Float cursorScore,
+                                          @Param("cursorId") Long cursorId,
+                                          @Param("onlyFollowing") boolean onlyFollowing,
+                                          @Param("excludeUndesired") boolean excludeUndesired,
+                                          @Param("userId") Long userId,
+                                          @Param("limit") int limit);
+
+    // Agregado de reseñas desnormalizado (RatingAggregate): incremento atómico sobre la fila; cambia el PDF, sube la versión
+    @Modifying
+    @Transactional
+    @Query("""
+       UPDATE MealPrepModel x
+       SET    x.rating.ratingSum   = x.rating.ratingSum + :stars,
+              x.rating.ratingCount = x.rating.ratingCount + 1,
+              x.rating.stars1      = x.rating.stars1 + CASE WHEN :stars = 1 THEN 1 ELSE 0 END,
+              x.rating.stars2      = x.rating.stars2 + CASE WHEN :stars = 2 THEN 1 ELSE 0 END,
+              x.rating.stars3      = x.rating.stars3 + CASE WHEN :stars = 3 THEN 1 ELSE 0 END,
+              x.rating.stars4      = x.rating.stars4 + CASE WHEN :stars = 4 THEN 1 ELSE 0 END,
+              x.rating.stars5      = x.rating.stars5 + CASE WHEN :stars = 5 THEN 1 ELSE 0 END,
+              x.contentVersion     = x.contentVersion + 1
+       WHERE  x.id = :id
+       """)
+    int addRating(@Param("id") Long id, @Param("stars") long stars);
+
+    // Reparación: recalcula desde las reseñas las filas cuya suma, cantidad o histograma no coincide
+    @Modifying
+    @Transactional
+    @Query("""
+       UPDATE MealPrepModel x
+       SET    x.rating.ratingSum   = COALESCE((SELECT SUM(v.rating) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id), 0),
+              x.rating.ratingCount = (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id),
+              x.rating.stars1      = (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 1),
+              x.rating.stars2      = (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 2),
+              x.rating.stars3      = (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 3),
+              x.rating.stars4      = (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 4),
+              x.rating.stars5      = (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 5),
+              x.contentVersion     = x.contentVersion + 1
+       WHERE  x.rating.ratingCount <> (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id)
+          OR  x.rating.ratingSum   <> COALESCE((SELECT SUM(v.rating) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id), 0)
+          OR  x.rating.stars1      <> (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 1)
+          OR  x.rating.stars2      <> (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 2)
+          OR  x.rating.stars3      <> (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 3)
+          OR  x.rating.stars4      <> (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 4)
+          OR  x.rating.stars5      <> (SELECT COUNT(v) FROM MealPrepReviewModel v WHERE v.mealPrep.id = x.id AND v.rating = 5)
+       """)
+    int repairRatings();
+
+    /* ---------- Versión de contenido (PdfCacheService) ---------- */
+
+    @Query("SELECT m.contentVersion FROM MealPrepModel m WHERE m.id = :id")
+    Optional<Long> findContentVersionById(@Param("id") Long id);
+
+    // Edición: sube la versión en la fila, sin pisar los incrementos concurrentes de addRating
+    @Modifying
+    @Transactional
+    @Query("UPDATE MealPrepModel m SET m.contentVersion = m.contentVersion + 1 WHERE m.id = :id")
+    int bumpContentVersion(@Param("id") Long id);
+
+    // "id:versión" de cada receta; una suma no alcanza porque baja al borrarse una y puede repetirse
+    @Query("""
+       SELECT CONCAT(CAST(r.id AS String), ':', CAST(r.contentVersion AS String))
+       FROM   MealPrepModel m JOIN m.recipes r
+       WHERE  m.id = :id
+       ORDER BY r.id
+       """)
+    List<String> findRecipeVersions(@Param("id") Long id);
+
+    /* ---------- Migración de las imágenes en base64 al blob store (ImageMigrationService) ---------- */
+
+    @Query("SELECT m.id FROM MealPrepModel m WHERE m.image IS NOT NULL AND m.imageHash IS NULL AND m.id > :afterId ORDER BY m.id")
+    List<Long> findLegacyImageIds(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT m.image FROM MealPrepModel m WHERE m.id = :id")
+    Optional<String> findImageById(@Param("id") Long id);
+
+    // Si mientras tanto se subió otra imagen, no se pisa
+    @Modifying
+    @Transactional
+    @Query("UPDATE MealPrepModel m SET m.imageHash = :hash, m.image = NULL WHERE m.id = :id AND m.imageHash IS NULL")
+    int moveImageToBlob(@Param("id") Long id, @Param("hash") String hash);
 }
@@ -2,21 +2,75 @@ package com.dishly.app.repositories;
 
 import com.dishly.app.models.MealPrepModel;
 import com.dishly.app.models.MealPrepReviewModel;
-import com.dishly.app.projection.RatingSummary;
+import com.dishly.app.projection.ReviewRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MealPrepReviewRepository extends JpaRepository<MealPrepReviewModel, Long> {
     List<MealPrepReviewModel> findByMealPrep(MealPrepModel mealPrep);
 
+    // Página de reseñas por keyset, más nuevas primero; la foto del autor sale de AuthorSummaryCacheService
     @Query("""
-       SELECT AVG(r.rating) AS avgRating,
-              COUNT(r)      AS reviewCount
+       SELECT r.mealPrep.id AS parentId,
+              r.id        AS id,
+              r.comment   AS comment,
+              r.rating    AS rating,
+              r.createdAt AS createdAt,
+              u.id        AS userId,
+              u.username  AS username
        FROM   MealPrepReviewModel r
-       WHERE  r.mealPrep.id = :mpId
+       JOIN   r.user u
+       WHERE  r.mealPrep.id = :mealPrepId
+       ORDER  BY r.id DESC
        """)
-    RatingSummary getSummaryByMealPrepId(@Param("mpId") Long mpId);
+    List<ReviewRow> findRowsByMealPrepId(@Param("mealPrepId") Long mealPrepId, Pageable pageable);
+
+    @Query("""
+       SELECT r.mealPrep.id AS parentId,
+              r.id        AS id,
+              r.comment   AS comment,
+              r.rating    AS rating,
+              r.createdAt AS createdAt,
+              u.id        AS userId,
+              u.username  AS username
+       FROM   MealPrepReviewModel r
+       JOIN   r.user u
+       WHERE  r.mealPrep.id = :mealPrepId
+         AND  r.id < :cursorId
+       ORDER  BY r.id DESC
+       """)
+    List<ReviewRow> findRowsByMealPrepIdBefore(@Param("mealPrepId") Long mealPrepId,
+                                             @Param("cursorId") Long cursorId, Pageable pageable);
+
+    // Ids de las últimas :perParent reseñas de cada meal prep; las filas salen de findRowsByIdIn
+    @Query(value = """
+       SELECT t.id
+       FROM  (SELECT r.id,
+                     ROW_NUMBER() OVER (PARTITION BY r.mealprep_id ORDER BY r.id DESC) AS rn
+              FROM   mealprep_reviews r
+              WHERE  r.mealprep_id IN (:mealPrepIds)) t
+       WHERE  t.rn <= :perParent
+       """, nativeQuery = true)
+    List<Long> findLatestIdsByMealPrepIdIn(@Param("mealPrepIds") Collection<Long> mealPrepIds,
+                                          @Param("perParent") int perParent);
+
+    @Query("""
+       SELECT r.mealPrep.id AS parentId,
+              r.id        AS id,
+              r.comment   AS comment,
+              r.rating    AS rating,
+              r.createdAt AS createdAt,
+              u.id        AS userId,
+              u.username  AS username
+       FROM   MealPrepReviewModel r
+       JOIN   r.user u
+       WHERE  r.id IN :ids
+       ORDER  BY r.id DESC
+       """)
+    List<ReviewRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
 }
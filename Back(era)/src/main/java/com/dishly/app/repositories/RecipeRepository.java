@@ -2,11 +2,24 @@ package com.dishly.app.repositories;
 
 import com.dishly.app.models.IngredientModel;
 import com.dishly.app.models.RecipeModel;
+import com.dishly.app.projection.RankedIdRow;
+import com.dishly.app.projection.RecipeCardRow;
+import com.dishly.app.projection.RecipeIndexRow;
+import com.dishly.app.projection.RecipeIngredientLinkRow;
+import com.dishly.app.projection.RecipeIngredientRow;
+import com.dishly.app.projection.RecipeStepRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface RecipeRepository extends JpaRepository<RecipeModel, Long> {
     List<RecipeModel> findByNameContainingIgnoreCase(String name);
@@ -24,6 +37,28 @@ public interface RecipeRepository extends JpaRepository<RecipeModel, Long> {
 
     boolean existsByName(String name);
 
+    /* ---------- Formas de lectura ---------- */
+    // card: RecipeCardRow (findCardRowsByIdIn), sin cargar la entidad
+
+    // detail: ingredientes por el grafo y pasos en una segunda consulta sobre la misma entidad,
+    // en lugar de un JOIN con las dos bolsas (MultipleBagFetchException / producto cartesiano)
+    default Optional<RecipeModel> findDetailById(Long id) {
+        Optional<RecipeModel> recipe = findWithIngredientsById(id);
+        recipe.ifPresent(r -> fetchStepsById(r.getId()));
+        return recipe;
+    }
+
+    @EntityGraph(RecipeModel.WITH_INGREDIENTS)
+    Optional<RecipeModel> findWithIngredientsById(Long id);
+
+    @Query("SELECT r FROM RecipeModel r LEFT JOIN FETCH r.steps WHERE r.id = :id")
+    Optional<RecipeModel> fetchStepsById(@Param("id") Long id);
+
+    // shopping: sólo ingredientes, para todas las recetas de la lista en una consulta
+    @EntityGraph(RecipeModel.WITH_INGREDIENTS)
+    @Query("SELECT r FROM RecipeModel r WHERE r.id IN :ids")
+    List<RecipeModel> findForShoppingByIdIn(@Param("ids") Collection<Long> ids);
+
     List<RecipeModel> findByPublicRecipeTrue();
 
     List<RecipeModel> findByUserIdAndPublicRecipeTrue(Long userId);
@@ -34,7 +69,188 @@ public interface RecipeRepository extends JpaRepository<RecipeModel, Long> {
 
     List<RecipeModel> findByPublicRecipeTrueAndIdLessThanOrderByIdDesc(Long cursorId, Pageable pageable);
 
+    // Feed en tarjetas: sólo ids por keyset, las filas salen de findCardRowsByIdIn
+    @Query("SELECT r.id FROM RecipeModel r WHERE r.publicRecipe = true ORDER BY r.id DESC")
+    List<Long> findPublicIds(Pageable pageable);
+
+    @Query("SELECT r.id FROM RecipeModel r WHERE r.publicRecipe = true AND r.id < :cursorId ORDER BY r.id DESC")
+    List<Long> findPublicIdsBefore(@Param("cursorId") Long cursorId, Pageable pageable);
+
+    @Query("""
+       SELECT r.id                                        AS id,
+              r.name                                      AS name,
+              r.category                                  AS category,
+              r.time                                      AS time,
+              CASE WHEN r.image IS NULL THEN false ELSE true END AS hasImage,
+              r.imageHash                                 AS imageHash,
+              r.userId                                    AS userId,
+              u.username                                  AS username,
+              r.rating.ratingSum                          AS ratingSum,
+              r.rating.ratingCount                        AS ratingCount,
+              r.publicRecipe                              AS publicRecipe
+       FROM   RecipeModel r
+       LEFT JOIN UserModel u ON u.id = r.userId
+       WHERE  r.id IN :ids
+       """)
+    List<RecipeCardRow> findCardRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r.image FROM RecipeModel r WHERE r.id = :id")
+    Optional<String> findImageById(@Param("id") Long id);
+
+    @Query("SELECT r.contentVersion FROM RecipeModel r WHERE r.id = :id")
+    Optional<Long> findContentVersionById(@Param("id") Long id);
+
+    // Edición: sube la versión en la fila, sin pisar los incrementos concurrentes de addRating
+    @Modifying
+    @Transactional
+    @Query("UPDATE RecipeModel r SET r.contentVersion = r.contentVersion + 1 WHERE r.id = :id")
+    int bumpContentVersion(@Param("id") Long id);
+
+    @Query("SELECT r.imageHash FROM RecipeModel r WHERE r.id = :id")
+    Optional<String> findImageHashById(@Param("id") Long id);
+
     List<RecipeModel> findByUserIdAndPublicRecipeTrueOrderByIdDesc(Long userId, Pageable pageable);
 
     List<RecipeModel> findByUserIdAndPublicRecipeTrueAndIdLessThanOrderByIdDesc(Long userId, Long cursorId, Pageable pageable);
+
+    // Filas livianas para armar el índice de búsqueda sin cargar imágenes ni colecciones
+    @Query("""
+       SELECT r.id           AS id,
+              r.userId       AS userId,
+              r.publicRecipe AS publicRecipe,
+              r.name         AS name,
+              r.author       AS author,
+              r.description  AS description
+       FROM   RecipeModel r
+       """)
+    List<RecipeIndexRow> findAllIndexRows();
+
+    @Query("""
+       SELECT ri.recipe.id AS recipeId,
+              i.id         AS ingredientId,
+              i.name       AS ingredientName
+       FROM   RecipeIngredientModel ri
+       JOIN   ri.ingredient i
+       """)
+    List<RecipeIngredientRow> findAllIngredientRows();
+
+    // Hidratación por página (RecipeDTOAssembler): una consulta para todos los ids
+    @Query("""
+       SELECT ri.recipe.id AS recipeId,
+              i.id         AS ingredientId,
+              i.name       AS ingredientName,
+              ri.quantity  AS quantity
+       FROM   RecipeIngredientModel ri
+       JOIN   ri.ingredient i
+       WHERE  ri.recipe.id IN :ids
+       ORDER  BY ri.id
+       """)
+    List<RecipeIngredientLinkRow> findIngredientLinksByRecipeIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+       SELECT r.id AS recipeId,
+              s    AS step
+       FROM   RecipeModel r
+       JOIN   r.steps s
+       WHERE  r.id IN :ids
+       ORDER  BY r.id, INDEX(s)
+       """)
+    List<RecipeStepRow> findStepsByRecipeIdIn(@Param("ids") Collection<Long> ids);
+
+    // Full-text en PostgreSQL (app.search.backend=postgres); el esquema está en db/search-postgres.sql
+    @Query(value = """
+       SELECT r.id AS id, ts_rank(r.search_vector, q) AS score
+       FROM   recipes r, websearch_to_tsquery('dishly_es', :text) q
+       WHERE  r.public_recipe = true
+         AND  r.search_vector @@ q
+         AND  (:onlyFollowing = false OR r.user_id IN (
+                  SELECT uf.user_id FROM user_followers uf WHERE uf.follower_id = :userId))
+         AND  (:excludeUndesired = false OR NOT EXISTS (
+                  SELECT 1
+                  FROM   recipe_ingredients ri
+                  JOIN   undesired_ingredients ui ON ui.ingredient_id = ri.ingredient_id
+                  WHERE  ri.recipe_id = r.id AND ui.user_id = :userId))
+       ORDER  BY score DESC, r.id DESC
+       LIMIT  :limit
+       """, nativeQuery = true)
+    List<RankedIdRow> searchFullText(@Param("text") String text,
+                                     @Param("onlyFollowing") boolean onlyFollowing,
+                                     @Param("excludeUndesired") boolean excludeUndesired,
+                                     @Param("userId") Long userId,
+                                     @Param("limit") int limit);
+
+    @Query(value = """
+       SELECT r.id AS id, ts_rank(r.search_vector, q) AS score
+       FROM   recipes r, websearch_to_tsquery('dishly_es', :text) q
+       WHERE  r.public_recipe = true
+         AND  r.search_vector @@ q
+         AND  (ts_rank(r.search_vector, q), r.id) < (:cursorScore, :cursorId)
+         AND  (:onlyFollowing = false OR r.user_id IN (
+                  SELECT uf.user_id FROM user_followers uf WHERE uf.follower_id = :userId))
+         AND  (:excludeUndesired = false OR NOT EXISTS (
+                  SELECT 1
+                  FROM   recipe_ingredients ri
+                  JOIN   undesired_ingredients ui ON ui.ingredient_id = ri.ingredient_id
+                  WHERE  ri.recipe_id = r.id AND ui.user_id = :userId))
+       ORDER  BY score DESC, r.id DESC
+       LIMIT  :limit
+       """, nativeQuery = true)
+    List<RankedIdRow> searchFullTextAfter(@Param("text") String text,
+                                          @Param("cursorScore") Float cursorScore,
+                                          @Param("cursorId") Long cursorId,
+                                          @Param("onlyFollowing") boolean onlyFollowing,
+                                          @Param("excludeUndesired") boolean excludeUndesired,
+                                          @Param("userId") Long userId,
+                                          @Param("limit") int limit);
+
+    // Agregado de reseñas desnormalizado (RatingAggregate): incremento atómico sobre la fila; cambia el PDF, sube la versión
+    @Modifying
+    @Transactional
+    @Query("""
+       UPDATE RecipeModel x
+       SET    x.rating.ratingSum   = x.rating.ratingSum + :stars,
+              x.rating.ratingCount = x.rating.ratingCount + 1,
+              x.rating.stars1      = x.rating.stars1 + CASE WHEN :stars = 1 THEN 1 ELSE 0 END,
+              x.rating.stars2      = x.rating.stars2 + CASE WHEN :stars = 2 THEN 1 ELSE 0 END,
+              x.rating.stars3      = x.rating.stars3 + CASE WHEN :stars = 3 THEN 1 ELSE 0 END,
+              x.rating.stars4      = x.rating.stars4 + CASE WHEN :stars = 4 THEN 1 ELSE 0 END,
+              x.rating.stars5      = x.rating.stars5 + CASE WHEN :stars = 5 THEN 1 ELSE 0 END,
+              x.contentVersion     = x.contentVersion + 1
+       WHERE  x.id = :id
+       """)
+    int addRating(@Param("id") Long id, @Param("stars") long stars);
+
+    // Reparación: recalcula desde las reseñas las filas cuya suma, cantidad o histograma no coincide
+    @Modifying
+    @Transactional
+    @Query("""
+       UPDATE RecipeModel x
+       SET    x.rating.ratingSum   = COALESCE((SELECT SUM(v.rating) FROM ReviewModel v WHERE v.recipe.id = x.id), 0),
+              x.rating.ratingCount = (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id),
+              x.rating.stars1      = (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 1),
+              x.rating.stars2      = (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 2),
+              x.rating.stars3      = (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 3),
+              x.rating.stars4      = (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 4),
+              x.rating.stars5      = (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 5),
+              x.contentVersion     = x.contentVersion + 1
+       WHERE  x.rating.ratingCount <> (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id)
+          OR  x.rating.ratingSum   <> COALESCE((SELECT SUM(v.rating) FROM ReviewModel v WHERE v.recipe.id = x.id), 0)
+          OR  x.rating.stars1      <> (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 1)
+          OR  x.rating.stars2      <> (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 2)
+          OR  x.rating.stars3      <> (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 3)
+          OR  x.rating.stars4      <> (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 4)
+          OR  x.rating.stars5      <> (SELECT COUNT(v) FROM ReviewModel v WHERE v.recipe.id = x.id AND v.rating = 5)
+       """)
+    int repairRatings();
+
+    /* ---------- Migración de las imágenes en base64 al blob store (ImageMigrationService) ---------- */
+
+    @Query("SELECT r.id FROM RecipeModel r WHERE r.image IS NOT NULL AND r.imageHash IS NULL AND r.id > :afterId ORDER BY r.id")
+    List<Long> findLegacyImageIds(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Si mientras tanto se subió otra imagen, no se pisa
+    @Modifying
+    @Transactional
+    @Query("UPDATE RecipeModel r SET r.imageHash = :hash, r.image = NULL WHERE r.id = :id AND r.imageHash IS NULL")
+    int moveImageToBlob(@Param("id") Long id, @Param("hash") String hash);
 }
@@ -3,11 +3,13 @@ package com.dishly.app.repositories;
 import com.dishly.app.models.RecipeModel;
 import com.dishly.app.models.ReviewModel;
 import com.dishly.app.models.UserModel;
-import com.dishly.app.projection.RatingSummary;
+import com.dishly.app.projection.ReviewRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,12 +17,63 @@ public interface ReviewRepository extends JpaRepository<ReviewModel, Long> {
     List<ReviewModel> findByRecipe(RecipeModel recipe);
     Optional<ReviewModel> findByRecipeAndUser(RecipeModel recipe, UserModel user);
 
+    // Página de reseñas por keyset, más nuevas primero; la foto del autor sale de AuthorSummaryCacheService
+    @Query("""
+       SELECT r.recipe.id AS parentId,
+              r.id        AS id,
+              r.comment   AS comment,
+              r.rating    AS rating,
+              r.createdAt AS createdAt,
+              u.id        AS userId,
+              u.username  AS username
+       FROM   ReviewModel r
+       JOIN   r.user u
+       WHERE  r.recipe.id = :recipeId
+       ORDER  BY r.id DESC
+       """)
+    List<ReviewRow> findRowsByRecipeId(@Param("recipeId") Long recipeId, Pageable pageable);
 
     @Query("""
-       SELECT AVG(r.rating) AS avgRating,
-              COUNT(r)      AS reviewCount
+       SELECT r.recipe.id AS parentId,
+              r.id        AS id,
+              r.comment   AS comment,
+              r.rating    AS rating,
+              r.createdAt AS createdAt,
+              u.id        AS userId,
+              u.username  AS username
        FROM   ReviewModel r
+       JOIN   r.user u
        WHERE  r.recipe.id = :recipeId
+         AND  r.id < :cursorId
+       ORDER  BY r.id DESC
+       """)
+    List<ReviewRow> findRowsByRecipeIdBefore(@Param("recipeId") Long recipeId,
+                                             @Param("cursorId") Long cursorId, Pageable pageable);
+
+    // Ids de las últimas :perParent reseñas de cada receta; las filas salen de findRowsByIdIn
+    @Query(value = """
+       SELECT t.id
+       FROM  (SELECT r.id,
+                     ROW_NUMBER() OVER (PARTITION BY r.recipe_id ORDER BY r.id DESC) AS rn
+              FROM   reviews r
+              WHERE  r.recipe_id IN (:recipeIds)) t
+       WHERE  t.rn <= :perParent
+       """, nativeQuery = true)
+    List<Long> findLatestIdsByRecipeIdIn(@Param("recipeIds") Collection<Long> recipeIds,
+                                          @Param("perParent") int perParent);
+
+    @Query("""
+       SELECT r.recipe.id AS parentId,
+              r.id        AS id,
+              r.comment   AS comment,
+              r.rating    AS rating,
+              r.createdAt AS createdAt,
+              u.id        AS userId,
+              u.username  AS username
+       FROM   ReviewModel r
+       JOIN   r.user u
+       WHERE  r.id IN :ids
+       ORDER  BY r.id DESC
        """)
-    RatingSummary getSummaryByRecipeId(@Param("recipeId") Long recipeId);
-}
\ No newline at end of file
+    List<ReviewRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,9 +1,22 @@
 package com.dishly.app.repositories;
 
+import com.dishly.app.models.IngredientModel;
 import com.dishly.app.models.UserModel;
+import com.dishly.app.projection.AuthorRow;
+import com.dishly.app.projection.FollowPageRow;
+import com.dishly.app.projection.FollowRow;
+import com.dishly.app.projection.UserIndexRow;
+import com.dishly.app.projection.UserSummaryRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<UserModel, Long> {
@@ -13,6 +26,222 @@ public interface UserRepository extends JpaRepository<UserModel, Long> {
     Optional<UserModel> findByUsername(String username);
     Optional<UserModel> findByGoogleId(String googleId);
 
-    @Query("select distinct u from UserModel u left join fetch u.followers where u.id = :id")
-    Optional<UserModel> findByIdWithFollowers(Long id);
+    @Query("SELECT u.id FROM UserModel u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    @Query("SELECT i.id FROM UserModel u JOIN u.undesiredIngredients i WHERE u.id = :userId")
+    List<Long> findUndesiredIngredientIds(@Param("userId") Long userId);
+
+    // Todas las aristas de user_followers, para el grafo en memoria
+    @Query("""
+       SELECT u.id AS userId,
+              f.id AS followerId
+       FROM   UserModel u
+       JOIN   u.followers f
+       """)
+    List<FollowRow> findAllFollowRows();
+
+    // Filas livianas para armar el índice de búsqueda de usuarios
+    @Query("""
+       SELECT u.id       AS id,
+              u.username AS username,
+              u.fullName AS fullName
+       FROM   UserModel u
+       """)
+    List<UserIndexRow> findAllIndexRows();
+
+    // Sin contadores: los resuelve el grafo en memoria, sin tocar user_followers
+    @Query("""
+       SELECT u.id       AS id,
+              u.username AS username,
+              u.email    AS email,
+              u.fullName AS fullName,
+              u.photo    AS photo,
+              u.photoHash AS photoHash
+       FROM   UserModel u
+       WHERE  u.id IN :ids
+       """)
+    List<UserSummaryRow> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /* ---------- user_followers sin cargar las colecciones ---------- */
+
+    // Idempotente: no duplica la arista si ya existe. Dos follows simultáneos pasan los dos el
+    // NOT EXISTS; el segundo choca con uk_user_followers_user_follower y ON CONFLICT lo deja en 0
+    @Modifying
+    @Transactional
+    @Query(value = """
+       INSERT INTO user_followers (user_id, follower_id)
+       SELECT CAST(:userId AS bigint), CAST(:followerId AS bigint)
+       WHERE  NOT EXISTS (SELECT 1 FROM user_followers
+                          WHERE  user_id = :userId AND follower_id = :followerId)
+       ON CONFLICT DO NOTHING
+       """, nativeQuery = true)
+    int addFollower(@Param("userId") Long userId, @Param("followerId") Long followerId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM user_followers WHERE user_id = :userId AND follower_id = :followerId",
+           nativeQuery = true)
+    int removeFollower(@Param("userId") Long userId, @Param("followerId") Long followerId);
+
+    @Query("SELECT f.email FROM UserModel u JOIN u.followers f WHERE u.id = :userId")
+    List<String> findFollowerEmails(@Param("userId") Long userId);
+
+    @Query("""
+       SELECT u.id       AS id,
+              u.username AS username,
+              u.photo    AS photo,
+              u.photoHash AS photoHash
+       FROM   UserModel u
+       WHERE  u.id IN :ids
+       """)
+    List<AuthorRow> findAuthorRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /* ---------- undesired_ingredients sin cargar la colección del usuario ---------- */
+
+    // El alias principal es el ingrediente, así el Sort del Pageable aplica sobre sus campos
+    @Query(value = """
+       SELECT i FROM IngredientModel i
+       WHERE  i.id IN (SELECT ui.id FROM UserModel u JOIN u.undesiredIngredients ui WHERE u.id = :userId)
+       ORDER  BY i.name
+       """,
+           countQuery = """
+       SELECT COUNT(ui) FROM UserModel u JOIN u.undesiredIngredients ui WHERE u.id = :userId
+       """)
+    Page<IngredientModel> findUndesiredIngredients(@Param("userId") Long userId, Pageable pageable);
+
+    // Dos altas simultáneas pasan las dos el NOT EXISTS; la segunda choca con
+    // uk_undesired_ingredients_user_ingredient y ON CONFLICT la deja en 0
+    @Modifying
+    @Transactional
+    @Query(value = """
+       INSERT INTO undesired_ingredients (user_id, ingredient_id)
+       SELECT CAST(:userId AS bigint), CAST(:ingredientId AS bigint)
+       WHERE  NOT EXISTS (SELECT 1 FROM undesired_ingredients
+                          WHERE  user_id = :userId AND ingredient_id = :ingredientId)
+       ON CONFLICT DO NOTHING
+       """, nativeQuery = true)
+    int addUndesiredIngredient(@Param("userId") Long userId, @Param("ingredientId") Long ingredientId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM undesired_ingredients WHERE user_id = :userId AND ingredient_id = :ingredientId",
+           nativeQuery = true)
+    int removeUndesiredIngredient(@Param("userId") Long userId, @Param("ingredientId") Long ingredientId);
+
+    // Reemplazo del conjunto completo: el servicio calcula la diferencia y la aplica por lotes
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM undesired_ingredients WHERE user_id = :userId", nativeQuery = true)
+    int clearUndesiredIngredients(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+       DELETE FROM undesired_ingredients
+       WHERE  user_id = :userId
+         AND  ingredient_id IN (:ingredientIds)
+       """, nativeQuery = true)
+    int removeUndesiredIngredientsIn(@Param("userId") Long userId, @Param("ingredientIds") Collection<Long> ingredientIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+       INSERT INTO undesired_ingredients (user_id, ingredient_id)
+       SELECT CAST(:userId AS bigint), i.id
+       FROM   ingredients i
+       WHERE  i.id IN (:ingredientIds)
+         AND  NOT EXISTS (SELECT 1 FROM undesired_ingredients x
+                          WHERE  x.user_id = :userId AND x.ingredient_id = i.id)
+       ON CONFLICT DO NOTHING
+       """, nativeQuery = true)
+    int addUndesiredIngredients(@Param("userId") Long userId, @Param("ingredientIds") Collection<Long> ingredientIds);
+
+    /* ---------- Keyset sobre user_followers (id DESC), con "lo sigo" en la misma consulta ---------- */
+
+    // Seguidores de :userId
+    @Query("""
+       SELECT f.id       AS id,
+              f.username AS username,
+              f.email    AS email,
+              f.fullName AS fullName,
+              f.photo    AS photo,
+              f.photoHash AS photoHash,
+              (SELECT COUNT(m) FROM UserModel t JOIN t.followers m
+               WHERE  t.id = f.id AND m.id = :requesterId) AS followedByMe
+       FROM   UserModel u
+       JOIN   u.followers f
+       WHERE  u.id = :userId
+       ORDER  BY f.id DESC
+       """)
+    List<FollowPageRow> findFollowersPage(@Param("userId") Long userId,
+                                          @Param("requesterId") Long requesterId, Pageable pageable);
+
+    @Query("""
+       SELECT f.id       AS id,
+              f.username AS username,
+              f.email    AS email,
+              f.fullName AS fullName,
+              f.photo    AS photo,
+              f.photoHash AS photoHash,
+              (SELECT COUNT(m) FROM UserModel t JOIN t.followers m
+               WHERE  t.id = f.id AND m.id = :requesterId) AS followedByMe
+       FROM   UserModel u
+       JOIN   u.followers f
+       WHERE  u.id = :userId
+         AND  f.id < :cursorId
+       ORDER  BY f.id DESC
+       """)
+    List<FollowPageRow> findFollowersPageBefore(@Param("userId") Long userId, @Param("requesterId") Long requesterId,
+                                                @Param("cursorId") Long cursorId, Pageable pageable);
+
+    // Usuarios que :userId sigue (aristas donde es el follower)
+    @Query("""
+       SELECT f.id       AS id,
+              f.username AS username,
+              f.email    AS email,
+              f.fullName AS fullName,
+              f.photo    AS photo,
+              f.photoHash AS photoHash,
+              (SELECT COUNT(m) FROM UserModel t JOIN t.followers m
+               WHERE  t.id = f.id AND m.id = :requesterId) AS followedByMe
+       FROM   UserModel f
+       JOIN   f.followers u
+       WHERE  u.id = :userId
+       ORDER  BY f.id DESC
+       """)
+    List<FollowPageRow> findFollowingPage(@Param("userId") Long userId,
+                                          @Param("requesterId") Long requesterId, Pageable pageable);
+
+    @Query("""
+       SELECT f.id       AS id,
+              f.username AS username,
+              f.email    AS email,
+              f.fullName AS fullName,
+              f.photo    AS photo,
+              f.photoHash AS photoHash,
+              (SELECT COUNT(m) FROM UserModel t JOIN t.followers m
+               WHERE  t.id = f.id AND m.id = :requesterId) AS followedByMe
+       FROM   UserModel f
+       JOIN   f.followers u
+       WHERE  u.id = :userId
+         AND  f.id < :cursorId
+       ORDER  BY f.id DESC
+       """)
+    List<FollowPageRow> findFollowingPageBefore(@Param("userId") Long userId, @Param("requesterId") Long requesterId,
+                                                @Param("cursorId") Long cursorId, Pageable pageable);
+
+    /* ---------- Migración de las fotos en base64 al blob store (ImageMigrationService) ---------- */
+
+    @Query("SELECT u.id FROM UserModel u WHERE u.photo IS NOT NULL AND u.photoHash IS NULL AND u.id > :afterId ORDER BY u.id")
+    List<Long> findLegacyPhotoIds(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT u.photo FROM UserModel u WHERE u.id = :id")
+    Optional<String> findPhotoById(@Param("id") Long id);
+
+    // Si mientras tanto se subió otra imagen, no se pisa
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserModel u SET u.photoHash = :hash, u.photo = NULL WHERE u.id = :id AND u.photoHash IS NULL")
+    int movePhotoToBlob(@Param("id") Long id, @Param("hash") String hash);
 }
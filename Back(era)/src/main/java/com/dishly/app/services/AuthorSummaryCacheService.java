@@ -0,0 +1,158 @@
+package com.dishly.app.services;
+
+import com.dishly.app.projection.AuthorRow;
+import com.dishly.app.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.dishly.app.services.RecipeDTOAssembler.inChunks;
+
+/**
+ * Nombre y foto de los autores que muestran recetas, meal preps y reseñas, para no leer
+ * el {@code UserModel} por cada DTO. La foto es la URL del blob store o, si el usuario
+ * todavía no se migró, el base64 de siempre. Es un LRU acotado por
+ * cantidad y por tamaño aproximado: las fotos grandes desplazan a varias entradas chicas.
+ * Se invalida cuando el usuario cambia nombre o foto y cuando se borra la cuenta.
+ */
+@Service
+public class AuthorSummaryCacheService {
+    private static final Logger log = LoggerFactory.getLogger(AuthorSummaryCacheService.class);
+
+    /** Lo que ocupa una entrada además del texto (objetos, claves, nodos del mapa). */
+    private static final long ENTRY_OVERHEAD = 96;
+
+    public record AuthorSummary(Long id, String username, String photo) {
+
+        long weight() {
+            return ENTRY_OVERHEAD
+                    + 2L * (username != null ? username.length() : 0)
+                    + 2L * (photo != null ? photo.length() : 0);
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size, long weight) {
+    }
+
+    private final UserRepository userRepo;
+    private final ImageStoreService images;
+
+    @Value("${app.cache.authors.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.cache.authors.max-bytes:33554432}")
+    private long maxWeight;
+
+    /** Orden de acceso: el primero es el menos usado. Protegido por {@code this}. */
+    private final LinkedHashMap<Long, AuthorSummary> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weight;
+    /** Sube con cada invalidación; una carga que empezó antes no se guarda. */
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AuthorSummaryCacheService(UserRepository userRepo, ImageStoreService images) {
+        this.userRepo = userRepo;
+        this.images = images;
+    }
+
+    /* ---------- Lectura ---------- */
+
+    public AuthorSummary get(Long userId) {
+        if (userId == null) return null;
+        return getAll(Set.of(userId)).get(userId);
+    }
+
+    /** Los autores pedidos que existen; los que faltan se cargan con una consulta por lote. */
+    public Map<Long, AuthorSummary> getAll(Collection<Long> userIds) {
+        Map<Long, AuthorSummary> out = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        long loadGeneration;
+        synchronized (this) {
+            for (Long id : userIds) {
+                if (id == null) continue;
+                AuthorSummary cached = entries.get(id);
+                if (cached != null) out.put(id, cached);
+                else missing.add(id);
+            }
+            loadGeneration = generation;
+        }
+        hits.add(out.size());
+        if (missing.isEmpty()) return out;
+        misses.add(missing.size());
+
+        // La consulta corre fuera del lock
+        for (AuthorRow row : inChunks(missing, userRepo::findAuthorRowsByIdIn)) {
+            out.put(row.getId(), new AuthorSummary(row.getId(), row.getUsername(),
+                    images.urlOr(row.getPhotoHash(), ImageVariant.AVATAR, row.getPhoto())));
+        }
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                for (Long id : missing) {
+                    AuthorSummary loaded = out.get(id);
+                    if (loaded != null) put(loaded);
+                }
+            }
+        }
+        return out;
+    }
+
+    private void put(AuthorSummary summary) {
+        long w = summary.weight();
+        if (w > maxWeight) return;
+        AuthorSummary old = entries.put(summary.id(), summary);
+        if (old != null) weight -= old.weight();
+        weight += w;
+
+        Iterator<AuthorSummary> it = entries.values().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && it.hasNext()) {
+            weight -= it.next().weight();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    /* ---------- Invalidación ---------- */
+
+    /** Cambió el nombre o la foto del usuario, o se borró la cuenta. */
+    public void invalidateAfterCommit(Long userId) {
+        if (userId == null) return;
+        AfterCommit.run(() -> invalidate(userId));
+    }
+
+    private synchronized void invalidate(Long userId) {
+        generation++;
+        AuthorSummary old = entries.remove(userId);
+        if (old != null) weight -= old.weight();
+    }
+
+    /* ---------- Métricas ---------- */
+
+    public synchronized Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), weight);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.authors.stats-log-ms:600000}",
+            initialDelayString = "${app.cache.authors.stats-log-ms:600000}")
+    void logStats() {
+        Stats s = stats();
+        long lookups = s.hits() + s.misses();
+        if (lookups == 0) return;
+        log.info("Author cache: {} hits, {} misses ({}% hit rate), {} evictions, {} entries, {} KB",
+                s.hits(), s.misses(), Math.round(100.0 * s.hits() / lookups), s.evictions(), s.size(),
+                s.weight() / 1024);
+    }
+}
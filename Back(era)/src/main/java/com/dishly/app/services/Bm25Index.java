@@ -0,0 +1,171 @@
+package com.dishly.app.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Índice BM25 sobre varios campos de texto ya normalizado, cada uno con su peso
+ * (BM25F simplificado: cada campo normaliza la frecuencia con su propio largo medio).
+ * Los postings guardan por término las frecuencias de cada documento. No elige
+ * resultados: ordena los candidatos que ya filtró el índice dueño.
+ * Las escrituras tienen que venir serializadas desde el índice dueño.
+ */
+final class Bm25Index {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    /** Orden del ranking: puntaje descendente y, a igual puntaje, id descendente. */
+    static final Comparator<Scored> RANKING =
+            Comparator.comparingDouble(Scored::score).thenComparingLong(Scored::id).reversed();
+
+    private final double[] boosts;
+    /** término → (documento → frecuencia en cada campo) */
+    private final Map<String, Map<Long, int[]>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, DocStats> docs = new ConcurrentHashMap<>();
+    private final AtomicLongArray totalLengths;
+
+    Bm25Index(double... boosts) {
+        this.boosts = boosts.clone();
+        this.totalLengths = new AtomicLongArray(boosts.length);
+    }
+
+    /** Cantidad de tokens de cada campo y términos del documento (para poder sacarlo). */
+    private record DocStats(int[] lengths, Set<String> terms) {
+    }
+
+    record Scored(long id, double score) {
+    }
+
+    /** Posición en el ranking, serializada como cursor opaco para el cliente. */
+    record Cursor(double score, long id) {
+
+        boolean isBefore(Scored s) {
+            return s.score() < score || (s.score() == score && s.id() < id);
+        }
+
+        String encode() {
+            String raw = Long.toHexString(Double.doubleToLongBits(score)) + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) return null;
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.indexOf(':');
+                if (sep <= 0) throw new IllegalArgumentException("Cursor de búsqueda inválido: " + cursor);
+                return new Cursor(Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, sep), 16)),
+                        Long.parseLong(raw.substring(sep + 1)));
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException y errores de Base64 también son IllegalArgumentException
+                throw new IllegalArgumentException("Cursor de búsqueda inválido: " + cursor);
+            }
+        }
+    }
+
+    /** Un texto normalizado por campo, en el mismo orden que los pesos. */
+    void put(long id, String... fields) {
+        remove(id);
+        int[] docLengths = new int[boosts.length];
+        Map<String, int[]> freqs = new HashMap<>();
+        for (int f = 0; f < boosts.length; f++) {
+            String text = f < fields.length ? fields[f] : null;
+            if (text == null || text.isBlank()) continue;
+            for (String token : text.split("[ |]+")) {
+                if (token.isBlank()) continue;
+                freqs.computeIfAbsent(token, k -> new int[boosts.length])[f]++;
+                docLengths[f]++;
+            }
+        }
+        if (freqs.isEmpty()) return;
+
+        docs.put(id, new DocStats(docLengths, Set.copyOf(freqs.keySet())));
+        for (int f = 0; f < boosts.length; f++) {
+            totalLengths.addAndGet(f, docLengths[f]);
+        }
+        freqs.forEach((term, tf) -> postings.computeIfAbsent(term, k -> new ConcurrentHashMap<>()).put(id, tf));
+    }
+
+    void remove(long id) {
+        DocStats old = docs.remove(id);
+        if (old == null) return;
+        for (int f = 0; f < boosts.length; f++) {
+            totalLengths.addAndGet(f, -old.lengths()[f]);
+        }
+        for (String term : old.terms()) {
+            postings.computeIfPresent(term, (k, byDoc) -> {
+                byDoc.remove(id);
+                return byDoc.isEmpty() ? null : byDoc;
+            });
+        }
+    }
+
+    /**
+     * Los {@code max} de {@code candidates} mejor puntuados para {@code query} (normalizado)
+     * que quedan después de {@code after} en el ranking. El puntaje sólo ordena: quién entra
+     * lo deciden los candidatos, y uno sin ningún término de la consulta queda con 0.
+     */
+    List<Scored> rank(String query, Collection<Long> candidates, Cursor after, int max) {
+        if (candidates.isEmpty() || max <= 0) return List.of();
+        int docCount = Math.max(1, docs.size());
+
+        double[] avgLengths = new double[boosts.length];
+        for (int f = 0; f < boosts.length; f++) {
+            avgLengths[f] = Math.max(1.0, (double) totalLengths.get(f) / docCount);
+        }
+
+        // Postings e idf de cada término de la consulta, una sola vez
+        List<Map<Long, int[]>> termPostings = new ArrayList<>();
+        List<Double> idfs = new ArrayList<>();
+        for (String term : SearchText.tokenize(query)) {
+            Map<Long, int[]> byDoc = postings.get(term);
+            if (byDoc == null) continue;
+            int df = byDoc.size();
+            termPostings.add(byDoc);
+            idfs.add(Math.log(1 + (docCount - df + 0.5) / (df + 0.5)));
+        }
+
+        // Heap acotado con el peor de los mejores arriba
+        PriorityQueue<Scored> heap = new PriorityQueue<>(max + 1, RANKING.reversed());
+        for (Long id : candidates) {
+            Scored s = new Scored(id, score(id, termPostings, idfs, avgLengths));
+            if (after != null && !after.isBefore(s)) continue;
+            if (heap.size() == max && RANKING.compare(s, heap.peek()) >= 0) continue;
+            heap.add(s);
+            if (heap.size() > max) heap.poll();
+        }
+
+        List<Scored> out = new ArrayList<>(heap);
+        out.sort(RANKING);
+        return out;
+    }
+
+    private double score(long id, List<Map<Long, int[]>> termPostings, List<Double> idfs, double[] avgLengths) {
+        DocStats stats = docs.get(id);
+        if (stats == null) return 0;
+        double total = 0;
+        for (int t = 0; t < termPostings.size(); t++) {
+            int[] tf = termPostings.get(t).get(id);
+            if (tf == null) continue;
+            double sum = 0;
+            for (int f = 0; f < boosts.length; f++) {
+                if (tf[f] == 0) continue;
+                double norm = K1 * (1 - B + B * stats.lengths()[f] / avgLengths[f]);
+                sum += boosts[f] * tf[f] * (K1 + 1) / (tf[f] + norm);
+            }
+            total += idfs.get(t) * sum;
+        }
+        return total;
+    }
+}
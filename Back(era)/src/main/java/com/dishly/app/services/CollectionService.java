@@ -20,11 +20,16 @@ public class CollectionService {
     private final RecipeRepository recipeRepository;
     private final MealPrepRepository mealPrepRepository;
     private final UserRepository userRepository;
+    private final ImageStoreService images;
 
     @Transactional
     public List<CollectionResponseDTO> getUserCollections(String email) {
         UserModel user = userRepository.findByEmail(email).orElseThrow();
-        return collectionRepository.findByUser(user)
+        List<CollectionModel> collections = collectionRepository.findByUser(user);
+        if (!collections.isEmpty()) {
+            collectionRepository.fetchMealPreps(collections); // inicializa c.getMealPreps() en las mismas instancias
+        }
+        return collections
                 .stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
@@ -113,7 +118,7 @@ public class CollectionService {
         List<RecipeModel> pageModels = hasNext ? recipeModels.subList(0, safeLimit) : recipeModels;
 
         List<RecipeSummaryDTO> items = pageModels.stream()
-                .map(r -> new RecipeSummaryDTO(r.getId(), r.getName(), r.getImage()))
+                .map(r -> new RecipeSummaryDTO(r.getId(), r.getName(), images.urlOr(r.getImageHash(), ImageVariant.CARD, r.getImage())))
                 .collect(Collectors.toList());
 
         String nextCursor = hasNext && !items.isEmpty()
@@ -145,7 +150,7 @@ public class CollectionService {
         List<MealPrepModel> pageModels = hasNext ? mealPrepModels.subList(0, safeLimit) : mealPrepModels;
 
         List<MealPrepSummaryDTO> items = pageModels.stream()
-                .map(m -> new MealPrepSummaryDTO(m.getId(), m.getName(), m.getImage()))
+                .map(m -> new MealPrepSummaryDTO(m.getId(), m.getName(), images.urlOr(m.getImageHash(), ImageVariant.CARD, m.getImage())))
                 .collect(Collectors.toList());
 
         String nextCursor = hasNext && !items.isEmpty()
@@ -158,11 +163,11 @@ public class CollectionService {
 
     private CollectionResponseDTO toDTO(CollectionModel collection) {
         List<RecipeSummaryDTO> recipeSummaries = collection.getRecipes().stream()
-                .map(r -> new RecipeSummaryDTO(r.getId(), r.getName(), r.getImage()))
+                .map(r -> new RecipeSummaryDTO(r.getId(), r.getName(), images.urlOr(r.getImageHash(), ImageVariant.CARD, r.getImage())))
                 .collect(Collectors.toList());
 
         List<MealPrepSummaryDTO> mealPrepSummaries = collection.getMealPreps().stream()
-                .map(m -> new MealPrepSummaryDTO(m.getId(), m.getName(), m.getImage()))
+                .map(m -> new MealPrepSummaryDTO(m.getId(), m.getName(), images.urlOr(m.getImageHash(), ImageVariant.CARD, m.getImage())))
                 .collect(Collectors.toList());
 
         return new CollectionResponseDTO(collection.getId(), collection.getName(), recipeSummaries, mealPrepSummaries);
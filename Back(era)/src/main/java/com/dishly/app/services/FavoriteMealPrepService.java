@@ -3,7 +3,6 @@ package com.dishly.app.services;
 import com.dishly.app.dto.MealPrepResponseDTO;
 import com.dishly.app.dto.PagedResponse;
 import com.dishly.app.models.FavoriteMealPrepModel;
-import com.dishly.app.models.IngredientModel;
 import com.dishly.app.models.MealPrepModel;
 import com.dishly.app.models.UserModel;
 import com.dishly.app.repositories.FavoriteMealPrepRepository;
@@ -12,13 +11,12 @@ import com.dishly.app.repositories.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +26,7 @@ public class FavoriteMealPrepService {
     private final MealPrepRepository mealPrepRepo;
     private final UserRepository userRepo;
     private final MealPrepService mealPrepService;
+    private final UndesiredIngredientCacheService undesiredCache;
 
     @Transactional
     public void toggleFavorite(String email, Long mealPrepId) {
@@ -50,12 +49,9 @@ public class FavoriteMealPrepService {
     public List<MealPrepResponseDTO> getFavorites(String email) {
         UserModel user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        Set<Long> undesiredIngredientIds = user.getUndesiredIngredients().stream()
-                .map(IngredientModel::getId)
-                .collect(Collectors.toSet());
-        return favoriteRepo.findByUser(user).stream()
-                .map(f -> mealPrepService.toDTO(f.getMealPrep(), undesiredIngredientIds))
-                .toList();
+        IngredientBitmap undesired = undesiredCache.forUser(user.getId());
+        return mealPrepService.toDTOs(
+                favoriteRepo.findByUser(user).stream().map(FavoriteMealPrepModel::getMealPrep).toList(), undesired);
     }
 
     public boolean isFavorite(String email, Long mealPrepId) {
@@ -81,22 +77,18 @@ public class FavoriteMealPrepService {
 
     @Transactional
     public Page<MealPrepResponseDTO> getFavMealPreps(Long userId, Pageable pageable) {
-        Set<Long> undesiredIngredientIds = userRepo.findById(userId)
-                .map(u -> u.getUndesiredIngredients().stream()
-                        .map(IngredientModel::getId)
-                        .collect(Collectors.toSet()))
-                .orElse(Set.of());
-        return favoriteRepo.findByUserId(userId, pageable)
-                .map(fmp -> mealPrepService.toDTO(fmp.getMealPrep(), undesiredIngredientIds));
+        IngredientBitmap undesired = undesiredCache.forUser(userId);
+        Page<FavoriteMealPrepModel> page = favoriteRepo.findByUserId(userId, pageable);
+        List<MealPrepResponseDTO> items = mealPrepService.toDTOs(
+                page.getContent().stream().map(FavoriteMealPrepModel::getMealPrep).toList(), undesired);
+        return new PageImpl<>(items, page.getPageable(), page.getTotalElements());
     }
 
     @Transactional
     public PagedResponse<MealPrepResponseDTO> getFavMealPrepsByCursor(String email, String cursor, int limit) {
         UserModel user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        Set<Long> undesiredIngredientIds = user.getUndesiredIngredients().stream()
-                .map(IngredientModel::getId)
-                .collect(Collectors.toSet());
+        IngredientBitmap undesired = undesiredCache.forUser(user.getId());
 
         int safeLimit = limit > 0 ? limit : 10;
         Pageable pageable = PageRequest.of(0, safeLimit + 1);
@@ -114,9 +106,8 @@ public class FavoriteMealPrepService {
                 ? favModels.subList(0, safeLimit)
                 : favModels;
 
-        List<MealPrepResponseDTO> items = pageModels.stream()
-                .map(fmp -> mealPrepService.toDTO(fmp.getMealPrep(), undesiredIngredientIds))
-                .toList();
+        List<MealPrepResponseDTO> items = mealPrepService.toDTOs(
+                pageModels.stream().map(FavoriteMealPrepModel::getMealPrep).toList(), undesired);
 
         String nextCursor = hasNext && !pageModels.isEmpty()
                 ? String.valueOf(pageModels.get(pageModels.size() - 1).getId())
@@ -3,7 +3,6 @@ package com.dishly.app.services;
 import com.dishly.app.dto.PagedResponse;
 import com.dishly.app.dto.RecipeResponseDTO;
 import com.dishly.app.models.FavoriteRecipeModel;
-import com.dishly.app.models.IngredientModel;
 import com.dishly.app.models.RecipeModel;
 import com.dishly.app.models.UserModel;
 import com.dishly.app.repositories.FavoriteRecipeRepository;
@@ -12,13 +11,12 @@ import com.dishly.app.repositories.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +26,7 @@ public class FavoriteRecipeService {
     private final UserRepository userRepo;
     private final RecipeRepository recipeRepo;
     private final RecipeService recipeService;
+    private final UndesiredIngredientCacheService undesiredCache;
 
     @Transactional
     public void toggleFavorite(String email, Long recipeId) {
@@ -50,13 +49,10 @@ public class FavoriteRecipeService {
     public List<RecipeResponseDTO> getFavorites(String email) {
         UserModel user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        Set<Long> undesiredIngredientIds = user.getUndesiredIngredients().stream()
-                .map(IngredientModel::getId)
-                .collect(Collectors.toSet());
+        IngredientBitmap undesired = undesiredCache.forUser(user.getId());
 
-        return favoriteRepo.findByUser(user).stream()
-                .map(fav -> recipeService.toDTO(fav.getRecipe(), undesiredIngredientIds))
-                .toList();
+        return recipeService.toDTOs(
+                favoriteRepo.findByUser(user).stream().map(FavoriteRecipeModel::getRecipe).toList(), undesired);
     }
 
     public boolean isFavorite(String email, Long recipeId) {
@@ -81,22 +77,18 @@ public class FavoriteRecipeService {
 
     @Transactional
     public Page<RecipeResponseDTO> getFavRecipes(Long userId, Pageable pageable) {
-        Set<Long> undesiredIngredientIds = userRepo.findById(userId)
-                .map(u -> u.getUndesiredIngredients().stream()
-                        .map(IngredientModel::getId)
-                        .collect(Collectors.toSet()))
-                .orElse(Set.of());
-        return favoriteRepo.findByUserId(userId, pageable)
-                .map(fr -> recipeService.toDTO(fr.getRecipe(), undesiredIngredientIds));
+        IngredientBitmap undesired = undesiredCache.forUser(userId);
+        Page<FavoriteRecipeModel> page = favoriteRepo.findByUserId(userId, pageable);
+        List<RecipeResponseDTO> items = recipeService.toDTOs(
+                page.getContent().stream().map(FavoriteRecipeModel::getRecipe).toList(), undesired);
+        return new PageImpl<>(items, page.getPageable(), page.getTotalElements());
     }
 
     @Transactional
     public PagedResponse<RecipeResponseDTO> getFavRecipesByCursor(String email, String cursor, int limit) {
         UserModel user = userRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        Set<Long> undesiredIngredientIds = user.getUndesiredIngredients().stream()
-                .map(IngredientModel::getId)
-                .collect(Collectors.toSet());
+        IngredientBitmap undesired = undesiredCache.forUser(user.getId());
 
         int safeLimit = limit > 0 ? limit : 10;
         Pageable pageable = PageRequest.of(0, safeLimit + 1);
@@ -114,9 +106,8 @@ public class FavoriteRecipeService {
                 ? favModels.subList(0, safeLimit)
                 : favModels;
 
-        List<RecipeResponseDTO> items = pageModels.stream()
-                .map(fr -> recipeService.toDTO(fr.getRecipe(), undesiredIngredientIds))
-                .toList();
+        List<RecipeResponseDTO> items = recipeService.toDTOs(
+                pageModels.stream().map(FavoriteRecipeModel::getRecipe).toList(), undesired);
 
         String nextCursor = hasNext && !pageModels.isEmpty()
                 ? String.valueOf(pageModels.get(pageModels.size() - 1).getId())
@@ -0,0 +1,138 @@
+package com.dishly.app.services;
+
+import com.dishly.app.dto.FederatedSearchResponseDTO;
+import com.dishly.app.dto.IngredientDTO;
+import com.dishly.app.dto.MealPrepResponseDTO;
+import com.dishly.app.dto.PagedResponse;
+import com.dishly.app.dto.RecipeResponseDTO;
+import com.dishly.app.dto.UserProfileDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Búsqueda combinada: lanza recetas, meal preps, usuarios e ingredientes a la vez en
+ * hilos virtuales y espera a cada fuente hasta el mismo deadline. La fuente que no
+ * llega se devuelve vacía y marcada en {@code timedOut}; la que falla, vacía y marcada
+ * en {@code failed}. Ninguna frena a las demás.
+ */
+@Service
+public class FederatedSearchService {
+    private static final Logger log = LoggerFactory.getLogger(FederatedSearchService.class);
+
+    /** Mismo tope por sección que las búsquedas de cada fuente. */
+    public static final int MAX_SEARCH_RESULTS = 50;
+
+    private final RecipeService recipeService;
+    private final MealPrepService mealPrepService;
+    private final UserService userService;
+    private final IngredientService ingredientService;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${app.search.federated.timeout-ms:800}")
+    private long timeoutMs;
+
+    public FederatedSearchService(RecipeService recipeService, MealPrepService mealPrepService,
+                                  UserService userService, IngredientService ingredientService) {
+        this.recipeService = recipeService;
+        this.mealPrepService = mealPrepService;
+        this.userService = userService;
+        this.ingredientService = ingredientService;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public FederatedSearchResponseDTO searchAll(String query, String recipeCursor, String mealPrepCursor,
+                                                String userCursor, int limit, String email) {
+        int safeLimit = Math.min(limit > 0 ? limit : 10, MAX_SEARCH_RESULTS);
+        boolean hasAuthUser = email != null && !email.isBlank();
+
+        Future<PagedResponse<RecipeResponseDTO>> recipes = executor.submit(() ->
+                recipeService.searchByCursor(query, null, null, recipeCursor, safeLimit, email, false, false));
+        Future<PagedResponse<MealPrepResponseDTO>> mealPreps = executor.submit(() ->
+                mealPrepService.searchByCursor(query, null, null, mealPrepCursor, safeLimit, email, false, false));
+        // La búsqueda de usuarios necesita a quien pregunta (para "lo sigo")
+        Future<PagedResponse<UserProfileDTO>> users = hasAuthUser
+                ? executor.submit(() -> userService.searchUsersByCursor(query, email, userCursor, safeLimit))
+                : null;
+        Future<List<IngredientDTO>> ingredients = executor.submit(() ->
+                ingredientService.searchByName(query, safeLimit).stream()
+                        .map(i -> new IngredientDTO(i.getId(), i.getName()))
+                        .toList());
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Missing missing = new Missing();
+
+        try {
+            return new FederatedSearchResponseDTO(
+                    await("recipes", recipes, deadline, missing, () -> emptyPage(recipeCursor), () -> emptyPage(null)),
+                    await("mealPreps", mealPreps, deadline, missing, () -> emptyPage(mealPrepCursor), () -> emptyPage(null)),
+                    users == null
+                            ? emptyPage(null)
+                            : await("users", users, deadline, missing, () -> emptyPage(userCursor), () -> emptyPage(null)),
+                    await("ingredients", ingredients, deadline, missing, List::of, List::of),
+                    missing.timedOut,
+                    missing.failed
+            );
+        } finally {
+            // Si se sale antes (p. ej. interrumpido), las fuentes que siguen corriendo se cortan
+            recipes.cancel(true);
+            mealPreps.cancel(true);
+            if (users != null) users.cancel(true);
+            ingredients.cancel(true);
+        }
+    }
+
+    /** Fuentes que no entraron en la respuesta, por motivo. */
+    private static final class Missing {
+        final List<String> timedOut = new ArrayList<>();
+        final List<String> failed = new ArrayList<>();
+    }
+
+    /**
+     * Resultado de la fuente, o {@code retry} (vacía con el cursor pedido) si no llegó a tiempo
+     * y {@code empty} (sin cursor) si falló: reintentar el mismo cursor volvería a fallar.
+     */
+    private <T> T await(String source, Future<T> future, long deadline, Missing missing,
+                        Supplier<T> retry, Supplier<T> empty) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            missing.timedOut.add(source);
+            log.warn("Federated search: '{}' did not answer within {} ms", source, timeoutMs);
+            return retry.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            missing.timedOut.add(source);
+            return retry.get();
+        } catch (ExecutionException e) {
+            // Una fuente que falla (p. ej. un cursor inválido) no tumba a las demás
+            missing.failed.add(source);
+            log.warn("Federated search: '{}' failed: {}", source, e.getCause().toString());
+            return empty.get();
+        }
+    }
+
+    /** Sección vacía con {@code cursor} como siguiente página (o sin siguiente si es {@code null}). */
+    private static <T> PagedResponse<T> emptyPage(String cursor) {
+        return new PagedResponse<>(List.of(), cursor, false);
+    }
+}
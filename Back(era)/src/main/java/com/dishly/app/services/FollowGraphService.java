@@ -0,0 +1,165 @@
+package com.dishly.app.services;
+
+import com.dishly.app.projection.FollowRow;
+import com.dishly.app.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grafo de seguidores en memoria: para cada usuario, los ids que sigue y los que lo
+ * siguen, como arreglos {@code long[]} ordenados e inmutables (cada cambio reemplaza
+ * el arreglo). Evita inicializar {@code getFollowers()}/{@code getFollowing()} sólo
+ * para contar o preguntar si A sigue a B.
+ */
+@Service
+public class FollowGraphService {
+    private static final Logger log = LoggerFactory.getLogger(FollowGraphService.class);
+
+    private static final long[] NONE = new long[0];
+
+    private final UserRepository userRepo;
+
+    private volatile Graph graph;
+
+    public FollowGraphService(UserRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    /* ---------- Carga ---------- */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, List<Long>> following = new HashMap<>();
+        Map<Long, List<Long>> followers = new HashMap<>();
+        int edges = 0;
+        for (FollowRow row : userRepo.findAllFollowRows()) {
+            followers.computeIfAbsent(row.getUserId(), k -> new ArrayList<>()).add(row.getFollowerId());
+            following.computeIfAbsent(row.getFollowerId(), k -> new ArrayList<>()).add(row.getUserId());
+            edges++;
+        }
+        Graph fresh = new Graph();
+        following.forEach((id, ids) -> fresh.following.put(id, sortedDistinct(ids)));
+        followers.forEach((id, ids) -> fresh.followers.put(id, sortedDistinct(ids)));
+        this.graph = fresh;
+        log.info("Follow graph built: {} edges in {} ms", edges, System.currentTimeMillis() - start);
+    }
+
+    private Graph graph() {
+        Graph current = graph;
+        if (current != null) return current;
+        synchronized (this) {
+            if (graph == null) rebuild();
+            return graph;
+        }
+    }
+
+    /* ---------- Lectura ---------- */
+
+    public boolean isFollowing(Long followerId, Long targetId) {
+        if (followerId == null || targetId == null) return false;
+        Graph g = graph();
+        long[] out = g.following.getOrDefault(followerId, NONE);
+        long[] in = g.followers.getOrDefault(targetId, NONE);
+        // Se busca en la lista más corta de las dos
+        return out.length <= in.length
+                ? Arrays.binarySearch(out, targetId) >= 0
+                : Arrays.binarySearch(in, followerId) >= 0;
+    }
+
+    public int followerCount(Long userId) {
+        return userId == null ? 0 : graph().followers.getOrDefault(userId, NONE).length;
+    }
+
+    public int followingCount(Long userId) {
+        return userId == null ? 0 : graph().following.getOrDefault(userId, NONE).length;
+    }
+
+    /** Ids que sigue el usuario, en orden ascendente. */
+    public long[] followingIds(Long userId) {
+        return userId == null ? NONE : graph().following.getOrDefault(userId, NONE).clone();
+    }
+
+    /** Ids que siguen al usuario, en orden ascendente. */
+    public long[] followerIds(Long userId) {
+        return userId == null ? NONE : graph().followers.getOrDefault(userId, NONE).clone();
+    }
+
+    /* ---------- Escrituras ---------- */
+
+    public void followAfterCommit(Long followerId, Long targetId) {
+        AfterCommit.run(() -> apply(followerId, targetId, true));
+    }
+
+    public void unfollowAfterCommit(Long followerId, Long targetId) {
+        AfterCommit.run(() -> apply(followerId, targetId, false));
+    }
+
+    public void removeUserAfterCommit(Long userId) {
+        AfterCommit.run(() -> removeUser(userId));
+    }
+
+    private synchronized void apply(Long followerId, Long targetId, boolean add) {
+        Graph g = graph;
+        if (g == null) return; // el rebuild pendiente ya va a leer el estado confirmado
+        update(g.following, followerId, targetId, add);
+        update(g.followers, targetId, followerId, add);
+    }
+
+    private synchronized void removeUser(Long userId) {
+        Graph g = graph;
+        if (g == null) return;
+        for (long target : g.following.getOrDefault(userId, NONE)) {
+            update(g.followers, target, userId, false);
+        }
+        for (long follower : g.followers.getOrDefault(userId, NONE)) {
+            update(g.following, follower, userId, false);
+        }
+        g.following.remove(userId);
+        g.followers.remove(userId);
+    }
+
+    private static void update(Map<Long, long[]> adjacency, long key, long value, boolean add) {
+        long[] current = adjacency.getOrDefault(key, NONE);
+        int pos = Arrays.binarySearch(current, value);
+        if (add == (pos >= 0)) return;
+
+        long[] next;
+        if (add) {
+            int at = -pos - 1;
+            next = new long[current.length + 1];
+            System.arraycopy(current, 0, next, 0, at);
+            next[at] = value;
+            System.arraycopy(current, at, next, at + 1, current.length - at);
+        } else {
+            next = new long[current.length - 1];
+            System.arraycopy(current, 0, next, 0, pos);
+            System.arraycopy(current, pos + 1, next, pos, current.length - pos - 1);
+        }
+        if (next.length == 0) adjacency.remove(key);
+        else adjacency.put(key, next);
+    }
+
+    private static long[] sortedDistinct(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    private static final class Graph {
+        final Map<Long, long[]> following = new ConcurrentHashMap<>();
+        final Map<Long, long[]> followers = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,94 @@
+package com.dishly.app.services;
+
+import com.dishly.app.projection.RankedIdRow;
+import com.dishly.app.repositories.MealPrepRepository;
+import com.dishly.app.repositories.RecipeRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Búsqueda full-text en PostgreSQL, ordenada por {@code ts_rank} y paginada por
+ * (puntaje, id). Sólo existe con {@code app.search.backend=postgres}; si no, las
+ * búsquedas quedan en los índices en memoria.
+ * El cursor es opaco para el cliente: {@code <puntaje>_<id>} de la última fila.
+ */
+@Service
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "postgres")
+public class FullTextSearchService {
+
+    private final RecipeRepository recipeRepo;
+    private final MealPrepRepository mealPrepRepo;
+
+    public FullTextSearchService(RecipeRepository recipeRepo, MealPrepRepository mealPrepRepo) {
+        this.recipeRepo = recipeRepo;
+        this.mealPrepRepo = mealPrepRepo;
+    }
+
+    /** Página de ids en orden de relevancia. */
+    public record RankedPage(List<Long> ids, String nextCursor, boolean hasNext) {
+    }
+
+    /** Nombre, ingrediente y autor se combinan en una sola consulta sobre el documento ponderado. */
+    public static String queryText(String name, String ingredient, String author) {
+        return Stream.of(name, ingredient, author)
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.joining(" "));
+    }
+
+    public RankedPage searchRecipes(String text, String cursor, int limit,
+                                    Long userId, boolean onlyFollowing, boolean excludeUndesired) {
+        Cursor c = Cursor.parse(cursor);
+        long uid = userId != null ? userId : -1L;
+        List<RankedIdRow> rows = c == null
+                ? recipeRepo.searchFullText(text, onlyFollowing, excludeUndesired, uid, limit + 1)
+                : recipeRepo.searchFullTextAfter(text, c.score(), c.id(), onlyFollowing, excludeUndesired, uid, limit + 1);
+        return toPage(rows, limit);
+    }
+
+    public RankedPage searchMealPreps(String text, String cursor, int limit,
+                                      Long userId, boolean onlyFollowing, boolean excludeUndesired) {
+        Cursor c = Cursor.parse(cursor);
+        long uid = userId != null ? userId : -1L;
+        List<RankedIdRow> rows = c == null
+                ? mealPrepRepo.searchFullText(text, onlyFollowing, excludeUndesired, uid, limit + 1)
+                : mealPrepRepo.searchFullTextAfter(text, c.score(), c.id(), onlyFollowing, excludeUndesired, uid, limit + 1);
+        return toPage(rows, limit);
+    }
+
+    private static RankedPage toPage(List<RankedIdRow> rows, int limit) {
+        boolean hasNext = rows.size() > limit;
+        List<RankedIdRow> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext && !page.isEmpty()) {
+            RankedIdRow last = page.get(page.size() - 1);
+            nextCursor = new Cursor(last.getScore(), last.getId()).encode();
+        }
+        return new RankedPage(page.stream().map(RankedIdRow::getId).toList(), nextCursor, hasNext);
+    }
+
+    /** El puntaje viaja como float de Java para volver exacto al comparar con el {@code real} de Postgres. */
+    private record Cursor(Float score, Long id) {
+
+        static Cursor parse(String raw) {
+            if (raw == null || raw.isBlank()) return null;
+            int sep = raw.lastIndexOf('_');
+            if (sep <= 0) throw new IllegalArgumentException("Cursor de búsqueda inválido: " + raw);
+            try {
+                return new Cursor(Float.valueOf(raw.substring(0, sep)), Long.valueOf(raw.substring(sep + 1)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor de búsqueda inválido: " + raw);
+            }
+        }
+
+        String encode() {
+            return score + "_" + id;
+        }
+    }
+}
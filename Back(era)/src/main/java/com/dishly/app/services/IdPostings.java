@@ -0,0 +1,88 @@
+package com.dishly.app.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
+
+/**
+ * Lista de postings ordenada por id descendente, que es el mismo orden que usan
+ * los endpoints por cursor. Las lecturas no bloquean; las escrituras las serializa
+ * el índice dueño de la lista.
+ */
+final class IdPostings {
+
+    private final NavigableSet<Long> ids = new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+    private final AtomicInteger size = new AtomicInteger();
+
+    void add(long id) {
+        if (ids.add(id)) {
+            size.incrementAndGet();
+        }
+    }
+
+    void remove(long id) {
+        if (ids.remove(id)) {
+            size.decrementAndGet();
+        }
+    }
+
+    void addAll(IdPostings other) {
+        for (Long id : other.ids) {
+            add(id);
+        }
+    }
+
+    boolean contains(long id) {
+        return ids.contains(id);
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /** Ids menores que el cursor (o todos si no hay cursor), de mayor a menor. */
+    Iterable<Long> after(Long cursorId) {
+        return cursorId == null ? ids : ids.tailSet(cursorId, false);
+    }
+
+    /**
+     * Recorre la lista más corta desde el cursor y se queda con los ids que están
+     * en todas las demás y pasan {@code accept}, hasta juntar {@code max}.
+     */
+    static List<Long> intersect(IdPostings universe, List<IdPostings> clauses, Long cursorId, int max,
+                                LongPredicate accept) {
+        IdPostings driver = universe;
+        for (IdPostings clause : clauses) {
+            if (clause.size() < driver.size()) {
+                driver = clause;
+            }
+        }
+
+        List<Long> out = new ArrayList<>();
+        if (driver.isEmpty() || max <= 0) {
+            return out;
+        }
+        for (Long id : driver.after(cursorId)) {
+            if (driver != universe && !universe.contains(id)) continue;
+            boolean inAll = true;
+            for (IdPostings clause : clauses) {
+                if (clause != driver && !clause.contains(id)) {
+                    inAll = false;
+                    break;
+                }
+            }
+            if (!inAll || !accept.test(id)) continue;
+            out.add(id);
+            if (out.size() >= max) break;
+        }
+        return out;
+    }
+}
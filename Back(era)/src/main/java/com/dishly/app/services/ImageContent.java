@@ -0,0 +1,36 @@
+package com.dishly.app.services;
+
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Imagen lista para servir. Las imágenes se guardan como data URL
+ * ({@code data:image/png;base64,...}) o, en datos viejos, como base64 pelado.
+ */
+public record ImageContent(String contentType, byte[] bytes) {
+
+    private static final String DEFAULT_TYPE = "image/jpeg";
+
+    public static Optional<ImageContent> decode(String stored) {
+        if (stored == null || stored.isBlank()) return Optional.empty();
+        String contentType = DEFAULT_TYPE;
+        String payload = stored.trim();
+        if (payload.startsWith("data:")) {
+            int comma = payload.indexOf(',');
+            if (comma < 0) return Optional.empty();
+            String meta = payload.substring(5, comma);
+            if (!meta.endsWith(";base64")) return Optional.empty();
+            String type = meta.substring(0, meta.length() - ";base64".length());
+            if (!type.isBlank()) contentType = type;
+            payload = payload.substring(comma + 1);
+        }
+        try {
+            // Decodificador estricto: el MIME saltea lo que no es base64 y convertiría una URL en basura
+            byte[] bytes = Base64.getDecoder().decode(payload.replaceAll("\\s", ""));
+            if (bytes.length == 0) return Optional.empty();
+            return Optional.of(new ImageContent(contentType, bytes));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.dishly.app.services;
+
+import com.dishly.app.repositories.MealPrepRepository;
+import com.dishly.app.repositories.RecipeRepository;
+import com.dishly.app.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Pasa al blob store las imágenes que todavía están en base64 en recetas, meal preps y
+ * fotos de perfil. Corre en segundo plano al arrancar, de a lotes y fila por fila (cada
+ * base64 se lee solo), así que se puede cortar y retomar: lo que ya tiene hash no se toca.
+ * Mientras tanto las lecturas sirven el base64 de las filas que faltan.
+ */
+@Service
+public class ImageMigrationService {
+    private static final Logger log = LoggerFactory.getLogger(ImageMigrationService.class);
+
+    private final RecipeRepository recipeRepo;
+    private final MealPrepRepository mealPrepRepo;
+    private final UserRepository userRepo;
+    private final ImageStoreService images;
+    private final AuthorSummaryCacheService authorCache;
+
+    @Value("${app.images.migration-batch:100}")
+    private int batchSize;
+
+    public ImageMigrationService(RecipeRepository recipeRepo, MealPrepRepository mealPrepRepo,
+                                 UserRepository userRepo, ImageStoreService images,
+                                 AuthorSummaryCacheService authorCache) {
+        this.recipeRepo = recipeRepo;
+        this.mealPrepRepo = mealPrepRepo;
+        this.userRepo = userRepo;
+        this.images = images;
+        this.authorCache = authorCache;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        migrate();
+    }
+
+    public void migrate() {
+        long start = System.currentTimeMillis();
+        int recipes = migrate("recipe", recipeRepo::findLegacyImageIds, recipeRepo::findImageById,
+                recipeRepo::moveImageToBlob);
+        int mealPreps = migrate("meal prep", mealPrepRepo::findLegacyImageIds, mealPrepRepo::findImageById,
+                mealPrepRepo::moveImageToBlob);
+        int users = migrate("user", userRepo::findLegacyPhotoIds, userRepo::findPhotoById, (id, hash) -> {
+            int moved = userRepo.movePhotoToBlob(id, hash);
+            authorCache.invalidateAfterCommit(id);
+            return moved;
+        });
+        if (recipes + mealPreps + users > 0) {
+            log.info("Images moved to blob store: {} recipes, {} meal preps, {} users in {} ms",
+                    recipes, mealPreps, users, System.currentTimeMillis() - start);
+        }
+    }
+
+    /** Recorre por id ascendente; una fila que no se puede decodificar se saltea y queda como está. */
+    private int migrate(String kind,
+                        BiFunction<Long, PageRequest, List<Long>> legacyIds,
+                        Function<Long, Optional<String>> legacyValue,
+                        BiFunction<Long, String, Integer> move) {
+        int moved = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = legacyIds.apply(afterId, PageRequest.of(0, batchSize));
+            for (Long id : ids) {
+                afterId = id;
+                try {
+                    Optional<String> value = legacyValue.apply(id);
+                    if (value.isEmpty()) continue;
+                    moved += move.apply(id, images.resolve(value.get()));
+                } catch (RuntimeException e) {
+                    log.warn("Could not move image of {} {} to blob store: {}", kind, id, e.getMessage());
+                }
+            }
+        } while (ids.size() == batchSize);
+        return moved;
+    }
+}
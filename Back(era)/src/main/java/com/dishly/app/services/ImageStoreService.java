@@ -0,0 +1,250 @@
+package com.dishly.app.services;
+
+import com.dishly.app.models.ImageBlobModel;
+import com.dishly.app.repositories.ImageBlobRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Blob store de imágenes en disco, direccionado por contenido: cada imagen se guarda una
+ * sola vez en {@code <dir>/<2 primeros hex>/<sha256>} y las entidades guardan sólo el hash.
+ * Los clientes la piden por {@code /api/images/{hash}} o, achicada, por
+ * {@code /api/images/{hash}/{variante}} (ver {@link ThumbnailService}).
+ */
+@Service
+public class ImageStoreService {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    /**
+     * Una URL nuestra que el cliente devuelve tal cual al editar (absoluta o relativa), del
+     * original o de una variante: los DTOs mandan {@code /api/images/{hash}/card} y parecidas.
+     */
+    private static final Pattern IMAGE_URL =
+            Pattern.compile("(?:^|/)api/images/([0-9a-f]{64})(?:/(?:avatar|card|detail))?$");
+
+    private final ImageBlobRepository blobRepo;
+    private final ThumbnailService thumbnails;
+
+    @Value("${app.images.dir:data/images}")
+    private String dir;
+
+    @Value("${app.images.public-base-url:http://localhost:8080}")
+    private String publicBaseUrl;
+
+    /** Tope de una imagen subida, en bytes (también aplica a las que llegan en base64). */
+    @Value("${app.images.max-upload-bytes:10485760}")
+    private long maxUploadBytes;
+
+    private Path root;
+    /** Subidas en curso; en el mismo disco que {@code root} para que el rename sea atómico. */
+    private Path incoming;
+
+    public ImageStoreService(ImageBlobRepository blobRepo, ThumbnailService thumbnails) {
+        this.blobRepo = blobRepo;
+        this.thumbnails = thumbnails;
+    }
+
+    /** Imagen guardada lista para servir desde disco; {@code variant} es {@code null} para el original. */
+    public record StoredImage(String hash, ImageVariant variant, String contentType, long size, Path path) {
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(dir).toAbsolutePath().normalize();
+        incoming = root.resolve("incoming");
+        Files.createDirectories(incoming);
+    }
+
+    /* ---------- Escritura ---------- */
+
+    /**
+     * Lo que manda el cliente en el campo de imagen, convertido a hash: el hash de una imagen
+     * ya subida por {@code POST /api/images} (o su URL) se reutiliza; una data URL o base64
+     * se guarda. Vacío devuelve {@code null} (sin imagen).
+     */
+    public String resolve(String value) {
+        if (value == null || value.isBlank()) return null;
+        String trimmed = value.trim();
+        if (HASH.matcher(trimmed).matches()) {
+            if (blobRepo.existsById(trimmed)) return trimmed;
+            throw new IllegalArgumentException("Imagen no encontrada: " + trimmed);
+        }
+        Matcher url = IMAGE_URL.matcher(trimmed);
+        if (url.find() && blobRepo.existsById(url.group(1))) return url.group(1);
+        return ImageContent.decode(value)
+                .map(this::put)
+                .orElseThrow(() -> new IllegalArgumentException("Imagen inválida: se espera una data URL en base64"));
+    }
+
+    /** Guarda la imagen si no estaba y devuelve su hash. */
+    public String put(ImageContent image) {
+        return store(new ByteArrayInputStream(image.bytes()));
+    }
+
+    /**
+     * Copia {@code in} a disco de a bloques calculando el SHA-256 al mismo tiempo, sin tener
+     * nunca la imagen entera en memoria. Corta con 413 si pasa de {@code app.images.max-upload-bytes}.
+     * El formato se reconoce por los primeros bytes, así que da igual el tipo con que llegue.
+     */
+    public String store(InputStream in) {
+        MessageDigest digest = sha256();
+        Path tmp = null;
+        try {
+            Files.createDirectories(incoming);
+            tmp = Files.createTempFile(incoming, "upload-", ".tmp");
+            BufferedInputStream buffered = new BufferedInputStream(in);
+            String contentType = contentTypeOf(buffered);
+
+            long size = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                int n;
+                while ((n = buffered.read(buffer)) != -1) {
+                    size += n;
+                    if (size > maxUploadBytes) throw new MaxUploadSizeExceededException(maxUploadBytes);
+                    digest.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                }
+            }
+            if (size == 0) throw new IllegalArgumentException("Imagen vacía");
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                // Rename atómico: nunca se ve un archivo a medio escribir
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                // Se decodifica una sola vez, ahora, y no en la primera vista del feed
+                thumbnails.schedule(hash, target);
+            }
+            register(hash, contentType, size);
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar la imagen", e);
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // Queda un temporal huérfano en incoming/, no afecta a nada
+                }
+            }
+        }
+    }
+
+    private void register(String hash, String contentType, long size) {
+        if (blobRepo.existsById(hash)) return;
+        ImageBlobModel blob = new ImageBlobModel();
+        blob.setHash(hash);
+        blob.setContentType(contentType);
+        blob.setSize(size);
+        try {
+            blobRepo.save(blob);
+        } catch (DataIntegrityViolationException e) {
+            // Otra subida de la misma imagen la registró primero
+        }
+    }
+
+    /**
+     * El formato sale sólo de los primeros bytes: el tipo declarado no alcanza, porque un texto
+     * cualquiera que llegue como {@code image/jpeg} se guardaría como si fuera la imagen.
+     */
+    private static String contentTypeOf(BufferedInputStream in) throws IOException {
+        in.mark(12);
+        byte[] head = in.readNBytes(12);
+        in.reset();
+        String type = sniff(head);
+        if (type == null) {
+            throw new IllegalArgumentException("Formato de imagen no soportado: se aceptan JPEG, PNG, GIF y WebP");
+        }
+        return type;
+    }
+
+    /** Tipo de imagen según los bytes mágicos, o {@code null} si no es ninguno de los aceptados. */
+    static String sniff(byte[] h) {
+        if (h.length >= 3 && (h[0] & 0xff) == 0xFF && (h[1] & 0xff) == 0xD8 && (h[2] & 0xff) == 0xFF) return "image/jpeg";
+        if (h.length >= 4 && (h[0] & 0xff) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G') return "image/png";
+        if (h.length >= 4 && h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8') return "image/gif";
+        if (h.length >= 12 && h[0] == 'R' && h[1] == 'I' && h[2] == 'F' && h[3] == 'F'
+                && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P') return "image/webp";
+        return null;
+    }
+
+    /* ---------- Lectura ---------- */
+
+    public Optional<StoredImage> find(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) return Optional.empty();
+        Path path = pathOf(hash);
+        if (!Files.isRegularFile(path)) return Optional.empty();
+        return blobRepo.findById(hash)
+                .map(b -> new StoredImage(hash, null, b.getContentType(), b.getSize(), path));
+    }
+
+    /**
+     * La variante si ya está generada; si no (y mientras se genera en segundo plano) el
+     * original, que siempre sirve aunque pese más.
+     */
+    public Optional<StoredImage> find(String hash, ImageVariant variant) {
+        return find(hash).map(original -> thumbnails.find(hash, variant, original.path())
+                .map(path -> new StoredImage(hash, variant, "image/jpeg", sizeOf(path), path))
+                .orElse(original));
+    }
+
+    public String url(String hash) {
+        return hash == null ? null : publicBaseUrl + "/api/images/" + hash;
+    }
+
+    public String url(String hash, ImageVariant variant) {
+        return hash == null ? null : url(hash) + "/" + variant.path();
+    }
+
+    /** URL del blob si ya está migrada; si no, el valor inline de siempre. */
+    public String urlOr(String hash, String legacyInline) {
+        return hash != null ? url(hash) : legacyInline;
+    }
+
+    /** Igual que {@link #urlOr(String, String)} pero apuntando al tamaño que se va a mostrar. */
+    public String urlOr(String hash, ImageVariant variant, String legacyInline) {
+        return hash != null ? url(hash, variant) : legacyInline;
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path pathOf(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.dishly.app.services;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/** Tamaños derivados que genera {@link ThumbnailService}; el lado mayor nunca pasa de {@code maxSide}. */
+public enum ImageVariant {
+    /** Fotos de autor y listados de usuarios. */
+    AVATAR("avatar", 128),
+    /** Tarjetas del feed, búsquedas y resúmenes. */
+    CARD("card", 480),
+    /** Detalle de receta / meal prep y perfil. */
+    DETAIL("detail", 1200);
+
+    private final String path;
+    private final int maxSide;
+
+    ImageVariant(String path, int maxSide) {
+        this.path = path;
+        this.maxSide = maxSide;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public int maxSide() {
+        return maxSide;
+    }
+
+    public static Optional<ImageVariant> fromPath(String path) {
+        return Arrays.stream(values()).filter(v -> v.path.equals(path)).findFirst();
+    }
+}
@@ -0,0 +1,145 @@
+package com.dishly.app.services;
+
+import com.dishly.app.dto.IngredientDTO;
+import com.dishly.app.models.IngredientModel;
+import com.dishly.app.repositories.IngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Autocompletado de ingredientes sin ir a la base: arreglos ordenados de claves sin
+ * acentos y búsqueda binaria por prefijo. Primero matchea el comienzo del nombre
+ * ("tom" → "Tomate") y después el comienzo de cualquier otra palabra ("oil" → "Olive oil").
+ * Las lecturas usan una foto inmutable; cada alta arma una nueva (el catálogo cambia poco).
+ */
+@Service
+public class IngredientAutocompleteService {
+    private static final Logger log = LoggerFactory.getLogger(IngredientAutocompleteService.class);
+
+    private final IngredientRepository repository;
+
+    private final Map<Long, String> names = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.build(Map.of());
+
+    public IngredientAutocompleteService(IngredientRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        names.clear();
+        for (IngredientModel ingredient : repository.findAll()) {
+            if (ingredient.getName() != null) names.put(ingredient.getId(), ingredient.getName());
+        }
+        snapshot = Snapshot.build(names);
+        log.info("Ingredient autocomplete loaded: {} ingredients", names.size());
+    }
+
+    /** Alta o renombre de un ingrediente ya persistido. */
+    public synchronized void put(Long id, String name) {
+        if (id == null || name == null || name.equals(names.get(id))) return;
+        names.put(id, name);
+        snapshot = Snapshot.build(names);
+    }
+
+    public List<IngredientDTO> complete(String prefix, int limit) {
+        String key = SearchText.normalize(prefix);
+        if (key.isEmpty() || limit <= 0) return List.of();
+
+        Snapshot current = snapshot;
+        Set<Integer> picked = new LinkedHashSet<>();
+        current.names.collect(key, limit, picked);
+        if (picked.size() < limit) current.words.collect(key, limit, picked);
+
+        List<IngredientDTO> out = new ArrayList<>(picked.size());
+        for (int i : picked) {
+            out.add(new IngredientDTO(current.ids[i], current.labels[i]));
+        }
+        return out;
+    }
+
+    /* ---------- Estructura ---------- */
+
+    private static final class Snapshot {
+        final long[] ids;
+        final String[] labels;
+        final Keys names;
+        final Keys words;
+
+        private Snapshot(long[] ids, String[] labels, Keys names, Keys words) {
+            this.ids = ids;
+            this.labels = labels;
+            this.names = names;
+            this.words = words;
+        }
+
+        static Snapshot build(Map<Long, String> source) {
+            int n = source.size();
+            long[] ids = new long[n];
+            String[] labels = new String[n];
+            List<Keys.Item> nameItems = new ArrayList<>(n);
+            List<Keys.Item> wordItems = new ArrayList<>();
+
+            int i = 0;
+            for (Map.Entry<Long, String> e : source.entrySet()) {
+                ids[i] = e.getKey();
+                labels[i] = e.getValue();
+                String folded = SearchText.normalize(e.getValue());
+                nameItems.add(new Keys.Item(folded, i));
+                // Cada palabra que no es la primera entra con el resto del nombre desde ahí
+                for (int pos = folded.indexOf(' '); pos >= 0; pos = folded.indexOf(' ', pos + 1)) {
+                    wordItems.add(new Keys.Item(folded.substring(pos + 1), i));
+                }
+                i++;
+            }
+            return new Snapshot(ids, labels, Keys.of(nameItems), Keys.of(wordItems));
+        }
+    }
+
+    /** Claves ordenadas y, en paralelo, el índice del ingrediente al que apuntan. */
+    private static final class Keys {
+        record Item(String key, int ref) {
+        }
+
+        final String[] keys;
+        final int[] refs;
+
+        private Keys(String[] keys, int[] refs) {
+            this.keys = keys;
+            this.refs = refs;
+        }
+
+        static Keys of(List<Item> items) {
+            items.sort(Comparator.comparing(Item::key).thenComparingInt(Item::ref));
+            String[] keys = new String[items.size()];
+            int[] refs = new int[items.size()];
+            for (int i = 0; i < items.size(); i++) {
+                keys[i] = items.get(i).key();
+                refs[i] = items.get(i).ref();
+            }
+            return new Keys(keys, refs);
+        }
+
+        /** Agrega, en orden alfabético, los ingredientes cuya clave empieza con {@code prefix}. */
+        void collect(String prefix, int limit, Set<Integer> picked) {
+            int from = Arrays.binarySearch(keys, prefix);
+            if (from < 0) from = -from - 1;
+            for (int i = from; i < keys.length && picked.size() < limit; i++) {
+                if (!keys[i].startsWith(prefix)) break;
+                picked.add(refs[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.dishly.app.services;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Conjunto inmutable de ids de ingredientes, comprimido al estilo Roaring: los ids se
+ * agrupan por sus bits altos ({@code id >>> 16}) y cada grupo guarda los 16 bits bajos
+ * en un arreglo ordenado (si son pocos) o en un bitmap de 65536 bits (si son muchos).
+ * Está pensado para la pregunta "¿la receta tiene algún ingrediente no deseado?",
+ * que se resuelve con {@link #intersects(IngredientBitmap)}.
+ */
+public final class IngredientBitmap {
+
+    public static final IngredientBitmap EMPTY = new IngredientBitmap(new long[0], new Container[0], 0);
+
+    /** A partir de este tamaño un grupo pasa de arreglo a bitmap (mismo corte que Roaring). */
+    private static final int ARRAY_MAX = 4096;
+
+    private final long[] keys;
+    private final Container[] containers;
+    private final int cardinality;
+
+    private IngredientBitmap(long[] keys, Container[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    public static IngredientBitmap of(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return EMPTY;
+        return build(ids.stream().filter(id -> id != null).mapToLong(Long::longValue).toArray());
+    }
+
+    /** Unión de varios bitmaps (p. ej. los ingredientes de todas las recetas de un meal prep). */
+    public static IngredientBitmap union(Collection<IngredientBitmap> bitmaps) {
+        int total = 0;
+        for (IngredientBitmap b : bitmaps) total += b.cardinality;
+        if (total == 0) return EMPTY;
+        long[] all = new long[total];
+        int n = 0;
+        for (IngredientBitmap b : bitmaps) {
+            long[] ids = b.toArray();
+            System.arraycopy(ids, 0, all, n, ids.length);
+            n += ids.length;
+        }
+        return build(all);
+    }
+
+    private static IngredientBitmap build(long[] raw) {
+        long[] sorted = Arrays.stream(raw).filter(id -> id >= 0).sorted().distinct().toArray();
+        if (sorted.length == 0) return EMPTY;
+
+        int groups = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if ((sorted[i] >>> 16) != (sorted[i - 1] >>> 16)) groups++;
+        }
+        long[] keys = new long[groups];
+        Container[] containers = new Container[groups];
+
+        int g = 0;
+        int start = 0;
+        for (int i = 1; i <= sorted.length; i++) {
+            if (i == sorted.length || (sorted[i] >>> 16) != (sorted[start] >>> 16)) {
+                keys[g] = sorted[start] >>> 16;
+                containers[g] = Container.of(sorted, start, i);
+                g++;
+                start = i;
+            }
+        }
+        return new IngredientBitmap(keys, containers, sorted.length);
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) return false;
+        int i = Arrays.binarySearch(keys, id >>> 16);
+        return i >= 0 && containers[i].contains((char) id);
+    }
+
+    /** {@code true} si comparten al menos un id. */
+    public boolean intersects(IngredientBitmap other) {
+        if (isEmpty() || other == null || other.isEmpty()) return false;
+        int i = 0, j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                if (containers[i].intersects(other.containers[j])) return true;
+                i++;
+                j++;
+            }
+        }
+        return false;
+    }
+
+    public long[] toArray() {
+        long[] out = new long[cardinality];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            long high = keys[i] << 16;
+            for (char low : containers[i].values()) {
+                out[n++] = high | low;
+            }
+        }
+        return out;
+    }
+
+    /* ---------- Contenedores ---------- */
+
+    private sealed interface Container permits ArrayContainer, BitmapContainer {
+
+        static Container of(long[] sorted, int from, int to) {
+            int size = to - from;
+            if (size <= ARRAY_MAX) {
+                char[] values = new char[size];
+                for (int i = 0; i < size; i++) values[i] = (char) sorted[from + i];
+                return new ArrayContainer(values);
+            }
+            long[] words = new long[1 << 10];
+            for (int i = from; i < to; i++) {
+                char low = (char) sorted[i];
+                words[low >>> 6] |= 1L << low;
+            }
+            return new BitmapContainer(words, size);
+        }
+
+        boolean contains(char low);
+
+        boolean intersects(Container other);
+
+        char[] values();
+    }
+
+    private record ArrayContainer(char[] sorted) implements Container {
+
+        public boolean contains(char low) {
+            return Arrays.binarySearch(sorted, low) >= 0;
+        }
+
+        public boolean intersects(Container other) {
+            if (other instanceof ArrayContainer a) {
+                int i = 0, j = 0;
+                while (i < sorted.length && j < a.sorted.length) {
+                    if (sorted[i] == a.sorted[j]) return true;
+                    if (sorted[i] < a.sorted[j]) i++;
+                    else j++;
+                }
+                return false;
+            }
+            for (char low : sorted) {
+                if (other.contains(low)) return true;
+            }
+            return false;
+        }
+
+        public char[] values() {
+            return sorted;
+        }
+    }
+
+    private record BitmapContainer(long[] words, int size) implements Container {
+
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        public boolean intersects(Container other) {
+            if (other instanceof BitmapContainer b) {
+                for (int i = 0; i < words.length; i++) {
+                    if ((words[i] & b.words[i]) != 0) return true;
+                }
+                return false;
+            }
+            return other.intersects(this);
+        }
+
+        public char[] values() {
+            char[] out = new char[size];
+            int n = 0;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    out[n++] = (char) ((w << 6) + bit);
+                    word &= word - 1;
+                }
+            }
+            return out;
+        }
+    }
+}
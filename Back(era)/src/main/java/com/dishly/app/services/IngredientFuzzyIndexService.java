@@ -0,0 +1,141 @@
+package com.dishly.app.services;
+
+import com.dishly.app.models.IngredientModel;
+import com.dishly.app.repositories.IngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Búsqueda aproximada de ingredientes en memoria, con la misma idea que pg_trgm:
+ * trigramas por palabra (con relleno de espacios) y similitud = compartidos / unión.
+ * Tolera errores de tipeo ("tomte") y acentos ("atun"). Se usa cuando la base no
+ * es PostgreSQL (HSQLDB / dev).
+ */
+@Service
+public class IngredientFuzzyIndexService {
+    private static final Logger log = LoggerFactory.getLogger(IngredientFuzzyIndexService.class);
+
+    /** Mismo umbral por defecto que pg_trgm. */
+    static final double SIMILARITY_THRESHOLD = 0.3;
+
+    private final IngredientRepository repository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    public IngredientFuzzyIndexService(IngredientRepository repository) {
+        this.repository = repository;
+    }
+
+    private record Entry(Long id, String name, String folded, Set<String> grams) {
+    }
+
+    private record Scored(Entry entry, double score) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        entries.clear();
+        postings.clear();
+        for (IngredientModel ingredient : repository.findAll()) {
+            put(ingredient.getId(), ingredient.getName());
+        }
+        log.info("Ingredient fuzzy index built: {} ingredients", entries.size());
+    }
+
+    /** Alta o renombre de un ingrediente (llamar una vez persistido, con id). */
+    public synchronized void put(Long id, String name) {
+        if (id == null) return;
+        Entry old = entries.remove(id);
+        if (old != null) {
+            for (String gram : old.grams()) {
+                postings.computeIfPresent(gram, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+        if (name == null || name.isBlank()) return;
+
+        String folded = SearchText.normalize(name);
+        Entry entry = new Entry(id, name, folded, trigrams(folded));
+        entries.put(id, entry);
+        for (String gram : entry.grams()) {
+            postings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * Como mucho {@code limit} ingredientes, primero los que contienen el término y
+     * después el resto por similitud; a igual puntaje gana el nombre más corto.
+     */
+    public List<IngredientModel> search(String term, int limit) {
+        String query = SearchText.normalize(term);
+        if (query.isEmpty() || limit <= 0) return List.of();
+
+        Map<Long, Integer> shared = new HashMap<>();
+        Set<String> queryGrams = trigrams(query);
+        for (String gram : queryGrams) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) continue;
+            for (Long id : ids) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+        // Con 1-2 letras un "contiene" a mitad de palabra no comparte trigramas: se revisa todo el catálogo
+        Iterable<Long> candidates = query.length() < 3 ? entries.keySet() : shared.keySet();
+
+        Comparator<Scored> order = Comparator.comparingDouble(Scored::score)
+                .thenComparing(s -> -s.entry().folded().length())
+                .thenComparing(s -> -s.entry().id());
+        PriorityQueue<Scored> top = new PriorityQueue<>(order);
+        for (Long id : candidates) {
+            Entry entry = entries.get(id);
+            if (entry == null) continue;
+            int common = shared.getOrDefault(id, 0);
+            double similarity = (double) common / (queryGrams.size() + entry.grams().size() - common);
+            boolean contains = entry.folded().contains(query);
+            if (!contains && similarity < SIMILARITY_THRESHOLD) continue;
+
+            top.add(new Scored(entry, (contains ? 1.0 : 0.0) + similarity));
+            if (top.size() > limit) top.poll();
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(order.reversed());
+        return ranked.stream().map(s -> toModel(s.entry())).toList();
+    }
+
+    private static IngredientModel toModel(Entry entry) {
+        IngredientModel model = new IngredientModel();
+        model.setId(entry.id());
+        model.setName(entry.name());
+        return model;
+    }
+
+    /** Trigramas estilo pg_trgm: cada palabra con dos espacios adelante y uno atrás. */
+    static Set<String> trigrams(String folded) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String word : folded.split(" ")) {
+            if (word.isEmpty()) continue;
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                out.add(padded.substring(i, i + 3));
+            }
+        }
+        return out;
+    }
+}
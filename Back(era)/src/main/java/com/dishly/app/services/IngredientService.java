@@ -4,6 +4,7 @@ import com.dishly.app.dto.IngredientDTO;
 import com.dishly.app.models.IngredientModel;
 import com.dishly.app.repositories.IngredientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,9 +13,22 @@ import java.util.Optional;
 @Service
 public class IngredientService {
 
+    /** Topes de resultados de la búsqueda aproximada y del autocompletado. */
+    public static final int MAX_SEARCH_RESULTS = 50;
+    public static final int MAX_AUTOCOMPLETE_RESULTS = 20;
+
     @Autowired
     private IngredientRepository repository;
 
+    @Autowired
+    private IngredientFuzzyIndexService fuzzyIndex;
+
+    @Autowired
+    private IngredientAutocompleteService autocomplete;
+
+    @Value("${app.search.backend:memory}")
+    private String searchBackend;
+
     public List<IngredientModel> getAll() {
         return repository.findAll();
     }
@@ -23,12 +37,29 @@ public class IngredientService {
         return repository.findById(id);
     }
 
-    public List<IngredientModel> searchByName(String term) {
-        return repository.findByNameContainingIgnoreCase(term);
+    /**
+     * Búsqueda aproximada por trigramas (tolera errores de tipeo y acentos), ordenada por
+     * similitud y acotada a {@code limit}. En PostgreSQL usa pg_trgm; si no, el índice en memoria.
+     */
+    public List<IngredientModel> searchByName(String term, int limit) {
+        int safeLimit = Math.min(limit > 0 ? limit : 10, MAX_SEARCH_RESULTS);
+        if (term == null || term.isBlank()) return List.of();
+        if ("postgres".equals(searchBackend)) {
+            return repository.findSimilarByName(term.trim(), safeLimit);
+        }
+        return fuzzyIndex.search(term, safeLimit);
+    }
+
+    /** Autocompletado por prefijo desde memoria, sin ir a la base. */
+    public List<IngredientDTO> autocomplete(String prefix, int limit) {
+        return autocomplete.complete(prefix, Math.min(limit > 0 ? limit : 8, MAX_AUTOCOMPLETE_RESULTS));
     }
 
     public IngredientModel save(IngredientModel ingredient) {
-        return repository.save(ingredient);
+        IngredientModel saved = repository.save(ingredient);
+        fuzzyIndex.put(saved.getId(), saved.getName());
+        autocomplete.put(saved.getId(), saved.getName());
+        return saved;
     }
     public IngredientDTO validate(IngredientDTO ingredient) {
         if (ingredient.name() == null) {
@@ -41,6 +72,8 @@ public class IngredientService {
             IngredientModel newIngredient = new IngredientModel();
             newIngredient.setName(ingredient.name());
             repository.save(newIngredient);
+            fuzzyIndex.put(newIngredient.getId(), newIngredient.getName());
+            autocomplete.put(newIngredient.getId(), newIngredient.getName());
             return new IngredientDTO(newIngredient.getId(), newIngredient.getName());
         }
     }
@@ -0,0 +1,160 @@
+package com.dishly.app.services;
+
+import com.dishly.app.dto.MealPrepResponseDTO;
+import com.dishly.app.dto.MealPrepReviewDTO;
+import com.dishly.app.dto.RecipeSummaryDTO;
+import com.dishly.app.models.MealPrepModel;
+import com.dishly.app.projection.MealPrepIngredientRow;
+import com.dishly.app.projection.MealPrepRecipeSummaryRow;
+import com.dishly.app.projection.ReviewRow;
+import com.dishly.app.repositories.MealPrepRepository;
+import com.dishly.app.repositories.MealPrepReviewRepository;
+import com.dishly.app.services.AuthorSummaryCacheService.AuthorSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.dishly.app.services.RecipeDTOAssembler.inChunks;
+
+/**
+ * Arma los {@link MealPrepResponseDTO} de una página completa con una cantidad fija de
+ * consultas IN: resúmenes de recetas y las últimas reseñas (el promedio sale del agregado
+ * guardado en el meal prep; los autores, de {@link AuthorSummaryCacheService}). Los ingredientes, para el aviso de no deseados, salen del
+ * índice de búsqueda y sólo se consultan, también por lote, los que el índice no tiene.
+ */
+@Service
+public class MealPrepDTOAssembler {
+
+    private final MealPrepRepository mealPrepRepo;
+    private final MealPrepReviewRepository reviewRepo;
+    private final MealPrepSearchIndexService searchIndex;
+    private final AuthorSummaryCacheService authorCache;
+    private final ImageStoreService images;
+
+    /** Reseñas embebidas por meal prep; el listado completo va por /api/mealpreps/{id}/reviews/cursor. */
+    @Value("${app.reviews.embedded-limit:5}")
+    private int embeddedReviews;
+
+    public MealPrepDTOAssembler(MealPrepRepository mealPrepRepo, MealPrepReviewRepository reviewRepo,
+                                MealPrepSearchIndexService searchIndex, AuthorSummaryCacheService authorCache,
+                                ImageStoreService images) {
+        this.mealPrepRepo = mealPrepRepo;
+        this.reviewRepo = reviewRepo;
+        this.searchIndex = searchIndex;
+        this.authorCache = authorCache;
+        this.images = images;
+    }
+
+    /** DTOs en el mismo orden que {@code mealPreps}. */
+    public List<MealPrepResponseDTO> toDTOs(List<MealPrepModel> mealPreps, IngredientBitmap undesired) {
+        if (mealPreps.isEmpty()) return List.of();
+
+        Set<Long> mealPrepIds = new LinkedHashSet<>();
+        Set<Long> authorIds = new LinkedHashSet<>();
+        for (MealPrepModel m : mealPreps) {
+            mealPrepIds.add(m.getId());
+            if (m.getUserId() != null) authorIds.add(m.getUserId());
+        }
+
+        Map<Long, List<RecipeSummaryDTO>> recipes = new HashMap<>();
+        for (MealPrepRecipeSummaryRow row : inChunks(mealPrepIds, mealPrepRepo::findRecipeSummariesByMealPrepIdIn)) {
+            recipes.computeIfAbsent(row.getMealPrepId(), k -> new ArrayList<>())
+                    .add(new RecipeSummaryDTO(row.getRecipeId(), row.getName(),
+                            images.urlOr(row.getImageHash(), ImageVariant.CARD, row.getImage())));
+        }
+
+        List<ReviewRow> reviewRows = latestReviewRows(mealPrepIds);
+        reviewRows.forEach(r -> authorIds.add(r.getUserId()));
+        Map<Long, AuthorSummary> authors = authorCache.getAll(authorIds);
+
+        Map<Long, List<MealPrepReviewDTO>> reviews = new HashMap<>();
+        for (ReviewRow r : reviewRows) {
+            reviews.computeIfAbsent(r.getParentId(), k -> new ArrayList<>())
+                    .add(toReviewDTO(r, authors.get(r.getUserId())));
+        }
+
+        Map<Long, IngredientBitmap> ingredients = undesired.isEmpty() ? Map.of() : ingredientsOf(mealPrepIds);
+
+        List<MealPrepResponseDTO> out = new ArrayList<>(mealPreps.size());
+        for (MealPrepModel m : mealPreps) {
+            AuthorSummary author = authors.get(m.getUserId());
+            boolean hasUndesiredIngredients = !undesired.isEmpty()
+                    && ingredients.getOrDefault(m.getId(), IngredientBitmap.EMPTY).intersects(undesired);
+
+            out.add(new MealPrepResponseDTO(
+                    m.getId(),
+                    m.getName(),
+                    m.getDescription(),
+                    images.urlOr(m.getImageHash(), ImageVariant.CARD, m.getImage()),
+                    author != null ? author.username() : null,
+                    author != null ? author.photo() : null,
+                    m.getUserId(),
+                    m.isPublicMealPrep(),
+                    recipes.getOrDefault(m.getId(), List.of()),
+                    reviews.getOrDefault(m.getId(), List.of()),
+                    m.getRating().average(),
+                    Math.toIntExact(m.getRating().getRatingCount()),
+                    hasUndesiredIngredients
+            ));
+        }
+        return out;
+    }
+
+    /** Las últimas reseñas de un meal prep, para el detalle. */
+    public List<MealPrepReviewDTO> latestReviews(Long mealPrepId) {
+        if (embeddedReviews <= 0) return List.of();
+        return toReviewDTOs(reviewRepo.findRowsByMealPrepId(mealPrepId, PageRequest.of(0, embeddedReviews)));
+    }
+
+    /** Reseñas con la foto de cada autor tomada de la caché, en el mismo orden que {@code rows}. */
+    public List<MealPrepReviewDTO> toReviewDTOs(List<ReviewRow> rows) {
+        if (rows.isEmpty()) return List.of();
+        Map<Long, AuthorSummary> authors = authorCache.getAll(rows.stream().map(ReviewRow::getUserId).toList());
+        return rows.stream().map(r -> toReviewDTO(r, authors.get(r.getUserId()))).toList();
+    }
+
+    /** Las últimas reseñas de cada meal prep, más nuevas primero. */
+    private List<ReviewRow> latestReviewRows(Set<Long> mealPrepIds) {
+        if (embeddedReviews <= 0) return List.of();
+        List<Long> reviewIds = inChunks(mealPrepIds,
+                chunk -> reviewRepo.findLatestIdsByMealPrepIdIn(chunk, embeddedReviews));
+        return inChunks(new LinkedHashSet<>(reviewIds), reviewRepo::findRowsByIdIn);
+    }
+
+    /** Bitmaps del índice; los que faltan se arman con una sola consulta. */
+    private Map<Long, IngredientBitmap> ingredientsOf(Set<Long> mealPrepIds) {
+        Map<Long, IngredientBitmap> out = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : mealPrepIds) {
+            searchIndex.get(id).ifPresentOrElse(
+                    doc -> out.put(id, doc.ingredients()),
+                    () -> missing.add(id));
+        }
+        if (missing.isEmpty()) return out;
+
+        Map<Long, List<Long>> ids = new HashMap<>();
+        for (MealPrepIngredientRow row : inChunks(missing, mealPrepRepo::findIngredientIdsByMealPrepIdIn)) {
+            ids.computeIfAbsent(row.getMealPrepId(), k -> new ArrayList<>()).add(row.getIngredientId());
+        }
+        ids.forEach((id, list) -> out.put(id, IngredientBitmap.of(list)));
+        return out;
+    }
+
+    private static MealPrepReviewDTO toReviewDTO(ReviewRow r, AuthorSummary author) {
+        MealPrepReviewDTO dto = new MealPrepReviewDTO();
+        dto.setId(r.getId());
+        dto.setComment(r.getComment());
+        dto.setRating(r.getRating());
+        dto.setUsername(r.getUsername());
+        dto.setUserPhoto(author != null ? author.photo() : null);
+        dto.setCreatedAt(r.getCreatedAt());
+        return dto;
+    }
+}
@@ -2,15 +2,19 @@ package com.dishly.app.services;
 
 import com.dishly.app.dto.MealPrepReviewDTO;
 import com.dishly.app.dto.MealPrepReviewRequestDTO;
+import com.dishly.app.dto.PagedResponse;
 import com.dishly.app.models.MealPrepModel;
 import com.dishly.app.models.MealPrepReviewModel;
 import com.dishly.app.models.UserModel;
+import com.dishly.app.projection.ReviewRow;
 import com.dishly.app.repositories.MealPrepRepository;
 import com.dishly.app.repositories.MealPrepReviewRepository;
 import com.dishly.app.repositories.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.ZonedDateTime;
@@ -23,9 +27,11 @@ public class MealPrepReviewService {
     private final MealPrepReviewRepository reviewRepository;
     private final MealPrepRepository mealPrepRepository;
     private final UserRepository userRepository;
+    private final MealPrepDTOAssembler assembler;
 
     @Transactional
     public void create(Long mealPrepId, MealPrepReviewRequestDTO dto) {
+        int stars = RatingAggregateService.validStars(dto.getRating());
         MealPrepModel mealPrep = mealPrepRepository.findById(mealPrepId)
                 .orElseThrow(() -> new EntityNotFoundException("MealPrep no encontrado"));
 
@@ -40,27 +46,37 @@ public class MealPrepReviewService {
         review.setCreatedAt(ZonedDateTime.now());
 
         reviewRepository.save(review);
+        mealPrepRepository.addRating(mealPrepId, stars);
     }
 
 
     public List<MealPrepReviewDTO> getAllByMealPrep(Long mealPrepId) {
-        MealPrepModel mealPrep = mealPrepRepository.findById(mealPrepId)
-                .orElseThrow(() -> new EntityNotFoundException("MealPrep not found"));
+        requireMealPrep(mealPrepId);
+        return assembler.toReviewDTOs(reviewRepository.findRowsByMealPrepId(mealPrepId, Pageable.unpaged()));
+    }
+
+    /** Reseñas del meal prep por keyset, más nuevas primero; el cursor es el id de la última reseña. */
+    public PagedResponse<MealPrepReviewDTO> getByCursor(Long mealPrepId, String cursor, int limit) {
+        requireMealPrep(mealPrepId);
+        int safeLimit = limit > 0 ? limit : 10;
+        Pageable pageable = PageRequest.of(0, safeLimit + 1);
+
+        List<ReviewRow> rows = (cursor == null || cursor.isBlank())
+                ? reviewRepository.findRowsByMealPrepId(mealPrepId, pageable)
+                : reviewRepository.findRowsByMealPrepIdBefore(mealPrepId, Long.parseLong(cursor), pageable);
+
+        boolean hasNext = rows.size() > safeLimit;
+        List<ReviewRow> page = hasNext ? rows.subList(0, safeLimit) : rows;
+        String nextCursor = hasNext && !page.isEmpty()
+                ? String.valueOf(page.get(page.size() - 1).getId())
+                : null;
 
-        return reviewRepository.findByMealPrep(mealPrep)
-                .stream()
-                .map(this::toDTO)
-                .toList();
+        return new PagedResponse<>(assembler.toReviewDTOs(page), nextCursor, hasNext);
     }
 
-    private MealPrepReviewDTO toDTO(MealPrepReviewModel review) {
-        MealPrepReviewDTO dto = new MealPrepReviewDTO();
-        dto.setId(review.getId());
-        dto.setComment(review.getComment());
-        dto.setRating(review.getRating());
-        dto.setCreatedAt(review.getCreatedAt());
-        dto.setUsername(review.getUser().getUsername());
-        dto.setUserPhoto(review.getUser().getPhoto());
-        return dto;
+    private void requireMealPrep(Long mealPrepId) {
+        if (!mealPrepRepository.existsById(mealPrepId)) {
+            throw new EntityNotFoundException("MealPrep not found");
+        }
     }
 }
@@ -0,0 +1,221 @@
+package com.dishly.app.services;
+
+import com.dishly.app.models.MealPrepModel;
+import com.dishly.app.models.RecipeModel;
+import com.dishly.app.projection.MealPrepIndexRow;
+import com.dishly.app.projection.MealPrepRecipeRow;
+import com.dishly.app.repositories.MealPrepRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Índice en memoria para la búsqueda de meal preps. Además de nombre y autor guarda,
+ * desnormalizado, el conjunto de ingredientes de todas sus recetas (tomado del
+ * {@link RecipeSearchIndexService}), y lo recalcula cuando cambia alguna de ellas.
+ */
+@Service
+public class MealPrepSearchIndexService {
+    private static final Logger log = LoggerFactory.getLogger(MealPrepSearchIndexService.class);
+
+    private final MealPrepRepository mealPrepRepo;
+    private final RecipeSearchIndexService recipeIndex;
+
+    private volatile Index index;
+
+    public MealPrepSearchIndexService(MealPrepRepository mealPrepRepo, RecipeSearchIndexService recipeIndex) {
+        this.mealPrepRepo = mealPrepRepo;
+        this.recipeIndex = recipeIndex;
+    }
+
+    /** Datos propios del meal prep; los textos ya vienen normalizados. */
+    record MealPrepDoc(Long id, Long userId, boolean publicMealPrep,
+                       String name, String author, List<Long> recipeIds) {
+
+        static MealPrepDoc of(MealPrepModel m) {
+            return new MealPrepDoc(m.getId(), m.getUserId(), m.isPublicMealPrep(),
+                    SearchText.normalize(m.getName()), SearchText.normalize(m.getAuthor()),
+                    m.getRecipes().stream().map(RecipeModel::getId).toList());
+        }
+    }
+
+    /** El meal prep tal como lo ve la búsqueda, con los ingredientes de sus recetas ya unidos. */
+    public record IndexedMealPrep(Long id, Long userId, boolean publicMealPrep,
+                                  String name, String author, List<Long> recipeIds,
+                                  String ingredientNames, IngredientBitmap ingredients) {
+    }
+
+    @PostConstruct
+    void subscribeToRecipes() {
+        recipeIndex.addChangeListener(this::refreshForRecipe);
+    }
+
+    /* ---------- Carga ---------- */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        // Los ingredientes salen del índice de recetas: que esté cargado antes de tomar nuestro lock
+        recipeIndex.ensureLoaded();
+        synchronized (this) {
+            long start = System.currentTimeMillis();
+
+            Map<Long, List<Long>> recipesByMealPrep = new HashMap<>();
+            for (MealPrepRecipeRow row : mealPrepRepo.findAllRecipeRows()) {
+                recipesByMealPrep.computeIfAbsent(row.getMealPrepId(), k -> new ArrayList<>()).add(row.getRecipeId());
+            }
+
+            Index fresh = new Index();
+            for (MealPrepIndexRow row : mealPrepRepo.findAllIndexRows()) {
+                fresh.put(resolve(new MealPrepDoc(
+                        row.getId(),
+                        row.getUserId(),
+                        Boolean.TRUE.equals(row.getPublicMealPrep()),
+                        SearchText.normalize(row.getName()),
+                        SearchText.normalize(row.getAuthor()),
+                        List.copyOf(recipesByMealPrep.getOrDefault(row.getId(), List.of()))
+                )));
+            }
+            this.index = fresh;
+
+            log.info("MealPrep search index built: {} meal preps in {} ms",
+                    fresh.docs.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current != null) return current;
+        rebuild();
+        return index;
+    }
+
+    /* ---------- Escrituras ---------- */
+
+    public void indexAfterCommit(MealPrepModel mealPrep) {
+        MealPrepDoc doc = MealPrepDoc.of(mealPrep);
+        AfterCommit.run(() -> apply(doc.id(), doc));
+    }
+
+    public void removeAfterCommit(Long mealPrepId) {
+        AfterCommit.run(() -> apply(mealPrepId, null));
+    }
+
+    private synchronized void apply(Long mealPrepId, MealPrepDoc doc) {
+        Index current = index;
+        if (current == null) return;
+        current.remove(mealPrepId);
+        if (doc != null) current.put(resolve(doc));
+    }
+
+    /** Una receta cambió: se recalculan los ingredientes de los meal preps que la incluyen. */
+    private synchronized void refreshForRecipe(long recipeId) {
+        Index current = index;
+        if (current == null) return;
+        Set<Long> affected = current.mealPrepsByRecipe.get(recipeId);
+        if (affected == null) return;
+        for (Long mealPrepId : List.copyOf(affected)) {
+            IndexedMealPrep old = current.docs.get(mealPrepId);
+            if (old == null) continue;
+            current.remove(mealPrepId);
+            current.put(resolve(new MealPrepDoc(old.id(), old.userId(), old.publicMealPrep(),
+                    old.name(), old.author(), old.recipeIds())));
+        }
+    }
+
+    private IndexedMealPrep resolve(MealPrepDoc doc) {
+        List<String> ingredientTexts = new ArrayList<>();
+        List<IngredientBitmap> ingredients = new ArrayList<>();
+        for (Long recipeId : doc.recipeIds()) {
+            recipeIndex.get(recipeId).ifPresent(recipe -> {
+                if (!recipe.ingredientNames().isEmpty()) ingredientTexts.add(recipe.ingredientNames());
+                ingredients.add(recipe.ingredients());
+            });
+        }
+        return new IndexedMealPrep(doc.id(), doc.userId(), doc.publicMealPrep(), doc.name(), doc.author(),
+                doc.recipeIds(), String.join("|", ingredientTexts), IngredientBitmap.union(ingredients));
+    }
+
+    /* ---------- Lectura ---------- */
+
+    public Optional<IndexedMealPrep> get(Long mealPrepId) {
+        return Optional.ofNullable(index().docs.get(mealPrepId));
+    }
+
+    /**
+     * Ids que cumplen los filtros de texto (todos opcionales) y {@code filter},
+     * menores que el cursor y en orden descendente, como mucho {@code max}.
+     */
+    public List<Long> search(String name, String ingredient, String author, Long cursorId, int max,
+                             boolean publicOnly, Predicate<IndexedMealPrep> filter) {
+        Index idx = index();
+        List<IdPostings> clauses = new ArrayList<>();
+        List<LongPredicate> checks = new ArrayList<>();
+        idx.names.addClause(name, clauses, checks);
+        idx.authors.addClause(author, clauses, checks);
+        idx.ingredients.addClause(ingredient, clauses, checks);
+
+        return IdPostings.intersect(publicOnly ? idx.publicIds : idx.all, clauses, cursorId, max, id -> {
+            for (LongPredicate check : checks) {
+                if (!check.test(id)) return false;
+            }
+            IndexedMealPrep doc = idx.docs.get(id);
+            return doc != null && filter.test(doc);
+        });
+    }
+
+    private static final class Index {
+        final Map<Long, IndexedMealPrep> docs = new ConcurrentHashMap<>();
+        final Map<Long, Set<Long>> mealPrepsByRecipe = new ConcurrentHashMap<>();
+        final IdPostings all = new IdPostings();
+        final IdPostings publicIds = new IdPostings();
+        final TextIndex names = new TextIndex();
+        final TextIndex authors = new TextIndex();
+        final TextIndex ingredients = new TextIndex();
+
+        void put(IndexedMealPrep doc) {
+            long id = doc.id();
+            docs.put(id, doc);
+            all.add(id);
+            if (doc.publicMealPrep()) publicIds.add(id);
+            names.put(id, doc.name());
+            authors.put(id, doc.author());
+            ingredients.put(id, doc.ingredientNames());
+            for (Long recipeId : doc.recipeIds()) {
+                mealPrepsByRecipe.computeIfAbsent(recipeId, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+
+        void remove(Long id) {
+            IndexedMealPrep old = docs.remove(id);
+            if (old == null) return;
+            all.remove(id);
+            publicIds.remove(id);
+            names.remove(id);
+            authors.remove(id);
+            ingredients.remove(id);
+            for (Long recipeId : old.recipeIds()) {
+                mealPrepsByRecipe.computeIfPresent(recipeId, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+}
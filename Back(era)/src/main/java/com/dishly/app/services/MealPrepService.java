@@ -2,24 +2,24 @@ package com.dishly.app.services;
 
 import com.dishly.app.dto.*;
 import com.dishly.app.models.*;
-import com.dishly.app.projection.RatingSummary;
 import com.dishly.app.repositories.MealPrepRepository;
-import com.dishly.app.repositories.MealPrepReviewRepository;
 import com.dishly.app.repositories.RecipeRepository;
 import com.dishly.app.repositories.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.file.AccessDeniedException;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,26 +27,43 @@ public class MealPrepService {
     private static final Logger log = LoggerFactory.getLogger(MealPrepService.class);
 
     private final MealPrepRepository mealPrepRepo;
-    private final MealPrepReviewRepository reviewRepo;
     private final RecipeRepository recipeRepo;
     private final UserRepository userRepo;
     private final NotificationEmailService notificationEmailService;
-
-    public MealPrepService(MealPrepRepository mealPrepRepo, MealPrepReviewRepository reviewRepo,
+    private final MealPrepSearchIndexService searchIndex;
+    private final ObjectProvider<FullTextSearchService> fullTextSearch;
+    private final UndesiredIngredientCacheService undesiredCache;
+    private final FollowGraphService followGraph;
+    private final MealPrepDTOAssembler assembler;
+    private final AuthorSummaryCacheService authorCache;
+    private final ImageStoreService images;
+
+    public MealPrepService(MealPrepRepository mealPrepRepo,
                            RecipeRepository recipeRepo, UserRepository userRepo,
-                           NotificationEmailService notificationEmailService) {
+                           NotificationEmailService notificationEmailService,
+                           MealPrepSearchIndexService searchIndex,
+                           ObjectProvider<FullTextSearchService> fullTextSearch,
+                           UndesiredIngredientCacheService undesiredCache,
+                           FollowGraphService followGraph,
+                           MealPrepDTOAssembler assembler,
+                           AuthorSummaryCacheService authorCache,
+                           ImageStoreService images) {
         this.mealPrepRepo = mealPrepRepo;
-        this.reviewRepo = reviewRepo;
         this.recipeRepo = recipeRepo;
         this.userRepo = userRepo;
         this.notificationEmailService = notificationEmailService;
+        this.searchIndex = searchIndex;
+        this.fullTextSearch = fullTextSearch;
+        this.undesiredCache = undesiredCache;
+        this.followGraph = followGraph;
+        this.assembler = assembler;
+        this.authorCache = authorCache;
+        this.images = images;
     }
 
     @Transactional(readOnly = true)
     public List<MealPrepResponseDTO> getPublic() {
-        return mealPrepRepo.findByPublicMealPrepTrue().stream()
-                .map(this::toDTO)
-                .toList();
+        return toDTOs(mealPrepRepo.findByPublicMealPrepTrue(), IngredientBitmap.EMPTY);
     }
 
     @Transactional(readOnly = true)
@@ -56,9 +73,8 @@ public class MealPrepService {
 
     @Transactional(readOnly = true)
     public Page<MealPrepResponseDTO> getPublic(Pageable pageable, String email) {
-        Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(email);
-        return mealPrepRepo.findByPublicMealPrepTrue(pageable)
-                .map(mp -> toDTO(mp, undesiredIngredientIds));
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        return toDTOs(mealPrepRepo.findByPublicMealPrepTrue(pageable), undesired);
     }
 
     @Transactional(readOnly = true)
@@ -70,7 +86,7 @@ public class MealPrepService {
     public PagedResponse<MealPrepResponseDTO> getPublicByCursor(String cursor, int limit, String email) {
         int safeLimit = limit > 0 ? limit : 10;
         Pageable pageable = PageRequest.of(0, safeLimit + 1);
-        Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(email);
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
 
         List<MealPrepModel> mealPrepModels;
         if (cursor == null || cursor.isBlank()) {
@@ -86,9 +102,7 @@ public class MealPrepService {
                 ? mealPrepModels.subList(0, safeLimit)
                 : mealPrepModels;
 
-        List<MealPrepResponseDTO> items = pageModels.stream()
-                .map(mp -> toDTO(mp, undesiredIngredientIds))
-                .toList();
+        List<MealPrepResponseDTO> items = toDTOs(pageModels, undesired);
         long flaggedCount = items.stream().filter(MealPrepResponseDTO::hasUndesiredIngredients).count();
 
         String nextCursor = hasNext && !items.isEmpty()
@@ -96,14 +110,14 @@ public class MealPrepService {
                 : null;
 
         log.debug("MealPrep home cursor principal={} undesiredCount={} flaggedItems={}",
-                email, undesiredIngredientIds.size(), flaggedCount);
+                email, undesired.cardinality(), flaggedCount);
 
         return new PagedResponse<>(items, nextCursor, hasNext);
     }
 
     @Transactional(readOnly = true)
     public MealPrepResponseDTO getById(Long id) {
-        MealPrepModel mealPrepModel = mealPrepRepo.findById(id)
+        MealPrepModel mealPrepModel = mealPrepRepo.findDetailById(id)
                 .orElseThrow(() -> new EntityNotFoundException("MealPrep no encontrado"));
 
         return toDTO(mealPrepModel);
@@ -114,9 +128,7 @@ public class MealPrepService {
 
     @Transactional(readOnly = true)
     public List<MealPrepResponseDTO> getMealPrepsByUser(Long userId) {
-        return mealPrepRepo.findByUserId(userId).stream()
-                .map(this::toDTO)
-                .toList();
+        return toDTOs(mealPrepRepo.findByUserId(userId), IngredientBitmap.EMPTY);
     }
 
     @Transactional(readOnly = true)
@@ -126,8 +138,8 @@ public class MealPrepService {
 
     @Transactional(readOnly = true)
     public Page<MealPrepResponseDTO> getMealPrepsByUser(Long userId, Pageable pageable, String email) {
-        Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(email);
-        return mealPrepRepo.findByUserId(userId, pageable).map(mp -> toDTO(mp, undesiredIngredientIds));
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        return toDTOs(mealPrepRepo.findByUserId(userId, pageable), undesired);
     }
 
 
@@ -140,6 +152,7 @@ public class MealPrepService {
         MealPrepModel m = new MealPrepModel();
         updateModel(m, dto, user);
         MealPrepModel saved = mealPrepRepo.save(m);
+        searchIndex.indexAfterCommit(saved);
 
         if (saved.isPublicMealPrep()) {
             try {
@@ -170,6 +183,8 @@ public class MealPrepService {
 
         updateModel(m, dto, user);
         MealPrepModel saved = mealPrepRepo.save(m);
+        mealPrepRepo.bumpContentVersion(saved.getId());
+        searchIndex.indexAfterCommit(saved);
         if (!wasPublic && saved.isPublicMealPrep()) {
             try {
                 log.info("Triggering followers notification for mealprep public transition. mealPrepId={}, authorId={}",
@@ -195,6 +210,7 @@ public class MealPrepService {
         }
 
         mealPrepRepo.delete(m);
+        searchIndex.removeAfterCommit(id);
     }
 
     @Transactional(readOnly = true)
@@ -204,10 +220,8 @@ public class MealPrepService {
 
     @Transactional(readOnly = true)
     public List<MealPrepResponseDTO> getAllByUser(Long userId, String email) {
-        Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(email);
-        return mealPrepRepo.findByUserId(userId).stream()
-                .map(mp -> toDTO(mp, undesiredIngredientIds))
-                .toList();
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        return toDTOs(mealPrepRepo.findByUserId(userId), undesired);
     }
 
     @Transactional(readOnly = true)
@@ -217,15 +231,9 @@ public class MealPrepService {
 
     @Transactional(readOnly = true)
     public List<MealPrepResponseDTO> search(String name, String ingredient, String author, String email) {
-        Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(email);
-        return mealPrepRepo.findAll().stream()
-                .filter(mp -> name == null || mp.getName().toLowerCase().contains(name.toLowerCase()))
-                .filter(mp -> author == null || mp.getAuthor().toLowerCase().contains(author.toLowerCase()))
-                .filter(mp -> ingredient == null || mp.getRecipes().stream()
-                        .flatMap(r -> r.getIngredients().stream())
-                        .anyMatch(i -> i.getIngredient().getName().toLowerCase().contains(ingredient.toLowerCase())))
-                .map(mp -> toDTO(mp, undesiredIngredientIds))
-                .toList();
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        List<Long> ids = searchIndex.search(name, ingredient, author, null, Integer.MAX_VALUE, false, doc -> true);
+        return toDTOs(findAllInOrder(ids), undesired);
     }
 
     @Transactional(readOnly = true)
@@ -237,45 +245,29 @@ public class MealPrepService {
     public PagedResponse<MealPrepResponseDTO> searchByCursor(String name, String ingredient, String author, String cursor, int limit,
                                                              String email, boolean onlyFollowing, boolean excludeUndesired) {
         int safeLimit = limit > 0 ? limit : 10;
-        Long cursorId = (cursor == null || cursor.isBlank()) ? null : Long.parseLong(cursor);
         boolean hasAuthUser = email != null && !email.isBlank();
 
-        Set<Long> followingIdsTmp = Set.of();
-        Set<Long> undesiredIngredientIdsTmp = getUndesiredIngredientIds(email);
-
-        if (hasAuthUser && onlyFollowing) {
-            UserModel me = userRepo.findByEmail(email).orElse(null);
-            if (me != null) {
-                followingIdsTmp = me.getFollowing().stream()
-                        .map(UserModel::getId)
-                        .collect(Collectors.toSet());
-            }
+        // Con app.search.backend=postgres las búsquedas con texto van por full-text y por relevancia
+        FullTextSearchService fullText = fullTextSearch.getIfAvailable();
+        String text = FullTextSearchService.queryText(name, ingredient, author);
+        if (fullText != null && !text.isEmpty()) {
+            return searchFullText(fullText, text, cursor, safeLimit, email, hasAuthUser, onlyFollowing, excludeUndesired);
         }
-        final Set<Long> followingIds = followingIdsTmp;
-        final Set<Long> undesiredIngredientIds = undesiredIngredientIdsTmp;
-
-        List<MealPrepModel> filtered = mealPrepRepo.findAll().stream()
-                .filter(MealPrepModel::isPublicMealPrep)
-                .filter(mp -> cursorId == null || mp.getId() < cursorId)
-                .filter(mp -> name == null || mp.getName().toLowerCase().contains(name.toLowerCase()))
-                .filter(mp -> author == null || mp.getAuthor().toLowerCase().contains(author.toLowerCase()))
-                .filter(mp -> !hasAuthUser || !onlyFollowing || followingIds.contains(mp.getUserId()))
-                .filter(mp -> ingredient == null || mp.getRecipes().stream()
-                        .flatMap(r -> r.getIngredients().stream())
-                        .anyMatch(i -> i.getIngredient().getName().toLowerCase().contains(ingredient.toLowerCase())))
-                .filter(mp -> !hasAuthUser || !excludeUndesired || mp.getRecipes().stream()
-                        .flatMap(r -> r.getIngredients().stream())
-                        .noneMatch(i -> undesiredIngredientIds.contains(i.getIngredient().getId())))
-                .sorted(Comparator.comparing(MealPrepModel::getId).reversed())
-                .limit((long) safeLimit + 1)
-                .toList();
 
-        boolean hasNext = filtered.size() > safeLimit;
-        List<MealPrepModel> pageModels = hasNext ? filtered.subList(0, safeLimit) : filtered;
+        Long cursorId = (cursor == null || cursor.isBlank()) ? null : Long.parseLong(cursor);
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        Long meId = hasAuthUser && onlyFollowing ? userRepo.findIdByEmail(email).orElse(null) : null;
 
-        List<MealPrepResponseDTO> items = pageModels.stream()
-                .map(mp -> toDTO(mp, undesiredIngredientIds))
-                .toList();
+        // Los ingredientes de cada meal prep ya están desnormalizados en el índice
+        List<Long> ids = searchIndex.search(name, ingredient, author, cursorId, safeLimit + 1, true, doc ->
+                (!hasAuthUser || !onlyFollowing || followGraph.isFollowing(meId, doc.userId()))
+                        && (!hasAuthUser || !excludeUndesired
+                        || !doc.ingredients().intersects(undesired)));
+
+        boolean hasNext = ids.size() > safeLimit;
+        List<MealPrepModel> pageModels = findAllInOrder(hasNext ? ids.subList(0, safeLimit) : ids);
+
+        List<MealPrepResponseDTO> items = toDTOs(pageModels, undesired);
         long flaggedCount = items.stream().filter(MealPrepResponseDTO::hasUndesiredIngredients).count();
 
         String nextCursor = hasNext && !items.isEmpty()
@@ -283,16 +275,41 @@ public class MealPrepService {
                 : null;
 
         log.debug("MealPrep search cursor principal={} undesiredCount={} flaggedItems={}",
-                email, undesiredIngredientIds.size(), flaggedCount);
+                email, undesired.cardinality(), flaggedCount);
 
         return new PagedResponse<>(items, nextCursor, hasNext);
     }
 
+    private PagedResponse<MealPrepResponseDTO> searchFullText(FullTextSearchService fullText, String text, String cursor, int limit,
+                                                              String email, boolean hasAuthUser,
+                                                              boolean onlyFollowing, boolean excludeUndesired) {
+        Long meId = hasAuthUser ? userRepo.findByEmail(email).map(UserModel::getId).orElse(null) : null;
+        FullTextSearchService.RankedPage page = fullText.searchMealPreps(text, cursor, limit, meId,
+                hasAuthUser && onlyFollowing, hasAuthUser && excludeUndesired);
+
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        List<MealPrepResponseDTO> items = toDTOs(findAllInOrder(page.ids()), undesired);
+        return new PagedResponse<>(items, page.nextCursor(), page.hasNext());
+    }
+
+
+    /** Carga los meal preps respetando el orden de {@code ids}; omite los que ya no existen. */
+    private List<MealPrepModel> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, MealPrepModel> byId = mealPrepRepo.findAllById(ids).stream()
+                .collect(Collectors.toMap(MealPrepModel::getId, mp -> mp));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 
     private void updateModel(MealPrepModel m, MealPrepRequestDTO dto, UserModel user) {
         m.setName(dto.name());
         m.setDescription(dto.description());
-        m.setImage(dto.image());
+        // La imagen va al blob store; la entidad sólo guarda el hash
+        m.setImageHash(images.resolve(dto.image()));
+        m.setImage(null);
         m.setPublicMealPrep(dto.publicMealPrep() != null ? dto.publicMealPrep() : true);
         m.setAuthor(user.getUsername());
         m.setUserId(user.getId());
@@ -308,50 +325,43 @@ public class MealPrepService {
         }
     }
 
+    /** Página completa de DTOs con consultas por lote; ver {@link MealPrepDTOAssembler}. */
+    public List<MealPrepResponseDTO> toDTOs(List<MealPrepModel> mealPreps, IngredientBitmap undesired) {
+        return assembler.toDTOs(mealPreps, undesired);
+    }
+
+    /** Igual que {@link #toDTOs} pero conservando los datos de paginación de {@code page}. */
+    public Page<MealPrepResponseDTO> toDTOs(Page<MealPrepModel> page, IngredientBitmap undesired) {
+        return new PageImpl<>(toDTOs(page.getContent(), undesired), page.getPageable(), page.getTotalElements());
+    }
+
     MealPrepResponseDTO toDTO(MealPrepModel m) {
-        return toDTO(m, Set.of());
+        return toDTO(m, IngredientBitmap.EMPTY);
     }
 
-    MealPrepResponseDTO toDTO(MealPrepModel m, Set<Long> undesiredIngredientIds) {
+    MealPrepResponseDTO toDTO(MealPrepModel m, IngredientBitmap undesired) {
         List<RecipeSummaryDTO> recipeDTOs = m.getRecipes().stream()
-                .map(r -> new RecipeSummaryDTO(r.getId(), r.getName(), r.getImage()))
+                .map(r -> new RecipeSummaryDTO(r.getId(), r.getName(), images.urlOr(r.getImageHash(), ImageVariant.CARD, r.getImage())))
                 .toList();
 
-        UserModel user = userRepo.findById(m.getUserId())
-                .orElseThrow();
-
-        List<MealPrepReviewModel> reviewModels = reviewRepo.findByMealPrep(m);
-
-        List<MealPrepReviewDTO> reviewDTOs = reviewModels.stream()
-                .map(r -> {
-                    MealPrepReviewDTO dto = new MealPrepReviewDTO();
-                    dto.setId(r.getId());
-                    dto.setComment(r.getComment());
-                    dto.setRating(r.getRating());
-                    dto.setUsername(r.getUser().getUsername());
-                    dto.setUserPhoto(r.getUser().getPhoto());
-                    dto.setCreatedAt(r.getCreatedAt());
-                    return dto;
-                })
-                .toList();
+        AuthorSummaryCacheService.AuthorSummary author = authorCache.get(m.getUserId());
+
+        // Sólo las últimas; el resto se pagina en /api/mealpreps/{id}/reviews/cursor
+        List<MealPrepReviewDTO> reviewDTOs = assembler.latestReviews(m.getId());
 
-        RatingSummary summary = reviewRepo.getSummaryByMealPrepId(m.getId());
-        Double averageRating = (summary == null || summary.getAvgRating() == null) ? 0d : summary.getAvgRating();
-        int ratingCount = (summary == null || summary.getReviewCount() == null)
-                ? 0
-                : Math.toIntExact(summary.getReviewCount());
-        boolean hasUndesiredIngredients = !undesiredIngredientIds.isEmpty() && m.getRecipes().stream()
-                .flatMap(r -> r.getIngredients().stream())
-                .anyMatch(i -> undesiredIngredientIds.contains(i.getIngredient().getId()));
+        // Agregado desnormalizado en el meal prep (ver RatingAggregate)
+        Double averageRating = m.getRating().average();
+        int ratingCount = Math.toIntExact(m.getRating().getRatingCount());
+        boolean hasUndesiredIngredients = !undesired.isEmpty() && ingredientsOf(m).intersects(undesired);
 
 
         return new MealPrepResponseDTO(
                 m.getId(),
                 m.getName(),
                 m.getDescription(),
-                m.getImage(),
-                user.getUsername(),
-                user.getPhoto(),
+                images.urlOr(m.getImageHash(), ImageVariant.DETAIL, m.getImage()),
+                author != null ? author.username() : null,
+                author != null ? author.photo() : null,
                 m.getUserId(),
                 m.isPublicMealPrep(),
                 recipeDTOs,
@@ -362,13 +372,14 @@ public class MealPrepService {
         );
     }
 
-    private Set<Long> getUndesiredIngredientIds(String email) {
-        if (email == null || email.isBlank()) return Set.of();
-        return userRepo.findByEmail(email)
-                .map(u -> u.getUndesiredIngredients().stream()
-                        .map(IngredientModel::getId)
-                        .collect(Collectors.toSet()))
-                .orElse(Set.of());
+    /** Ingredientes de todas las recetas del meal prep: del índice, o armados desde la entidad. */
+    private IngredientBitmap ingredientsOf(MealPrepModel m) {
+        return searchIndex.get(m.getId())
+                .map(MealPrepSearchIndexService.IndexedMealPrep::ingredients)
+                .orElseGet(() -> IngredientBitmap.of(m.getRecipes().stream()
+                        .flatMap(r -> r.getIngredients().stream())
+                        .map(link -> link.getIngredient().getId())
+                        .toList()));
     }
 
 }
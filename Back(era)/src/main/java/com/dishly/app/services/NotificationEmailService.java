@@ -104,17 +104,11 @@ public class NotificationEmailService {
         log.info("Email notification start: event={} id={} title={}", eventType, entityId, entityTitle);
         log.info("Author -> id={}, username={}, email={}", author.getId(), author.getUsername(), author.getEmail());
         try {
-            UserModel authorWithFollowers = userRepository.findByIdWithFollowers(author.getId()).orElse(null);
-            if (authorWithFollowers == null) {
-                log.warn("Author not found for notification. authorId={}", author.getId());
-                return;
-            }
-
-            int followersCount = authorWithFollowers.getFollowers().size();
-            log.info("Followers found: {}", followersCount);
+            // Sólo los emails, sin cargar los UserModel de cada seguidor
+            List<String> followerEmails = userRepository.findFollowerEmails(author.getId());
+            log.info("Followers found: {}", followerEmails.size());
 
-            List<String> recipients = authorWithFollowers.getFollowers().stream()
-                    .map(UserModel::getEmail)
+            List<String> recipients = followerEmails.stream()
                     .filter(email -> email != null && !email.isBlank())
                     .distinct()
                     .toList();
@@ -125,7 +119,7 @@ public class NotificationEmailService {
                 return;
             }
 
-            String subject = subjectPrefix + authorWithFollowers.getUsername();
+            String subject = subjectPrefix + author.getUsername();
             String body = "Nuevo contenido publicado: " + entityTitle
                     + "\n\nVer detalle: " + detailLink
                     + "\n\nDishly";
@@ -0,0 +1,259 @@
+package com.dishly.app.services;
+
+import com.dishly.app.repositories.MealPrepRepository;
+import com.dishly.app.repositories.RecipeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * PDFs ya generados de recetas y meal preps, para no rearmarlos con OpenPDF (y todas las
+ * consultas de {@code getById}) en cada descarga. La clave es el id más la versión de
+ * contenido, que sube con cada edición o reseña; en un meal prep también entra un resumen
+ * del id y la versión de cada una de sus recetas. Así una versión vieja nunca se sirve y
+ * no hace falta invalidar: las entradas viejas se caen solas del LRU en memoria y del
+ * recorte periódico del disco. Descargas simultáneas de una clave que falta la generan una
+ * sola vez.
+ */
+@Service
+public class PdfCacheService {
+    private static final Logger log = LoggerFactory.getLogger(PdfCacheService.class);
+
+    public record Stats(long memoryHits, long diskHits, long misses, int memoryEntries, long memoryBytes) {
+    }
+
+    private final PdfExportService pdfExportService;
+    private final RecipeRepository recipeRepo;
+    private final MealPrepRepository mealPrepRepo;
+
+    @Value("${app.pdf.cache.dir:data/pdf}")
+    private String dir;
+
+    @Value("${app.pdf.cache.memory-bytes:16777216}")
+    private long maxMemoryBytes;
+
+    @Value("${app.pdf.cache.disk-bytes:268435456}")
+    private long maxDiskBytes;
+
+    private Path root;
+
+    /** Orden de acceso: el primero es el menos usado. Protegido por {@code this}. */
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+
+    /** Generaciones en curso por clave: el resto de los pedidos espera la misma. */
+    private final Map<String, CompletableFuture<byte[]>> rendering = new ConcurrentHashMap<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PdfCacheService(PdfExportService pdfExportService, RecipeRepository recipeRepo,
+                           MealPrepRepository mealPrepRepo) {
+        this.pdfExportService = pdfExportService;
+        this.recipeRepo = recipeRepo;
+        this.mealPrepRepo = mealPrepRepo;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(dir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+    }
+
+    /* ---------- Claves ---------- */
+
+    /** Clave de la versión actual; sirve también de ETag. Es una sola consulta chica. */
+    public String recipeKey(Long recipeId) {
+        long version = recipeRepo.findContentVersionById(recipeId)
+                .orElseThrow(() -> new EntityNotFoundException("Receta no encontrada: " + recipeId));
+        return "recipe-" + recipeId + "-" + version;
+    }
+
+    public String mealPrepKey(Long mealPrepId) {
+        long version = mealPrepRepo.findContentVersionById(mealPrepId)
+                .orElseThrow(() -> new EntityNotFoundException("Meal prep no encontrado: " + mealPrepId));
+        String recipes = String.join(",", mealPrepRepo.findRecipeVersions(mealPrepId));
+        return "mealprep-" + mealPrepId + "-" + version + "." + digest(recipes);
+    }
+
+    /** Resumen corto de las versiones de las recetas, para que la clave siga siendo un nombre de archivo. */
+    private static String digest(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* ---------- Lectura ---------- */
+
+    /** El PDF de {@code key} (de {@link #recipeKey}); si no está en ninguna capa se genera y se guarda. */
+    public byte[] recipePdf(Long recipeId, String key) {
+        return get(key, "recipe-" + recipeId + "-", () -> pdfExportService.recipeToPdf(recipeId));
+    }
+
+    public byte[] mealPrepPdf(Long mealPrepId, String key) {
+        return get(key, "mealprep-" + mealPrepId + "-", () -> pdfExportService.mealPrepToPdf(mealPrepId));
+    }
+
+    private byte[] get(String key, String entityPrefix, Supplier<byte[]> render) {
+        synchronized (this) {
+            byte[] cached = memory.get(key);
+            if (cached != null) {
+                memoryHits.increment();
+                return cached;
+            }
+        }
+
+        Path file = root.resolve(key + ".pdf");
+        try {
+            if (Files.isRegularFile(file)) {
+                byte[] bytes = Files.readAllBytes(file);
+                diskHits.increment();
+                remember(key, bytes);
+                return bytes;
+            }
+        } catch (IOException e) {
+            log.warn("Could not read cached PDF {}: {}", key, e.getMessage());
+        }
+
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = rendering.putIfAbsent(key, mine);
+        if (running != null) return await(running);
+        try {
+            misses.increment();
+            byte[] bytes = render.get();
+            remember(key, bytes);
+            store(file, entityPrefix, bytes);
+            mine.complete(bytes);
+            return bytes;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key, mine);
+        }
+    }
+
+    /** El resultado de la generación de otro pedido; si falló, falla igual acá. */
+    private static byte[] await(CompletableFuture<byte[]> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private synchronized void remember(String key, byte[] bytes) {
+        if (bytes.length > maxMemoryBytes) return;
+        byte[] old = memory.put(key, bytes);
+        if (old != null) memoryBytes -= old.length;
+        memoryBytes += bytes.length;
+
+        Iterator<byte[]> it = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+            memoryBytes -= it.next().length;
+            it.remove();
+        }
+    }
+
+    /* ---------- Disco ---------- */
+
+    /** Guarda la versión nueva y borra las anteriores de la misma entidad. */
+    private void store(Path file, String entityPrefix, byte[] bytes) {
+        try {
+            Path tmp = Files.createTempFile(root, "pdf-", ".tmp");
+            try {
+                Files.write(tmp, bytes);
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            try (DirectoryStream<Path> old = Files.newDirectoryStream(root, entityPrefix + "*.pdf")) {
+                for (Path p : old) {
+                    if (!p.equals(file)) Files.deleteIfExists(p);
+                }
+            }
+        } catch (IOException e) {
+            // Sin disco seguimos con la capa en memoria
+            log.warn("Could not store PDF {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    /** Recorta el directorio al tope, fuera del camino de las descargas. */
+    @Scheduled(fixedDelayString = "${app.pdf.cache.disk-trim-ms:300000}",
+            initialDelayString = "${app.pdf.cache.disk-trim-ms:300000}")
+    void trimDisk() {
+        record Entry(Path path, long size, long written) {
+        }
+        try {
+            List<Entry> entries = new ArrayList<>();
+            long total = 0;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*.pdf")) {
+                for (Path p : files) {
+                    BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+                    entries.add(new Entry(p, attrs.size(), attrs.lastModifiedTime().toMillis()));
+                    total += attrs.size();
+                }
+            }
+            if (total <= maxDiskBytes) return;
+            // Primero los generados hace más tiempo
+            entries.sort(Comparator.comparingLong(Entry::written));
+            for (Entry e : entries) {
+                if (total <= maxDiskBytes) break;
+                Files.deleteIfExists(e.path());
+                total -= e.size();
+            }
+        } catch (IOException e) {
+            log.warn("Could not trim PDF cache: {}", e.getMessage());
+        }
+    }
+
+    /* ---------- Métricas ---------- */
+
+    public synchronized Stats stats() {
+        return new Stats(memoryHits.sum(), diskHits.sum(), misses.sum(), memory.size(), memoryBytes);
+    }
+
+    @Scheduled(fixedDelayString = "${app.pdf.cache.stats-log-ms:600000}",
+            initialDelayString = "${app.pdf.cache.stats-log-ms:600000}")
+    void logStats() {
+        Stats s = stats();
+        long lookups = s.memoryHits() + s.diskHits() + s.misses();
+        if (lookups == 0) return;
+        log.info("PDF cache: {} memory hits, {} disk hits, {} misses ({}% hit rate), {} entries in memory, {} KB",
+                s.memoryHits(), s.diskHits(), s.misses(),
+                Math.round(100.0 * (s.memoryHits() + s.diskHits()) / lookups), s.memoryEntries(),
+                s.memoryBytes() / 1024);
+    }
+}
@@ -0,0 +1,52 @@
+package com.dishly.app.services;
+
+import com.dishly.app.repositories.MealPrepRepository;
+import com.dishly.app.repositories.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Mantiene sanos los {@link com.dishly.app.models.RatingAggregate}: las escrituras de reseñas
+ * los incrementan y este job los recalcula desde las tablas de reseñas al arrancar (cubre las
+ * filas viejas, que nacen en 0) y periódicamente, por si algo escribió reseñas por fuera.
+ */
+@Service
+public class RatingAggregateService {
+    private static final Logger log = LoggerFactory.getLogger(RatingAggregateService.class);
+
+    private final RecipeRepository recipeRepo;
+    private final MealPrepRepository mealPrepRepo;
+
+    public RatingAggregateService(RecipeRepository recipeRepo, MealPrepRepository mealPrepRepo) {
+        this.recipeRepo = recipeRepo;
+        this.mealPrepRepo = mealPrepRepo;
+    }
+
+    /** Estrellas de una reseña nueva; fuera de 1..5 no entra en el histograma. */
+    static int validStars(Integer rating) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("La calificación debe estar entre 1 y 5");
+        }
+        return rating;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        repair();
+    }
+
+    @Scheduled(cron = "${app.ratings.repair-cron:0 30 4 * * *}")
+    @Transactional
+    public void repair() {
+        long start = System.currentTimeMillis();
+        int recipes = recipeRepo.repairRatings();
+        int mealPreps = mealPrepRepo.repairRatings();
+        log.info("Rating aggregates repaired: {} recipes, {} meal preps in {} ms",
+                recipes, mealPreps, System.currentTimeMillis() - start);
+    }
+}
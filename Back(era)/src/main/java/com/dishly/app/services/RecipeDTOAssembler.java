@@ -0,0 +1,233 @@
+package com.dishly.app.services;
+
+import com.dishly.app.dto.IngredientQuantityDTO;
+import com.dishly.app.dto.RecipeCardDTO;
+import com.dishly.app.dto.RecipeResponseDTO;
+import com.dishly.app.dto.ReviewDTO;
+import com.dishly.app.models.RecipeModel;
+import com.dishly.app.projection.RecipeCardRow;
+import com.dishly.app.projection.RecipeIngredientLinkRow;
+import com.dishly.app.projection.RecipeStepRow;
+import com.dishly.app.projection.ReviewRow;
+import com.dishly.app.repositories.RecipeRepository;
+import com.dishly.app.repositories.ReviewRepository;
+import com.dishly.app.services.AuthorSummaryCacheService.AuthorSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Arma los {@link RecipeResponseDTO} de una página completa con una cantidad fija de
+ * consultas IN (reseñas, ingredientes y pasos; los autores salen de
+ * {@link AuthorSummaryCacheService}), en lugar de tres consultas más
+ * las colecciones lazy por cada receta. El promedio sale del agregado guardado en la receta
+ * y de las reseñas sólo se embeben las últimas; el resto se pagina aparte.
+ */
+@Service
+public class RecipeDTOAssembler {
+
+    /** Tope de ids por consulta IN, para no pasarnos del límite de parámetros del driver. */
+    static final int IN_CHUNK = 500;
+
+    private final RecipeRepository recipeRepo;
+    private final ReviewRepository reviewRepo;
+    private final RecipeSearchIndexService searchIndex;
+    private final AuthorSummaryCacheService authorCache;
+    private final ImageStoreService images;
+
+    /** Reseñas embebidas por receta; el listado completo va por /api/recipes/{id}/reviews/cursor. */
+    @Value("${app.reviews.embedded-limit:5}")
+    private int embeddedReviews;
+
+    public RecipeDTOAssembler(RecipeRepository recipeRepo, ReviewRepository reviewRepo,
+                              RecipeSearchIndexService searchIndex, AuthorSummaryCacheService authorCache,
+                              ImageStoreService images) {
+        this.recipeRepo = recipeRepo;
+        this.reviewRepo = reviewRepo;
+        this.searchIndex = searchIndex;
+        this.authorCache = authorCache;
+        this.images = images;
+    }
+
+    /** DTOs en el mismo orden que {@code recipes}. */
+    public List<RecipeResponseDTO> toDTOs(List<RecipeModel> recipes, IngredientBitmap undesired) {
+        if (recipes.isEmpty()) return List.of();
+
+        Set<Long> recipeIds = new LinkedHashSet<>();
+        Set<Long> authorIds = new LinkedHashSet<>();
+        for (RecipeModel m : recipes) {
+            recipeIds.add(m.getId());
+            if (m.getUserId() != null) authorIds.add(m.getUserId());
+        }
+
+        List<ReviewRow> reviewRows = latestReviewRows(recipeIds);
+        reviewRows.forEach(r -> authorIds.add(r.getUserId()));
+        Map<Long, AuthorSummary> authors = authorCache.getAll(authorIds);
+
+        Map<Long, List<ReviewDTO>> reviews = new HashMap<>();
+        for (ReviewRow r : reviewRows) {
+            reviews.computeIfAbsent(r.getParentId(), k -> new ArrayList<>())
+                    .add(toReviewDTO(r, authors.get(r.getUserId())));
+        }
+
+        Map<Long, List<IngredientQuantityDTO>> ingredients = new HashMap<>();
+        Map<Long, List<Long>> ingredientIds = new HashMap<>();
+        for (RecipeIngredientLinkRow row : inChunks(recipeIds, recipeRepo::findIngredientLinksByRecipeIdIn)) {
+            ingredients.computeIfAbsent(row.getRecipeId(), k -> new ArrayList<>())
+                    .add(new IngredientQuantityDTO(row.getIngredientId(), row.getIngredientName(), row.getQuantity()));
+            ingredientIds.computeIfAbsent(row.getRecipeId(), k -> new ArrayList<>()).add(row.getIngredientId());
+        }
+
+        Map<Long, List<String>> steps = new HashMap<>();
+        for (RecipeStepRow row : inChunks(recipeIds, recipeRepo::findStepsByRecipeIdIn)) {
+            steps.computeIfAbsent(row.getRecipeId(), k -> new ArrayList<>()).add(row.getStep());
+        }
+
+        List<RecipeResponseDTO> out = new ArrayList<>(recipes.size());
+        for (RecipeModel m : recipes) {
+            AuthorSummary author = authors.get(m.getUserId());
+            boolean hasUndesiredIngredients = !undesired.isEmpty()
+                    && IngredientBitmap.of(ingredientIds.getOrDefault(m.getId(), List.of())).intersects(undesired);
+
+            out.add(new RecipeResponseDTO(
+                    m.getId(),
+                    m.getName(),
+                    m.getDescription(),
+                    images.urlOr(m.getImageHash(), ImageVariant.CARD, m.getImage()),
+                    m.getCategory(),
+                    author != null ? author.username() : null,
+                    author != null ? author.photo() : null,
+                    m.getUserId(),
+                    m.getTime(),
+                    ingredients.getOrDefault(m.getId(), List.of()),
+                    steps.getOrDefault(m.getId(), List.of()),
+                    m.isPublicRecipe(),
+                    reviews.getOrDefault(m.getId(), List.of()),
+                    m.getRating().average(),
+                    Math.toIntExact(m.getRating().getRatingCount()),
+                    hasUndesiredIngredients
+            ));
+        }
+        return out;
+    }
+
+    /**
+     * Tarjetas para {@code ids}, en ese orden, con una sola consulta de filas livianas. La imagen
+     * no viaja: la tarjeta la referencia por URL. Los ids que ya no existen se omiten.
+     */
+    public List<RecipeCardDTO> toCards(List<Long> ids, IngredientBitmap undesired) {
+        if (ids.isEmpty()) return List.of();
+        Set<Long> idSet = new LinkedHashSet<>(ids);
+
+        Map<Long, RecipeCardRow> rows = new HashMap<>();
+        for (RecipeCardRow row : inChunks(idSet, recipeRepo::findCardRowsByIdIn)) {
+            rows.put(row.getId(), row);
+        }
+        Map<Long, IngredientBitmap> ingredients = undesired.isEmpty() ? Map.of() : ingredientsOf(idSet);
+
+        List<RecipeCardDTO> out = new ArrayList<>(rows.size());
+        for (Long id : idSet) {
+            RecipeCardRow row = rows.get(id);
+            if (row == null) continue;
+            long sum = row.getRatingSum() != null ? row.getRatingSum() : 0L;
+            long count = row.getRatingCount() != null ? row.getRatingCount() : 0L;
+            out.add(new RecipeCardDTO(
+                    row.getId(),
+                    row.getName(),
+                    row.getCategory(),
+                    row.getTime(),
+                    cardImageUrl(row),
+                    row.getUserId(),
+                    row.getUsername(),
+                    count == 0 ? 0d : (double) sum / count,
+                    Math.toIntExact(count),
+                    row.getPublicRecipe(),
+                    !undesired.isEmpty() && ingredients.getOrDefault(id, IngredientBitmap.EMPTY).intersects(undesired)
+            ));
+        }
+        return out;
+    }
+
+    /** Las últimas reseñas de una receta, para el detalle. */
+    public List<ReviewDTO> latestReviews(Long recipeId) {
+        if (embeddedReviews <= 0) return List.of();
+        return toReviewDTOs(reviewRepo.findRowsByRecipeId(recipeId, PageRequest.of(0, embeddedReviews)));
+    }
+
+    /** Reseñas con la foto de cada autor tomada de la caché, en el mismo orden que {@code rows}. */
+    public List<ReviewDTO> toReviewDTOs(List<ReviewRow> rows) {
+        if (rows.isEmpty()) return List.of();
+        Map<Long, AuthorSummary> authors = authorCache.getAll(rows.stream().map(ReviewRow::getUserId).toList());
+        return rows.stream().map(r -> toReviewDTO(r, authors.get(r.getUserId()))).toList();
+    }
+
+    /** Las últimas reseñas de cada receta, más nuevas primero. */
+    private List<ReviewRow> latestReviewRows(Set<Long> recipeIds) {
+        if (embeddedReviews <= 0) return List.of();
+        List<Long> reviewIds = inChunks(recipeIds,
+                chunk -> reviewRepo.findLatestIdsByRecipeIdIn(chunk, embeddedReviews));
+        return inChunks(new LinkedHashSet<>(reviewIds), reviewRepo::findRowsByIdIn);
+    }
+
+    /** El blob si la receta ya se migró; si no, la imagen vieja decodificada por receta. */
+    private String cardImageUrl(RecipeCardRow row) {
+        if (row.getImageHash() != null) return images.url(row.getImageHash(), ImageVariant.CARD);
+        return Boolean.TRUE.equals(row.getHasImage()) ? imageUrl(row.getId()) : null;
+    }
+
+    static String imageUrl(Long recipeId) {
+        return "/api/recipes/" + recipeId + "/image";
+    }
+
+    /** Bitmaps del índice; los que faltan se arman con una sola consulta. */
+    private Map<Long, IngredientBitmap> ingredientsOf(Set<Long> recipeIds) {
+        Map<Long, IngredientBitmap> out = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : recipeIds) {
+            searchIndex.get(id).ifPresentOrElse(
+                    doc -> out.put(id, doc.ingredients()),
+                    () -> missing.add(id));
+        }
+        if (missing.isEmpty()) return out;
+
+        Map<Long, List<Long>> ids = new HashMap<>();
+        for (RecipeIngredientLinkRow row : inChunks(missing, recipeRepo::findIngredientLinksByRecipeIdIn)) {
+            ids.computeIfAbsent(row.getRecipeId(), k -> new ArrayList<>()).add(row.getIngredientId());
+        }
+        ids.forEach((id, list) -> out.put(id, IngredientBitmap.of(list)));
+        return out;
+    }
+
+    private static ReviewDTO toReviewDTO(ReviewRow r, AuthorSummary author) {
+        return new ReviewDTO(
+                r.getId(),
+                r.getComment(),
+                r.getRating() != null ? r.getRating() : 0,
+                r.getUsername(),
+                r.getUserId(),
+                author != null ? author.photo() : null,
+                r.getCreatedAt() != null ? r.getCreatedAt().toString() : null
+        );
+    }
+
+    /** Corre {@code query} de a {@link #IN_CHUNK} ids y junta los resultados. */
+    static <T> List<T> inChunks(Set<Long> ids, Function<List<Long>, List<T>> query) {
+        if (ids.isEmpty()) return List.of();
+        List<Long> all = ids.stream().filter(Objects::nonNull).toList();
+        if (all.size() <= IN_CHUNK) return query.apply(all);
+        List<T> out = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_CHUNK) {
+            out.addAll(query.apply(all.subList(from, Math.min(all.size(), from + IN_CHUNK))));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,219 @@
+package com.dishly.app.services;
+
+import com.dishly.app.models.RecipeIngredientModel;
+import com.dishly.app.models.RecipeModel;
+import com.dishly.app.projection.RecipeIndexRow;
+import com.dishly.app.projection.RecipeIngredientRow;
+import com.dishly.app.repositories.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Índice invertido en memoria para la búsqueda de recetas por nombre, autor e ingrediente,
+ * más un índice BM25 (nombre, descripción e ingredientes) para el modo por relevancia.
+ * Se arma al arrancar con proyecciones livianas y se mantiene al día con las escrituras
+ * de {@link RecipeService} una vez que confirman.
+ */
+@Service
+public class RecipeSearchIndexService {
+    private static final Logger log = LoggerFactory.getLogger(RecipeSearchIndexService.class);
+
+    private final RecipeRepository recipeRepo;
+
+    private volatile Index index;
+    private final List<LongConsumer> changeListeners = new CopyOnWriteArrayList<>();
+
+    public RecipeSearchIndexService(RecipeRepository recipeRepo) {
+        this.recipeRepo = recipeRepo;
+    }
+
+    /** Lo que el índice sabe de cada receta; los textos ya vienen normalizados. */
+    public record IndexedRecipe(Long id, Long userId, boolean publicRecipe,
+                                String name, String author, String description, String ingredientNames,
+                                IngredientBitmap ingredients) {
+
+        static IndexedRecipe of(RecipeModel m) {
+            List<String> names = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            for (RecipeIngredientModel link : Optional.ofNullable(m.getIngredients()).orElse(List.of())) {
+                names.add(link.getIngredient().getName());
+                ids.add(link.getIngredient().getId());
+            }
+            return new IndexedRecipe(m.getId(), m.getUserId(), m.isPublicRecipe(),
+                    SearchText.normalize(m.getName()), SearchText.normalize(m.getAuthor()),
+                    SearchText.normalize(m.getDescription()), SearchText.join(names), IngredientBitmap.of(ids));
+        }
+    }
+
+    /* ---------- Carga ---------- */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+
+        Map<Long, List<String>> namesByRecipe = new HashMap<>();
+        Map<Long, List<Long>> idsByRecipe = new HashMap<>();
+        for (RecipeIngredientRow row : recipeRepo.findAllIngredientRows()) {
+            namesByRecipe.computeIfAbsent(row.getRecipeId(), k -> new ArrayList<>()).add(row.getIngredientName());
+            idsByRecipe.computeIfAbsent(row.getRecipeId(), k -> new ArrayList<>()).add(row.getIngredientId());
+        }
+
+        Index fresh = new Index();
+        for (RecipeIndexRow row : recipeRepo.findAllIndexRows()) {
+            fresh.put(new IndexedRecipe(
+                    row.getId(),
+                    row.getUserId(),
+                    Boolean.TRUE.equals(row.getPublicRecipe()),
+                    SearchText.normalize(row.getName()),
+                    SearchText.normalize(row.getAuthor()),
+                    SearchText.normalize(row.getDescription()),
+                    SearchText.join(namesByRecipe.getOrDefault(row.getId(), List.of())),
+                    IngredientBitmap.of(idsByRecipe.getOrDefault(row.getId(), List.of()))
+            ));
+        }
+        this.index = fresh;
+
+        log.info("Recipe search index built: {} recipes in {} ms",
+                fresh.docs.size(), System.currentTimeMillis() - start);
+    }
+
+    public void ensureLoaded() {
+        index();
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current != null) return current;
+        synchronized (this) {
+            if (index == null) rebuild();
+            return index;
+        }
+    }
+
+    /* ---------- Escrituras ---------- */
+
+    /** Toma una foto de la receta ahora y la aplica al índice cuando la transacción confirma. */
+    public void indexAfterCommit(RecipeModel recipe) {
+        IndexedRecipe doc = IndexedRecipe.of(recipe);
+        AfterCommit.run(() -> apply(doc.id(), doc));
+    }
+
+    public void removeAfterCommit(Long recipeId) {
+        AfterCommit.run(() -> apply(recipeId, null));
+    }
+
+    /**
+     * Registra a quien tenga datos derivados de una receta (p. ej. los meal preps que la incluyen)
+     * para que se entere después de que el índice aplicó el cambio.
+     */
+    public void addChangeListener(LongConsumer listener) {
+        changeListeners.add(listener);
+    }
+
+    private void apply(Long recipeId, IndexedRecipe doc) {
+        synchronized (this) {
+            Index current = index;
+            if (current == null) return; // el rebuild pendiente ya va a leer el estado confirmado
+            current.remove(recipeId);
+            if (doc != null) current.put(doc);
+        }
+        // Fuera del lock: los listeners toman el suyo propio
+        for (LongConsumer listener : changeListeners) {
+            listener.accept(recipeId);
+        }
+    }
+
+    /* ---------- Lectura ---------- */
+
+    public Optional<IndexedRecipe> get(Long recipeId) {
+        return Optional.ofNullable(index().docs.get(recipeId));
+    }
+
+    /**
+     * Ids que cumplen los filtros de texto (todos opcionales) y {@code filter},
+     * menores que el cursor y en orden descendente, como mucho {@code max}.
+     */
+    public List<Long> search(String name, String ingredient, String author, Long cursorId, int max,
+                             boolean publicOnly, Predicate<IndexedRecipe> filter) {
+        return matching(index(), name, ingredient, author, cursorId, max, publicOnly, filter);
+    }
+
+    /**
+     * Modo por relevancia: los mismos resultados que {@link #search}, sin cursor ni tope, y
+     * ordenados por BM25 de {@code name} (normalizado) después de {@code after}. El puntaje
+     * sólo ordena; una receta que no contiene {@code name} no entra por tener otro término.
+     */
+    List<Bm25Index.Scored> rankedSearch(String name, String ingredient, String author, Bm25Index.Cursor after,
+                                        int max, boolean publicOnly, Predicate<IndexedRecipe> filter) {
+        Index idx = index();
+        List<Long> candidates = matching(idx, name, ingredient, author, null, Integer.MAX_VALUE, publicOnly, filter);
+        return idx.ranking.rank(SearchText.normalize(name), candidates, after, max);
+    }
+
+    private static List<Long> matching(Index idx, String name, String ingredient, String author, Long cursorId,
+                                       int max, boolean publicOnly, Predicate<IndexedRecipe> filter) {
+        List<IdPostings> clauses = new ArrayList<>();
+        List<LongPredicate> checks = new ArrayList<>();
+        idx.names.addClause(name, clauses, checks);
+        idx.authors.addClause(author, clauses, checks);
+        idx.ingredients.addClause(ingredient, clauses, checks);
+
+        return IdPostings.intersect(publicOnly ? idx.publicIds : idx.all, clauses, cursorId, max, id -> {
+            for (LongPredicate check : checks) {
+                if (!check.test(id)) return false;
+            }
+            IndexedRecipe doc = idx.docs.get(id);
+            return doc != null && filter.test(doc);
+        });
+    }
+
+    private static final class Index {
+        final Map<Long, IndexedRecipe> docs = new ConcurrentHashMap<>();
+        final IdPostings all = new IdPostings();
+        final IdPostings publicIds = new IdPostings();
+        final TextIndex names = new TextIndex();
+        final TextIndex authors = new TextIndex();
+        final TextIndex ingredients = new TextIndex();
+        // Pesos por campo, en el orden de put: nombre, descripción, ingredientes
+        final Bm25Index ranking = new Bm25Index(3.0, 1.0, 2.0);
+
+        void put(IndexedRecipe doc) {
+            long id = doc.id();
+            docs.put(id, doc);
+            all.add(id);
+            if (doc.publicRecipe()) publicIds.add(id);
+            names.put(id, doc.name());
+            authors.put(id, doc.author());
+            ingredients.put(id, doc.ingredientNames());
+            ranking.put(id, doc.name(), doc.description(), doc.ingredientNames());
+        }
+
+        void remove(Long id) {
+            if (docs.remove(id) == null) return;
+            all.remove(id);
+            publicIds.remove(id);
+            names.remove(id);
+            authors.remove(id);
+            ingredients.remove(id);
+            ranking.remove(id);
+        }
+    }
+}
@@ -2,19 +2,20 @@ package com.dishly.app.services;
 
 import com.dishly.app.dto.IngredientQuantityDTO;
 import com.dishly.app.dto.PagedResponse;
+import com.dishly.app.dto.RecipeCardDTO;
 import com.dishly.app.dto.RecipeRequestDTO;
 import com.dishly.app.dto.RecipeResponseDTO;
 import com.dishly.app.dto.ReviewDTO;
 import com.dishly.app.models.*;
-import com.dishly.app.projection.RatingSummary;
 import com.dishly.app.repositories.IngredientRepository;
 import com.dishly.app.repositories.RecipeRepository;
-import com.dishly.app.repositories.ReviewRepository;
 import com.dishly.app.repositories.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -22,11 +23,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.file.AccessDeniedException;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,32 +37,49 @@ public class RecipeService {
     private final RecipeRepository recipeRepo;
     private final IngredientRepository ingRepo;
     private final UserRepository userRepo;
-    private final ReviewRepository reviewRepo;
     private final NotificationEmailService notificationEmailService;
+    private final RecipeSearchIndexService searchIndex;
+    private final ObjectProvider<FullTextSearchService> fullTextSearch;
+    private final UndesiredIngredientCacheService undesiredCache;
+    private final FollowGraphService followGraph;
+    private final RecipeDTOAssembler assembler;
+    private final AuthorSummaryCacheService authorCache;
+    private final ImageStoreService images;
 
     public RecipeService(RecipeRepository recipeRepo,
-                         IngredientRepository ingRepo, UserRepository userRepo, ReviewRepository reviewRepo,
-                         NotificationEmailService notificationEmailService) {
+                         IngredientRepository ingRepo, UserRepository userRepo,
+                         NotificationEmailService notificationEmailService,
+                         RecipeSearchIndexService searchIndex,
+                         ObjectProvider<FullTextSearchService> fullTextSearch,
+                         UndesiredIngredientCacheService undesiredCache,
+                         FollowGraphService followGraph,
+                         RecipeDTOAssembler assembler,
+                         AuthorSummaryCacheService authorCache,
+                         ImageStoreService images) {
         this.recipeRepo = recipeRepo;
         this.ingRepo = ingRepo;
         this.userRepo = userRepo;
-        this.reviewRepo = reviewRepo;
         this.notificationEmailService = notificationEmailService;
+        this.searchIndex = searchIndex;
+        this.fullTextSearch = fullTextSearch;
+        this.undesiredCache = undesiredCache;
+        this.followGraph = followGraph;
+        this.assembler = assembler;
+        this.authorCache = authorCache;
+        this.images = images;
     }
 
     /* ---------- Lectura ---------- */
 
     @Transactional(readOnly = true)
     public RecipeResponseDTO getById(Long id) {
-        return toDTO(recipeRepo.findById(id)
+        return toDTO(recipeRepo.findDetailById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Receta no encontrada: " + id)));
     }
 
     @Transactional(readOnly = true)
     public List<RecipeResponseDTO> getAll() {
-        return recipeRepo.findAll().stream()
-                .map(this::toDTO)
-                .toList();
+        return toDTOs(recipeRepo.findAll(), IngredientBitmap.EMPTY);
     }
 
     /* ---------- Creación ---------- */
@@ -78,6 +96,7 @@ public class RecipeService {
         RecipeModel model = new RecipeModel();
         updateModel(model, dto, user.getId());
         RecipeModel saved = recipeRepo.save(model);
+        searchIndex.indexAfterCommit(saved);
 
         if (saved.isPublicRecipe()) {
             try {
@@ -110,6 +129,8 @@ public class RecipeService {
 
         updateModel(recipe, dto, user.getId());
         RecipeModel saved = recipeRepo.save(recipe);
+        recipeRepo.bumpContentVersion(saved.getId());
+        searchIndex.indexAfterCommit(saved);
         if (!wasPublic && saved.isPublicRecipe()) {
             try {
                 log.info("Triggering followers notification for recipe public transition. recipeId={}, authorId={}",
@@ -128,6 +149,7 @@ public class RecipeService {
     @Transactional
     public void delete(Long id) {
         recipeRepo.deleteById(id);
+        searchIndex.removeAfterCommit(id);
     }
 
     /* ---------- Creación para un usuario concreto ---------- */
@@ -146,6 +168,7 @@ public class RecipeService {
         UserModel user = userRepo.findById(userId).orElseThrow();
         model.setAuthor(user.getUsername());
         RecipeModel saved = recipeRepo.save(model);
+        searchIndex.indexAfterCommit(saved);
 
         if (saved.isPublicRecipe()) {
             try {
@@ -170,17 +193,9 @@ public class RecipeService {
 
     @Transactional(readOnly = true)
     public List<RecipeResponseDTO> search(String name, String ingredient, String author, String email) {
-        Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(email);
-        return recipeRepo.findAll().stream()
-                .filter(r -> name == null || r.getName().toLowerCase().contains(name.toLowerCase()))
-                .filter(r -> author == null || Optional.ofNullable(r.getAuthor())
-                        .map(a -> a.toLowerCase().contains(author.toLowerCase()))
-                        .orElse(false))
-
-                .filter(r -> ingredient == null || r.getIngredients().stream()
-                        .anyMatch(i -> i.getIngredient().getName().toLowerCase().contains(ingredient.toLowerCase())))
-                .map(r -> toDTO(r, undesiredIngredientIds))
-                .toList();
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        List<Long> ids = searchIndex.search(name, ingredient, author, null, Integer.MAX_VALUE, false, doc -> true);
+        return toDTOs(findAllInOrder(ids), undesired);
     }
 
     @Transactional(readOnly = true)
@@ -191,65 +206,112 @@ public class RecipeService {
     @Transactional(readOnly = true)
     public PagedResponse<RecipeResponseDTO> searchByCursor(String name, String ingredient, String author, String cursor, int limit,
                                                            String email, boolean onlyFollowing, boolean excludeUndesired) {
+        return searchByCursor(name, ingredient, author, cursor, limit, email, onlyFollowing, excludeUndesired, false);
+    }
+
+    /**
+     * Con {@code ranked} las recetas salen por relevancia (BM25 de {@code name} sobre nombre,
+     * descripción e ingredientes) y el cursor es opaco; sin él, de la más nueva a la más vieja.
+     * Los dos modos devuelven las mismas recetas: nombre, ingrediente y autor filtran igual.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<RecipeResponseDTO> searchByCursor(String name, String ingredient, String author, String cursor, int limit,
+                                                           String email, boolean onlyFollowing, boolean excludeUndesired,
+                                                           boolean ranked) {
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        IdPage page = searchIds(name, ingredient, author, cursor, limit, email, onlyFollowing, excludeUndesired, ranked, undesired);
+
+        List<RecipeResponseDTO> items = toDTOs(findAllInOrder(page.ids()), undesired);
+        long flaggedCount = items.stream().filter(RecipeResponseDTO::hasUndesiredIngredients).count();
+
+        log.debug("Recipe search cursor principal={} undesiredCount={} flaggedItems={}",
+                email, undesired.cardinality(), flaggedCount);
+
+        return new PagedResponse<>(items, page.nextCursor(), page.hasNext());
+    }
+
+    /** La misma búsqueda que {@link #searchByCursor}, devolviendo tarjetas livianas ({@code view=card}). */
+    @Transactional(readOnly = true)
+    public PagedResponse<RecipeCardDTO> searchCardsByCursor(String name, String ingredient, String author, String cursor, int limit,
+                                                            String email, boolean onlyFollowing, boolean excludeUndesired,
+                                                            boolean ranked) {
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        IdPage page = searchIds(name, ingredient, author, cursor, limit, email, onlyFollowing, excludeUndesired, ranked, undesired);
+        return new PagedResponse<>(assembler.toCards(page.ids(), undesired), page.nextCursor(), page.hasNext());
+    }
+
+    /** Ids de una página de resultados, en el orden que corresponde al modo de búsqueda. */
+    private record IdPage(List<Long> ids, String nextCursor, boolean hasNext) {
+    }
+
+    private IdPage searchIds(String name, String ingredient, String author, String cursor, int limit,
+                             String email, boolean onlyFollowing, boolean excludeUndesired, boolean ranked,
+                             IngredientBitmap undesired) {
         int safeLimit = limit > 0 ? limit : 10;
-        Long cursorId = (cursor == null || cursor.isBlank()) ? null : Long.parseLong(cursor);
         boolean hasAuthUser = email != null && !email.isBlank();
 
-        Set<Long> followingIdsTmp = Set.of();
-        Set<Long> undesiredIngredientIdsTmp = getUndesiredIngredientIds(email);
+        // Con app.search.backend=postgres las búsquedas con texto van por full-text y por relevancia
+        FullTextSearchService fullText = fullTextSearch.getIfAvailable();
+        String text = FullTextSearchService.queryText(name, ingredient, author);
+        if (fullText != null && !text.isEmpty()) {
+            Long meId = hasAuthUser ? userRepo.findIdByEmail(email).orElse(null) : null;
+            FullTextSearchService.RankedPage page = fullText.searchRecipes(text, cursor, safeLimit, meId,
+                    hasAuthUser && onlyFollowing, hasAuthUser && excludeUndesired);
+            return new IdPage(page.ids(), page.nextCursor(), page.hasNext());
+        }
 
-        if (hasAuthUser && onlyFollowing) {
-            UserModel me = userRepo.findByEmail(email).orElse(null);
-            if (me != null) {
-                followingIdsTmp = me.getFollowing().stream()
-                        .map(UserModel::getId)
-                        .collect(Collectors.toSet());
+        Long meId = hasAuthUser && onlyFollowing ? userRepo.findIdByEmail(email).orElse(null) : null;
+        Predicate<RecipeSearchIndexService.IndexedRecipe> filter = doc ->
+                (!hasAuthUser || !onlyFollowing || followGraph.isFollowing(meId, doc.userId()))
+                        && (!hasAuthUser || !excludeUndesired
+                        || !doc.ingredients().intersects(undesired));
+
+        // Mismos candidatos que el modo cronológico; el BM25 del nombre sólo cambia el orden
+        String rankedText = name == null ? "" : name.trim();
+        if (ranked && !rankedText.isEmpty()) {
+            List<Bm25Index.Scored> scored = searchIndex.rankedSearch(rankedText, ingredient, author,
+                    Bm25Index.Cursor.parse(cursor), safeLimit + 1, true, filter);
+            boolean hasNext = scored.size() > safeLimit;
+            List<Bm25Index.Scored> page = hasNext ? scored.subList(0, safeLimit) : scored;
+            String nextCursor = null;
+            if (hasNext && !page.isEmpty()) {
+                Bm25Index.Scored last = page.get(page.size() - 1);
+                nextCursor = new Bm25Index.Cursor(last.score(), last.id()).encode();
             }
+            return new IdPage(page.stream().map(Bm25Index.Scored::id).toList(), nextCursor, hasNext);
         }
-        final Set<Long> followingIds = followingIdsTmp;
-        final Set<Long> undesiredIngredientIds = undesiredIngredientIdsTmp;
-
-        List<RecipeModel> filtered = recipeRepo.findAll().stream()
-                .filter(RecipeModel::isPublicRecipe)
-                .filter(r -> cursorId == null || r.getId() < cursorId)
-                .filter(r -> name == null || r.getName().toLowerCase().contains(name.toLowerCase()))
-                .filter(r -> author == null || Optional.ofNullable(r.getAuthor())
-                        .map(a -> a.toLowerCase().contains(author.toLowerCase()))
-                        .orElse(false))
-                .filter(r -> !hasAuthUser || !onlyFollowing || followingIds.contains(r.getUserId()))
-                .filter(r -> ingredient == null || r.getIngredients().stream()
-                        .anyMatch(i -> i.getIngredient().getName().toLowerCase().contains(ingredient.toLowerCase())))
-                .filter(r -> !hasAuthUser || !excludeUndesired || r.getIngredients().stream()
-                        .noneMatch(i -> undesiredIngredientIds.contains(i.getIngredient().getId())))
-                .sorted(Comparator.comparing(RecipeModel::getId).reversed())
-                .limit((long) safeLimit + 1)
-                .toList();
 
-        boolean hasNext = filtered.size() > safeLimit;
-        List<RecipeModel> pageModels = hasNext ? filtered.subList(0, safeLimit) : filtered;
-
-        List<RecipeResponseDTO> items = pageModels.stream()
-                .map(r -> toDTO(r, undesiredIngredientIds))
-                .toList();
-        long flaggedCount = items.stream().filter(RecipeResponseDTO::hasUndesiredIngredients).count();
-
-        String nextCursor = hasNext && !items.isEmpty()
-                ? String.valueOf(items.get(items.size() - 1).id())
+        // El índice resuelve filtros y cursor; de la base sólo se traen las filas de la página
+        Long cursorId = (cursor == null || cursor.isBlank()) ? null : Long.parseLong(cursor);
+        List<Long> ids = searchIndex.search(name, ingredient, author, cursorId, safeLimit + 1, true, filter);
+        boolean hasNext = ids.size() > safeLimit;
+        List<Long> pageIds = hasNext ? ids.subList(0, safeLimit) : ids;
+        String nextCursor = hasNext && !pageIds.isEmpty()
+                ? String.valueOf(pageIds.get(pageIds.size() - 1))
                 : null;
-
-        log.debug("Recipe search cursor principal={} undesiredCount={} flaggedItems={}",
-                email, undesiredIngredientIds.size(), flaggedCount);
-
-        return new PagedResponse<>(items, nextCursor, hasNext);
+        return new IdPage(pageIds, nextCursor, hasNext);
     }
 
 
     /* ---------- Helpers ---------- */
 
+    /** Carga las recetas respetando el orden de {@code ids}; omite las que ya no existen. */
+    private List<RecipeModel> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, RecipeModel> byId = recipeRepo.findAllById(ids).stream()
+                .collect(Collectors.toMap(RecipeModel::getId, r -> r));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     private void updateModel(RecipeModel m, RecipeRequestDTO dto, Long userId) {
         m.setName(dto.name());
         m.setDescription(dto.description());
-        m.setImage(dto.image());
+        // La imagen va al blob store; la entidad sólo guarda el hash
+        m.setImageHash(images.resolve(dto.image()));
+        m.setImage(null);
         m.setCategory(dto.category());
         m.setAuthor(dto.author());
         m.setUserId(userId);
@@ -287,11 +349,21 @@ public class RecipeService {
     }
 
 
+    /** Página completa de DTOs con consultas por lote; ver {@link RecipeDTOAssembler}. */
+    public List<RecipeResponseDTO> toDTOs(List<RecipeModel> recipes, IngredientBitmap undesired) {
+        return assembler.toDTOs(recipes, undesired);
+    }
+
+    /** Igual que {@link #toDTOs} pero conservando los datos de paginación de {@code page}. */
+    public Page<RecipeResponseDTO> toDTOs(Page<RecipeModel> page, IngredientBitmap undesired) {
+        return new PageImpl<>(toDTOs(page.getContent(), undesired), page.getPageable(), page.getTotalElements());
+    }
+
     public RecipeResponseDTO toDTO(RecipeModel m) {
-        return toDTO(m, Set.of());
+        return toDTO(m, IngredientBitmap.EMPTY);
     }
 
-    public RecipeResponseDTO toDTO(RecipeModel m, Set<Long> undesiredIngredientIds) {
+    public RecipeResponseDTO toDTO(RecipeModel m, IngredientBitmap undesired) {
         List<IngredientQuantityDTO> ingredients = Optional.ofNullable(m.getIngredients())
                 .orElse(List.of())
                 .stream()
@@ -302,40 +374,25 @@ public class RecipeService {
                 ))
                 .toList();
 
-        UserModel user = userRepo.findById(m.getUserId())
-                .orElseThrow();
-
-        List<ReviewModel> reviewModels = reviewRepo.findByRecipe(m);
+        AuthorSummaryCacheService.AuthorSummary author = authorCache.get(m.getUserId());
 
-        List<ReviewDTO> reviewDTOs = reviewModels.stream()
-                .map(r -> new ReviewDTO(
-                        r.getId(),
-                        r.getComment(),
-                        r.getRating(),
-                        r.getUser().getUsername(),
-                        r.getUser().getId(),
-                        r.getUser().getPhoto(),
-                        r.getCreatedAt().toString()
-                ))
-                .toList();
+        // Sólo las últimas; el resto se pagina en /api/recipes/{id}/reviews/cursor
+        List<ReviewDTO> reviewDTOs = assembler.latestReviews(m.getId());
 
-        RatingSummary summary = reviewRepo.getSummaryByRecipeId(m.getId());
-        Double averageRating = (summary == null || summary.getAvgRating() == null) ? 0d : summary.getAvgRating();
-        int ratingCount = (summary == null || summary.getReviewCount() == null)
-                ? 0
-                : Math.toIntExact(summary.getReviewCount());
-        boolean hasUndesiredIngredients = !undesiredIngredientIds.isEmpty() && m.getIngredients().stream()
-                .anyMatch(link -> undesiredIngredientIds.contains(link.getIngredient().getId()));
+        // Agregado desnormalizado en la receta (ver RatingAggregate)
+        Double averageRating = m.getRating().average();
+        int ratingCount = Math.toIntExact(m.getRating().getRatingCount());
+        boolean hasUndesiredIngredients = !undesired.isEmpty() && ingredientsOf(m).intersects(undesired);
 
 
         return new RecipeResponseDTO(
                 m.getId(),
                 m.getName(),
                 m.getDescription(),
-                m.getImage(),           // imagen de la receta
+                images.urlOr(m.getImageHash(), ImageVariant.DETAIL, m.getImage()),   // imagen de la receta
                 m.getCategory(),
-                user.getUsername(),     // nombre del autor
-                user.getPhoto(),        // imagen del autor
+                author != null ? author.username() : null,  // nombre del autor
+                author != null ? author.photo() : null,     // imagen del autor
                 m.getUserId(),
                 m.getTime(),
                 ingredients,
@@ -350,8 +407,7 @@ public class RecipeService {
 
     @Transactional(readOnly = true)
     public List<RecipeResponseDTO> getAllByUser(Long userId) {
-        return recipeRepo.findByUserId(userId)
-                .stream().map(this::toDTO).toList();
+        return toDTOs(recipeRepo.findByUserId(userId), IngredientBitmap.EMPTY);
     }
 
     @Transactional(readOnly = true)
@@ -361,15 +417,13 @@ public class RecipeService {
 
     @Transactional(readOnly = true)
     public Page<RecipeResponseDTO> getAllByUser(Long userId, Pageable pageable, String email) {
-        Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(email);
-        return recipeRepo.findByUserId(userId, pageable)
-                .map(r -> toDTO(r, undesiredIngredientIds));
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        return toDTOs(recipeRepo.findByUserId(userId, pageable), undesired);
     }
 
     @Transactional(readOnly = true)
     public List<RecipeResponseDTO> getPublic() {
-        return recipeRepo.findByPublicRecipeTrue()
-                .stream().map(this::toDTO).toList();
+        return toDTOs(recipeRepo.findByPublicRecipeTrue(), IngredientBitmap.EMPTY);
     }
 
 
@@ -380,9 +434,8 @@ public class RecipeService {
 
     @Transactional(readOnly = true)
     public Page<RecipeResponseDTO> getPublic(Pageable pageable, String email) {
-        Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(email);
-        return recipeRepo.findByPublicRecipeTrue(pageable)   // repo paginado
-                .map(r -> toDTO(r, undesiredIngredientIds));                  // convierte cada entidad
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+        return toDTOs(recipeRepo.findByPublicRecipeTrue(pageable), undesired);   // repo paginado, DTOs por lote
     }
 
     @Transactional(readOnly = true)
@@ -394,7 +447,7 @@ public class RecipeService {
     public PagedResponse<RecipeResponseDTO> getPublicByCursor(String cursor, int limit, String email) {
         int safeLimit = limit > 0 ? limit : 10;
         Pageable pageable = PageRequest.of(0, safeLimit + 1);
-        Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(email);
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
 
         List<RecipeModel> recipeModels;
         if (cursor == null || cursor.isBlank()) {
@@ -410,9 +463,7 @@ public class RecipeService {
                 ? recipeModels.subList(0, safeLimit)
                 : recipeModels;
 
-        List<RecipeResponseDTO> items = pageModels.stream()
-                .map(r -> toDTO(r, undesiredIngredientIds))
-                .toList();
+        List<RecipeResponseDTO> items = toDTOs(pageModels, undesired);
         long flaggedCount = items.stream().filter(RecipeResponseDTO::hasUndesiredIngredients).count();
 
         String nextCursor = hasNext && !items.isEmpty()
@@ -420,18 +471,60 @@ public class RecipeService {
                 : null;
 
         log.debug("Recipe home cursor principal={} undesiredCount={} flaggedItems={}",
-                email, undesiredIngredientIds.size(), flaggedCount);
+                email, undesired.cardinality(), flaggedCount);
 
         return new PagedResponse<>(items, nextCursor, hasNext);
     }
 
-    private Set<Long> getUndesiredIngredientIds(String email) {
-        if (email == null || email.isBlank()) return Set.of();
-        return userRepo.findByEmail(email)
-                .map(u -> u.getUndesiredIngredients().stream()
-                        .map(IngredientModel::getId)
-                        .collect(Collectors.toSet()))
-                .orElse(Set.of());
+    /** Feed público en tarjetas ({@code view=card}): ids por keyset y una sola consulta para las filas. */
+    @Transactional(readOnly = true)
+    public PagedResponse<RecipeCardDTO> getPublicCardsByCursor(String cursor, int limit, String email) {
+        int safeLimit = limit > 0 ? limit : 10;
+        Pageable pageable = PageRequest.of(0, safeLimit + 1);
+        IngredientBitmap undesired = undesiredCache.forEmail(email);
+
+        List<Long> ids = (cursor == null || cursor.isBlank())
+                ? recipeRepo.findPublicIds(pageable)
+                : recipeRepo.findPublicIdsBefore(Long.parseLong(cursor), pageable);
+
+        boolean hasNext = ids.size() > safeLimit;
+        List<Long> pageIds = hasNext ? ids.subList(0, safeLimit) : ids;
+        String nextCursor = hasNext && !pageIds.isEmpty()
+                ? String.valueOf(pageIds.get(pageIds.size() - 1))
+                : null;
+
+        return new PagedResponse<>(assembler.toCards(pageIds, undesired), nextCursor, hasNext);
+    }
+
+    /** URL del blob de la imagen, si la receta ya está migrada al blob store. */
+    @Transactional(readOnly = true)
+    public Optional<String> getImageUrl(Long id) {
+        return recipeRepo.findImageHashById(id).map(images::url);
+    }
+
+    /**
+     * Imagen todavía en base64 en la fila. El tipo sale de los bytes, nunca de la data URL que
+     * mandó el cliente: lo que no es JPEG, PNG, GIF o WebP no se sirve.
+     */
+    @Transactional(readOnly = true)
+    public ImageContent getLegacyImage(Long id) {
+        ImageContent decoded = recipeRepo.findImageById(id)
+                .flatMap(ImageContent::decode)
+                .orElseThrow(() -> new EntityNotFoundException("Imagen no encontrada para la receta " + id));
+        String contentType = ImageStoreService.sniff(decoded.bytes());
+        if (contentType == null) {
+            throw new EntityNotFoundException("Imagen no reconocida para la receta " + id);
+        }
+        return new ImageContent(contentType, decoded.bytes());
+    }
+
+    /** Bitmap de ingredientes de la receta: el del índice, o armado desde la entidad si todavía no está. */
+    IngredientBitmap ingredientsOf(RecipeModel m) {
+        return searchIndex.get(m.getId())
+                .map(RecipeSearchIndexService.IndexedRecipe::ingredients)
+                .orElseGet(() -> IngredientBitmap.of(Optional.ofNullable(m.getIngredients()).orElse(List.of()).stream()
+                        .map(link -> link.getIngredient().getId())
+                        .toList()));
     }
 
     @Transactional
@@ -447,5 +540,6 @@ public class RecipeService {
         }
 
         recipeRepo.delete(recipe);
+        searchIndex.removeAfterCommit(recipeId);
     }
 }
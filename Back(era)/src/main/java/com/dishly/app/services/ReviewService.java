@@ -1,14 +1,20 @@
 package com.dishly.app.services;
 
+import com.dishly.app.dto.PagedResponse;
 import com.dishly.app.dto.ReviewDTO;
 import com.dishly.app.dto.ReviewRequestDTO;
 import com.dishly.app.models.RecipeModel;
 import com.dishly.app.models.ReviewModel;
 import com.dishly.app.models.UserModel;
+import com.dishly.app.projection.ReviewRow;
 import com.dishly.app.repositories.RecipeRepository;
 import com.dishly.app.repositories.ReviewRepository;
 import com.dishly.app.repositories.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -20,8 +26,11 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final RecipeRepository recipeRepository;
     private final UserRepository userRepository;
+    private final RecipeDTOAssembler assembler;
 
+    @Transactional
     public void addReview(Long recipeId, ReviewRequestDTO dto) {
+        int stars = RatingAggregateService.validStars(dto.rating());
         RecipeModel recipe = recipeRepository.findById(recipeId).orElseThrow();
         UserModel user = userRepository.findByUsername(dto.username()).orElseThrow(); // 👈 búsqueda por username
 
@@ -34,20 +43,38 @@ public class ReviewService {
         review.setRating(dto.rating());
 
         reviewRepository.save(review);
+        // Incremento sobre la fila (no read-modify-write): dos reseñas simultáneas no se pisan
+        recipeRepository.addRating(recipeId, stars);
     }
 
     public List<ReviewDTO> getReviewsByRecipe(Long recipeId) {
-        RecipeModel recipe = recipeRepository.findById(recipeId).orElseThrow();
+        requireRecipe(recipeId);
+        return assembler.toReviewDTOs(reviewRepository.findRowsByRecipeId(recipeId, Pageable.unpaged()));
+    }
+
+    /** Reseñas de la receta por keyset, más nuevas primero; el cursor es el id de la última reseña. */
+    public PagedResponse<ReviewDTO> getReviewsByCursor(Long recipeId, String cursor, int limit) {
+        requireRecipe(recipeId);
+        int safeLimit = limit > 0 ? limit : 10;
+        Pageable pageable = PageRequest.of(0, safeLimit + 1);
+
+        List<ReviewRow> rows = (cursor == null || cursor.isBlank())
+                ? reviewRepository.findRowsByRecipeId(recipeId, pageable)
+                : reviewRepository.findRowsByRecipeIdBefore(recipeId, Long.parseLong(cursor), pageable);
+
+        boolean hasNext = rows.size() > safeLimit;
+        List<ReviewRow> page = hasNext ? rows.subList(0, safeLimit) : rows;
+        String nextCursor = hasNext && !page.isEmpty()
+                ? String.valueOf(page.get(page.size() - 1).getId())
+                : null;
+
+        return new PagedResponse<>(assembler.toReviewDTOs(page), nextCursor, hasNext);
+    }
 
-        return reviewRepository.findByRecipe(recipe).stream().map(r -> new ReviewDTO(
-                r.getId(),
-                r.getComment(),
-                r.getRating(),
-                r.getUser().getUsername(),
-                r.getUser().getId(),
-                r.getUser().getPhoto(),
-                r.getCreatedAt().toString()
-        )).toList();
+    private void requireRecipe(Long recipeId) {
+        if (!recipeRepository.existsById(recipeId)) {
+            throw new EntityNotFoundException("Receta no encontrada");
+        }
     }
 }
 
@@ -0,0 +1,51 @@
+package com.dishly.app.services;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Normalización compartida por los índices de búsqueda en memoria:
+ * minúsculas, sin acentos y sin signos de puntuación.
+ */
+final class SearchText {
+
+    private SearchText() {
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String nfd = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String noAccents = nfd.replaceAll("\\p{M}+", "");
+        return noAccents.toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9\\s]", " ")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    /**
+     * Normaliza cada valor por separado y los une con {@code |}, que nunca aparece
+     * en una consulta normalizada: así un "contiene" no cruza de un valor al siguiente.
+     */
+    static String join(Collection<String> values) {
+        return values.stream()
+                .map(SearchText::normalize)
+                .filter(v -> !v.isEmpty())
+                .collect(Collectors.joining("|"));
+    }
+
+    static Set<String> tokenize(String normalized) {
+        if (normalized == null || normalized.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(normalized.split("[ |]+"))
+                .filter(t -> !t.isBlank())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -40,9 +40,20 @@ public class ShoppingListService {
 
         Map<String, AggregatedIngredient> aggregatedIngredients = new LinkedHashMap<>();
 
+        // Meal preps con sus recetas, y todas las recetas con sus ingredientes, en dos consultas
+        Map<Long, MealPrepModel> mealPreps = new HashMap<>();
+        if (!dto.mealPrepIds().isEmpty()) {
+            for (MealPrepModel mp : mealPrepRepo.findForShoppingByIdIn(dto.mealPrepIds())) {
+                mealPreps.put(mp.getId(), mp);
+            }
+        }
+        Set<Long> allRecipeIds = new LinkedHashSet<>(dto.recipeIds());
+        mealPreps.values().forEach(mp -> mp.getRecipes().forEach(r -> allRecipeIds.add(r.getId())));
+        Map<Long, RecipeModel> recipes = loadForShopping(allRecipeIds);
+
         for (Long recipeId : dto.recipeIds()) {
-            RecipeModel recipe = recipeRepo.findById(recipeId)
-                    .orElseThrow(() -> new EntityNotFoundException("Receta " + recipeId + " no encontrada"));
+            RecipeModel recipe = recipes.get(recipeId);
+            if (recipe == null) throw new EntityNotFoundException("Receta " + recipeId + " no encontrada");
 
             for (RecipeIngredientModel ri : recipe.getIngredients()) {
                 String key = ri.getIngredient().getName().toLowerCase();
@@ -58,9 +69,10 @@ public class ShoppingListService {
             }
         }
         for (Long mealPrepId : dto.mealPrepIds()) {
-            MealPrepModel mealPrep = mealPrepRepo.findById(mealPrepId)
-                    .orElseThrow(() -> new EntityNotFoundException("MealPrep " + mealPrepId + " no encontrado"));
+            MealPrepModel mealPrep = mealPreps.get(mealPrepId);
+            if (mealPrep == null) throw new EntityNotFoundException("MealPrep " + mealPrepId + " no encontrado");
 
+            // Son las mismas instancias de `recipes`: sus ingredientes ya están cargados
             for (RecipeModel recipe : mealPrep.getRecipes()) {
                 for (RecipeIngredientModel ri : recipe.getIngredients()) {
                     String key = ri.getIngredient().getName().toLowerCase();
@@ -200,9 +212,10 @@ public class ShoppingListService {
         if (!list.getUserId().equals(userRepo.findByEmail(email).orElseThrow().getId()))
             throw new SecurityException("No autorizado");
 
+        Map<Long, RecipeModel> recipes = loadForShopping(new LinkedHashSet<>(recipeIds));
         for (Long recipeId : recipeIds) {
-            RecipeModel recipe = recipeRepo.findById(recipeId)
-                    .orElseThrow(() -> new EntityNotFoundException("Receta " + recipeId + " no encontrada"));
+            RecipeModel recipe = recipes.get(recipeId);
+            if (recipe == null) throw new EntityNotFoundException("Receta " + recipeId + " no encontrada");
 
             for (RecipeIngredientModel ri : recipe.getIngredients()) {
                 boolean alreadyExists = list.getItems().stream()
@@ -221,6 +234,16 @@ public class ShoppingListService {
     }
 
 
+    /** Recetas con sus ingredientes (forma "shopping"), indexadas por id. */
+    private Map<Long, RecipeModel> loadForShopping(Set<Long> recipeIds) {
+        Map<Long, RecipeModel> out = new HashMap<>();
+        if (recipeIds.isEmpty()) return out;
+        for (RecipeModel r : recipeRepo.findForShoppingByIdIn(recipeIds)) {
+            out.put(r.getId(), r);
+        }
+        return out;
+    }
+
     private static class AggregatedIngredient {
         private final String ingredientName;
         private String totalQuantity;
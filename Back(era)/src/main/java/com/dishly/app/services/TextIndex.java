@@ -0,0 +1,116 @@
+package com.dishly.app.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Índice invertido de un campo de texto ya normalizado.
+ * Las consultas de 3 o más caracteres usan postings de trigramas; las más cortas
+ * recorren el diccionario de tokens. En ambos casos el resultado es un superconjunto
+ * que se confirma con {@link #matches(long, String)}, así que la semántica sigue
+ * siendo la de un "contiene".
+ * Las escrituras tienen que venir serializadas desde el índice dueño.
+ */
+final class TextIndex {
+
+    static final int GRAM = 3;
+
+    private final Map<Long, String> texts = new ConcurrentHashMap<>();
+    private final Map<String, IdPostings> grams = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, IdPostings> tokens = new ConcurrentSkipListMap<>();
+
+    void put(long id, String text) {
+        remove(id);
+        if (text == null || text.isEmpty()) return;
+
+        texts.put(id, text);
+        for (String gram : grams(text)) {
+            grams.computeIfAbsent(gram, k -> new IdPostings()).add(id);
+        }
+        for (String token : SearchText.tokenize(text)) {
+            tokens.computeIfAbsent(token, k -> new IdPostings()).add(id);
+        }
+    }
+
+    void remove(long id) {
+        String old = texts.remove(id);
+        if (old == null) return;
+
+        for (String gram : grams(old)) {
+            detach(grams, gram, id);
+        }
+        for (String token : SearchText.tokenize(old)) {
+            detach(tokens, token, id);
+        }
+    }
+
+    String text(long id) {
+        return texts.get(id);
+    }
+
+    boolean matches(long id, String query) {
+        String text = texts.get(id);
+        return text != null && text.contains(query);
+    }
+
+    /**
+     * Listas cuya intersección contiene a todos los ids que matchean la consulta
+     * (ya normalizada y no vacía).
+     */
+    List<IdPostings> postings(String query) {
+        if (query.length() >= GRAM) {
+            Set<String> queryGrams = grams(query);
+            List<IdPostings> out = new ArrayList<>(queryGrams.size());
+            for (String gram : queryGrams) {
+                IdPostings postings = grams.get(gram);
+                if (postings == null) return List.of(new IdPostings());
+                out.add(postings);
+            }
+            return out;
+        }
+
+        // Una consulta corta normalizada no tiene espacios: siempre cae dentro de un token.
+        IdPostings union = new IdPostings();
+        for (Map.Entry<String, IdPostings> entry : tokens.entrySet()) {
+            if (entry.getKey().contains(query)) {
+                union.addAll(entry.getValue());
+            }
+        }
+        return List.of(union);
+    }
+
+    /**
+     * Suma al query las listas y la verificación de un filtro "contiene" sobre este campo.
+     * Un filtro nulo o vacío tras normalizar no restringe nada.
+     */
+    void addClause(String raw, List<IdPostings> clauses, List<LongPredicate> checks) {
+        if (raw == null) return;
+        String query = SearchText.normalize(raw);
+        if (query.isEmpty()) return;
+        clauses.addAll(postings(query));
+        checks.add(id -> matches(id, query));
+    }
+
+    static Set<String> grams(String text) {
+        if (text.length() < GRAM) return Set.of();
+        Set<String> out = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            out.add(text.substring(i, i + GRAM));
+        }
+        return out;
+    }
+
+    private static void detach(Map<String, IdPostings> map, String key, long id) {
+        map.computeIfPresent(key, (k, postings) -> {
+            postings.remove(id);
+            return postings.isEmpty() ? null : postings;
+        });
+    }
+}
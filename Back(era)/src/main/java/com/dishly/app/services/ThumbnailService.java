@@ -0,0 +1,206 @@
+package com.dishly.app.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Genera los tamaños de {@link ImageVariant} de cada imagen del blob store: decodifica el
+ * original una vez y escribe todas las variantes como JPEG en
+ * {@code <dir>/derived/<variante>/<2 primeros hex>/<sha256>.jpg}. Corre en un pool chico
+ * con cola acotada; si la cola está llena la tarea se descarta y la variante se vuelve a
+ * pedir la próxima vez que alguien la busque. Mientras no existe, se sirve el original.
+ */
+@Service
+public class ThumbnailService {
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+
+    /** Lado de la variante más grande; el original se decodifica submuestreado hasta ahí. */
+    private static final int LARGEST_SIDE = Arrays.stream(ImageVariant.values())
+            .mapToInt(ImageVariant::maxSide).max().orElseThrow();
+
+    @Value("${app.images.dir:data/images}")
+    private String dir;
+
+    @Value("${app.images.thumbnails.workers:2}")
+    private int workers;
+
+    @Value("${app.images.thumbnails.queue-capacity:200}")
+    private int queueCapacity;
+
+    /**
+     * Tope de píxeles del original. Se mira en la cabecera antes de decodificar: una imagen
+     * chica en bytes puede declarar dimensiones enormes y agotar la memoria al leerla.
+     */
+    @Value("${app.images.thumbnails.max-pixels:50000000}")
+    private long maxPixels;
+
+    private Path root;
+    private ThreadPoolExecutor executor;
+
+    /** Hashes encolados o en proceso, para no generar dos veces lo mismo. */
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    /**
+     * Originales que no se achican: ImageIO no sabe leerlos (p. ej. WebP) o pasan del tope de
+     * píxeles. Se sirven tal cual y no se reintentan.
+     */
+    private final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(dir).toAbsolutePath().normalize().resolve("derived");
+        Files.createDirectories(root);
+        AtomicInteger n = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "thumbnails-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** La variante ya generada, si existe; si no, la encola a partir de {@code original}. */
+    public Optional<Path> find(String hash, ImageVariant variant, Path original) {
+        Path path = pathOf(hash, variant);
+        if (Files.isRegularFile(path)) return Optional.of(path);
+        schedule(hash, original);
+        return Optional.empty();
+    }
+
+    /** Encola la generación de todas las variantes que faltan de {@code hash}. */
+    public void schedule(String hash, Path original) {
+        if (unsupported.contains(hash) || !pending.add(hash)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(hash, original);
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            log.debug("Thumbnail queue full, skipping {}", hash);
+        }
+    }
+
+    private void generate(String hash, Path original) {
+        try {
+            BufferedImage source = read(hash, original);
+            if (source == null) {
+                unsupported.add(hash);
+                return;
+            }
+            for (ImageVariant variant : ImageVariant.values()) {
+                Path target = pathOf(hash, variant);
+                if (!Files.exists(target)) write(scale(source, variant.maxSide()), target);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate thumbnails for {}: {}", hash, e.getMessage());
+        } catch (OutOfMemoryError e) {
+            // Sólo se pierde esta imagen; el hilo y el resto de la cola siguen
+            unsupported.add(hash);
+            log.warn("Out of memory generating thumbnails for {}, serving original only", hash);
+        }
+    }
+
+    /**
+     * Lee las dimensiones de la cabecera sin decodificar, descarta lo que pasa de
+     * {@code app.images.thumbnails.max-pixels} y decodifica salteando píxeles, de modo que en
+     * memoria nunca hay mucho más que la variante más grande. {@code null} si no se puede.
+     */
+    private BufferedImage read(String hash, Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+                if (w <= 0 || h <= 0 || (long) w * h > maxPixels) {
+                    log.warn("Image {} is {}x{}, over the thumbnail limit of {} pixels", hash, w, h, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(w, h) / LARGEST_SIDE);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Achica (nunca agranda) sobre fondo blanco, porque JPEG no tiene transparencia. */
+    private static BufferedImage scale(BufferedImage source, int maxSide) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        double factor = Math.min(1.0, (double) maxSide / Math.max(w, h));
+        int tw = Math.max(1, (int) Math.round(w * factor));
+        int th = Math.max(1, (int) Math.round(h * factor));
+
+        BufferedImage out = new BufferedImage(tw, th, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, tw, th);
+            g.drawImage(source, 0, 0, tw, th, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            ImageIO.write(image, "jpg", tmp.toFile());
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path pathOf(String hash, ImageVariant variant) {
+        return root.resolve(variant.path()).resolve(hash.substring(0, 2)).resolve(hash + ".jpg");
+    }
+}
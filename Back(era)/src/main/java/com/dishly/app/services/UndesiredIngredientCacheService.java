@@ -0,0 +1,107 @@
+package com.dishly.app.services;
+
+import com.dishly.app.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bitmap de ingredientes no deseados por usuario, cacheado para no recorrer la
+ * colección del usuario en cada listado. Se invalida cuando confirma un cambio
+ * en sus ingredientes no deseados o el borrado de la cuenta. Los dos mapas son LRU
+ * acotados por {@code app.cache.undesired.max-entries}.
+ */
+@Service
+public class UndesiredIngredientCacheService {
+
+    private final UserRepository userRepo;
+
+    @Value("${app.cache.undesired.max-entries:10000}")
+    private int maxEntries;
+
+    /** Orden de acceso: el primero es el menos usado. Ambos protegidos por {@code this}. */
+    private final LinkedHashMap<Long, IngredientBitmap> byUser = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<String, Long> userIdsByEmail = new LinkedHashMap<>(256, 0.75f, true);
+    /** Sube con cada invalidación; una carga que empezó antes no se guarda. */
+    private long generation;
+
+    public UndesiredIngredientCacheService(UserRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    /** Sin email (anónimo) o con un email desconocido devuelve el bitmap vacío. */
+    public IngredientBitmap forEmail(String email) {
+        if (email == null || email.isBlank()) return IngredientBitmap.EMPTY;
+        Long userId;
+        long loadGeneration;
+        synchronized (this) {
+            userId = userIdsByEmail.get(email);
+            loadGeneration = generation;
+        }
+        if (userId == null) {
+            userId = userRepo.findIdByEmail(email).orElse(null);
+            if (userId == null) return IngredientBitmap.EMPTY;
+            synchronized (this) {
+                if (loadGeneration == generation) put(userIdsByEmail, email, userId);
+            }
+        }
+        return forUser(userId);
+    }
+
+    public IngredientBitmap forUser(Long userId) {
+        if (userId == null) return IngredientBitmap.EMPTY;
+        long loadGeneration;
+        synchronized (this) {
+            IngredientBitmap cached = byUser.get(userId);
+            if (cached != null) return cached;
+            loadGeneration = generation;
+        }
+        // La consulta corre fuera del lock; si en el medio hubo una invalidación, no se guarda
+        IngredientBitmap loaded = IngredientBitmap.of(userRepo.findUndesiredIngredientIds(userId));
+        synchronized (this) {
+            if (loadGeneration == generation) put(byUser, userId, loaded);
+        }
+        return loaded;
+    }
+
+    private <K, V> void put(LinkedHashMap<K, V> map, K key, V value) {
+        map.put(key, value);
+        Iterator<V> it = map.values().iterator();
+        while (map.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    public void invalidateAfterCommit(Long userId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                generation++;
+                byUser.remove(userId);
+            }
+        });
+    }
+
+    /** Cuenta borrada: también se olvida su email, que puede volver a registrarse con otro id. */
+    public void forgetAfterCommit(Long userId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                generation++;
+                byUser.remove(userId);
+                userIdsByEmail.values().removeIf(userId::equals);
+            }
+        });
+    }
+
+    public void forgetAfterCommit(String email, Long userId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                generation++;
+                userIdsByEmail.remove(email);
+                byUser.remove(userId);
+            }
+        });
+    }
+}
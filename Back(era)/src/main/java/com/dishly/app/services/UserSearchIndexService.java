@@ -0,0 +1,128 @@
+package com.dishly.app.services;
+
+import com.dishly.app.models.UserModel;
+import com.dishly.app.projection.UserIndexRow;
+import com.dishly.app.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Índice en memoria de usuarios por username y nombre completo. Un usuario matchea
+ * si cualquiera de los dos campos contiene el término; los ids salen en orden
+ * descendente para paginar por cursor como el resto de los listados.
+ */
+@Service
+public class UserSearchIndexService {
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndexService.class);
+
+    private final UserRepository userRepo;
+
+    private volatile Index index;
+
+    public UserSearchIndexService(UserRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    /* ---------- Carga ---------- */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Index fresh = new Index();
+        for (UserIndexRow row : userRepo.findAllIndexRows()) {
+            fresh.put(row.getId(), SearchText.normalize(row.getUsername()), SearchText.normalize(row.getFullName()));
+        }
+        this.index = fresh;
+        log.info("User search index built: {} users in {} ms", fresh.all.size(), System.currentTimeMillis() - start);
+    }
+
+    private Index index() {
+        Index current = index;
+        if (current != null) return current;
+        synchronized (this) {
+            if (index == null) rebuild();
+            return index;
+        }
+    }
+
+    /* ---------- Escrituras ---------- */
+
+    public void indexAfterCommit(UserModel user) {
+        if (user.getId() == null) return;
+        Long id = user.getId();
+        String username = SearchText.normalize(user.getUsername());
+        String fullName = SearchText.normalize(user.getFullName());
+        AfterCommit.run(() -> apply(id, username, fullName, false));
+    }
+
+    public void removeAfterCommit(Long userId) {
+        AfterCommit.run(() -> apply(userId, null, null, true));
+    }
+
+    private synchronized void apply(Long id, String username, String fullName, boolean remove) {
+        Index current = index;
+        if (current == null) return;
+        current.remove(id);
+        if (!remove) current.put(id, username, fullName);
+    }
+
+    /* ---------- Lectura ---------- */
+
+    /** Hasta {@code max} ids menores que el cursor cuyo username o nombre contiene {@code term}. */
+    public List<Long> search(String term, Long cursorId, int max) {
+        String query = SearchText.normalize(term);
+        if (query.isEmpty() || max <= 0) return List.of();
+
+        Index idx = index();
+        List<Long> byUsername = IdPostings.intersect(idx.all, idx.usernames.postings(query), cursorId, max,
+                id -> idx.usernames.matches(id, query));
+        List<Long> byFullName = IdPostings.intersect(idx.all, idx.fullNames.postings(query), cursorId, max,
+                id -> idx.fullNames.matches(id, query));
+        return mergeDescending(byUsername, byFullName, max);
+    }
+
+    /** Une dos listas descendentes sin repetidos, cortando en {@code max}. */
+    private static List<Long> mergeDescending(List<Long> a, List<Long> b, int max) {
+        List<Long> out = new ArrayList<>(Math.min(max, a.size() + b.size()));
+        int i = 0, j = 0;
+        while (out.size() < max && (i < a.size() || j < b.size())) {
+            long next;
+            if (j >= b.size() || (i < a.size() && a.get(i) >= b.get(j))) {
+                next = a.get(i++);
+                if (j < b.size() && b.get(j) == next) j++;
+            } else {
+                next = b.get(j++);
+            }
+            out.add(next);
+        }
+        return out;
+    }
+
+    private static final class Index {
+        final IdPostings all = new IdPostings();
+        final TextIndex usernames = new TextIndex();
+        final TextIndex fullNames = new TextIndex();
+
+        void put(long id, String username, String fullName) {
+            all.add(id);
+            usernames.put(id, username);
+            fullNames.put(id, fullName);
+        }
+
+        void remove(long id) {
+            all.remove(id);
+            usernames.remove(id);
+            fullNames.remove(id);
+        }
+    }
+}
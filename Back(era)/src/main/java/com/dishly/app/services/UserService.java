@@ -9,6 +9,8 @@ import com.dishly.app.dto.userdto.UpdateRequest;
 import com.dishly.app.dto.userdto.UserUpdateResponseDTO;
 import com.dishly.app.models.IngredientModel;
 import com.dishly.app.models.UserModel;
+import com.dishly.app.projection.FollowPageRow;
+import com.dishly.app.projection.UserSummaryRow;
 import com.dishly.app.dto.UserPublicDTO;
 import com.dishly.app.repositories.IngredientRepository;
 import com.dishly.app.repositories.MealPrepRepository;
@@ -18,6 +20,7 @@ import com.dishly.app.security.JwtUtil;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,14 +30,25 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Comparator;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class UserService implements UserDetailsService {
 
+    /** Tope de resultados por página en la búsqueda de usuarios. */
+    public static final int MAX_SEARCH_RESULTS = 50;
+
     @Autowired
     private UserRepository repository;
 
@@ -56,6 +70,21 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder encoder;
 
+    @Autowired
+    private UserSearchIndexService searchIndex;
+
+    @Autowired
+    private UndesiredIngredientCacheService undesiredCache;
+
+    @Autowired
+    private FollowGraphService followGraph;
+
+    @Autowired
+    private AuthorSummaryCacheService authorCache;
+
+    @Autowired
+    private ImageStoreService images;
+
     public UserModel register(RegisterRequest req) {
         if (repository.existsByUsername(req.username())) {
             throw new IllegalArgumentException("This username is already taken");
@@ -69,7 +98,9 @@ public class UserService implements UserDetailsService {
         user.setUsername(req.username());
         user.setPassword(encoder.encode(req.password())); // ¡encriptado!
         user.setEmail(req.email());
-        return repository.save(user);
+        UserModel saved = repository.save(user);
+        searchIndex.indexAfterCommit(saved);
+        return saved;
     }
 
     public UserModel resolveOrCreateGoogleUser(String email, String name, String googleId) {
@@ -93,6 +124,8 @@ public class UserService implements UserDetailsService {
                 user.setUsername(generateAvailableUsername(email));
             }
             repository.save(user);
+            searchIndex.indexAfterCommit(user);
+            authorCache.invalidateAfterCommit(user.getId());
             return user;
         }
 
@@ -104,7 +137,9 @@ public class UserService implements UserDetailsService {
         if (name != null && !name.isBlank()) {
             user.setFullName(name);
         }
-        return repository.save(user);
+        UserModel saved = repository.save(user);
+        searchIndex.indexAfterCommit(saved);
+        return saved;
     }
 
     public List<UserModel> getAll() {
@@ -146,6 +181,10 @@ public class UserService implements UserDetailsService {
 
     public void delete(Long id) {
         repository.deleteById(id);
+        searchIndex.removeAfterCommit(id);
+        undesiredCache.forgetAfterCommit(id);
+        authorCache.invalidateAfterCommit(id);
+        followGraph.removeUserAfterCommit(id);
     }
 
 
@@ -178,6 +217,8 @@ public class UserService implements UserDetailsService {
             String alias = email.substring(0, email.indexOf('@'));
             u.setUsername(alias);
             repository.save(u);          // ←  lo corrige “en caliente”
+            searchIndex.indexAfterCommit(u);
+            authorCache.invalidateAfterCommit(u.getId());
         }
         /* ───────────────────────────────────────────────────────────── */
 
@@ -191,8 +232,11 @@ public class UserService implements UserDetailsService {
     public UserProfileDTO updatePhoto(String email, String photoBase64) {
         UserModel user = repository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + email));
-        user.setPhoto(photoBase64);  // asumo que UserModel tiene setPhoto()
+        // La foto va al blob store; la entidad sólo guarda el hash
+        user.setPhotoHash(images.resolve(photoBase64));
+        user.setPhoto(null);
         repository.save(user);
+        authorCache.invalidateAfterCommit(user.getId());
         return toProfileDTO(user);
     }
 
@@ -203,6 +247,10 @@ public class UserService implements UserDetailsService {
         UserModel user = repository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + email));
         repository.delete(user);
+        searchIndex.removeAfterCommit(user.getId());
+        undesiredCache.forgetAfterCommit(email, user.getId());
+        authorCache.invalidateAfterCommit(user.getId());
+        followGraph.removeUserAfterCommit(user.getId());
     }
 
     /**
@@ -240,12 +288,15 @@ public class UserService implements UserDetailsService {
         }
 
         if (req.photo() != null && !req.photo().isBlank()) {
-            user.setPhoto(req.photo());
+            user.setPhotoHash(images.resolve(req.photo()));
+            user.setPhoto(null);
             changed = true;
         }
 
         if (changed) {
             repository.save(user);
+            searchIndex.indexAfterCommit(user);
+            authorCache.invalidateAfterCommit(user.getId());
         }
 
         String token = jwtUtil.generateToken(user.getEmail(), user.getUsername());
@@ -255,82 +306,157 @@ public class UserService implements UserDetailsService {
 
     @Transactional(readOnly = true)
     public Page<IngredientModel> getUndesiredIngredients(Long userId, Pageable pageable) {
-        List<IngredientModel> all = repository.findById(userId)
-                .map(UserModel::getUndesiredIngredients)
-                .orElse(List.of());
-
-        int start = (int) pageable.getOffset();
-        int end   = Math.min(start + pageable.getPageSize(), all.size());
-
-        List<IngredientModel> sub = (start >= all.size()) ? List.of() : all.subList(start, end);
-
-        return new PageImpl<>(sub, pageable, all.size());
+        return repository.findUndesiredIngredients(userId, pageable);
     }
 
+    @Transactional
     public void addUndesiredIngredient(Long username, Long ingredientId) {
-        UserModel user = repository.findById(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-        System.out.println("Adding ingredient ID: " + ingredientId + " to user: " + user);
-        IngredientModel ingredient = ingredientRepository.findById(ingredientId)
-                .orElseThrow(() -> new IllegalArgumentException("Ingredient not found with ID: " + ingredientId));
-        System.out.println("Found ingredient: " + ingredient.getName());
-        if (!user.getUndesiredIngredients().contains(ingredient)) {
-            user.getUndesiredIngredients().add(ingredient);
-            repository.save(user);
+        if (!repository.existsById(username)) {
+            throw new IllegalArgumentException("User not found: " + username);
+        }
+        if (!ingredientRepository.existsById(ingredientId)) {
+            throw new IllegalArgumentException("Ingredient not found with ID: " + ingredientId);
+        }
+        // Una fila en undesired_ingredients; la colección del usuario no se carga
+        if (repository.addUndesiredIngredient(username, ingredientId) > 0) {
+            undesiredCache.invalidateAfterCommit(username);
         }
     }
 
 
+    @Transactional
     public void removeUndesiredIngredient(Long username, Long ingredientId) {
-        UserModel user = repository.findById(username).orElseThrow();
-        user.getUndesiredIngredients().removeIf(i -> i.getId().equals(ingredientId));
-        repository.save(user);
+        if (repository.removeUndesiredIngredient(username, ingredientId) > 0) {
+            undesiredCache.invalidateAfterCommit(username);
+        }
+    }
+
+    /** Deja exactamente {@code ingredientIds} como no deseados del usuario. */
+    @Transactional
+    public void replaceUndesiredIngredients(Long userId, Collection<Long> ingredientIds) {
+        Set<Long> wanted = ingredientIds == null ? Set.of() : ingredientIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        if (!wanted.isEmpty()) {
+            Set<Long> missing = new LinkedHashSet<>(wanted);
+            RecipeDTOAssembler.inChunks(wanted, ingredientRepository::findExistingIds).forEach(missing::remove);
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Ingredients not found with IDs: " + missing);
+            }
+        }
+
+        int changed;
+        if (wanted.isEmpty()) {
+            changed = repository.clearUndesiredIngredients(userId);
+        } else {
+            // Sólo la diferencia con lo guardado, en lotes de IN acotados
+            Set<Long> current = new HashSet<>(repository.findUndesiredIngredientIds(userId));
+            Set<Long> toRemove = new LinkedHashSet<>(current);
+            toRemove.removeAll(wanted);
+            Set<Long> toAdd = new LinkedHashSet<>(wanted);
+            toAdd.removeAll(current);
+            changed = sum(RecipeDTOAssembler.inChunks(toRemove,
+                            ids -> List.of(repository.removeUndesiredIngredientsIn(userId, ids))))
+                    + sum(RecipeDTOAssembler.inChunks(toAdd,
+                            ids -> List.of(repository.addUndesiredIngredients(userId, ids))));
+        }
+        if (changed > 0) {
+            undesiredCache.invalidateAfterCommit(userId);
+        }
+    }
+
+    private static int sum(List<Integer> counts) {
+        return counts.stream().mapToInt(Integer::intValue).sum();
     }
 
 
+    @Transactional
     public void follow(String email, Long targetId) {
-        UserModel user = getByEmail(email).orElseThrow(() -> new EntityNotFoundException("User not found with email: " + email));
-        UserModel target = getById(targetId).orElseThrow();
-        if (!target.getFollowers().contains(user)) {
-            target.getFollowers().add(user);
-            repository.save(target);
+        Long userId = requireIdByEmail(email);
+        requireUser(targetId);
+        // Una fila en user_followers; no se inicializa la colección de seguidores del destino
+        if (!followGraph.isFollowing(userId, targetId) && repository.addFollower(targetId, userId) > 0) {
+            followGraph.followAfterCommit(userId, targetId);
         }
     }
 
+    @Transactional
     public void unfollow(String email, Long targetId) {
-        UserModel user = getByEmail(email).orElseThrow(() -> new EntityNotFoundException("User not found with email: " + email));
-        UserModel target = getById(targetId).orElseThrow();
-        target.getFollowers().remove(user);
-        repository.save(target);
+        Long userId = requireIdByEmail(email);
+        requireUser(targetId);
+        if (repository.removeFollower(targetId, userId) > 0) {
+            followGraph.unfollowAfterCommit(userId, targetId);
+        }
     }
 
+    @Transactional(readOnly = true)
     public List<UserProfileDTO> getFollowers(Long userId, String requesterEmail) {
-        UserModel requester = getByEmail(requesterEmail).orElseThrow();
-        return repository.findById(userId)
-                .orElseThrow()
-                .getFollowers()
-                .stream()
-                .map(u -> toProfileDTO(u, requester))
-                .toList();
+        Long requesterId = getIdByEmail(requesterEmail);
+        requireUser(userId);
+        return findSummariesInOrder(descending(followGraph.followerIds(userId)), requesterId);
     }
 
+    @Transactional(readOnly = true)
     public List<UserProfileDTO> getFollowing(Long userId, String requesterEmail) {
-        UserModel requester = getByEmail(requesterEmail).orElseThrow();
-        return repository.findById(userId)
-                .orElseThrow()
-                .getFollowing()
-                .stream()
-                .map(u -> toProfileDTO(u, requester))
-                .toList();
+        Long requesterId = getIdByEmail(requesterEmail);
+        requireUser(userId);
+        return findSummariesInOrder(descending(followGraph.followingIds(userId)), requesterId);
+    }
+
+    private void requireUser(Long userId) {
+        if (!repository.existsById(userId)) {
+            throw new EntityNotFoundException("User not found with id: " + userId);
+        }
+    }
+
+    private static List<Long> descending(long[] ascendingIds) {
+        List<Long> out = new ArrayList<>(ascendingIds.length);
+        for (int i = ascendingIds.length - 1; i >= 0; i--) out.add(ascendingIds[i]);
+        return out;
     }
 
 
 
+    /** Primera página de la búsqueda, acotada a {@link #MAX_SEARCH_RESULTS}. */
+    @Transactional(readOnly = true)
     public List<UserProfileDTO> searchUsers(String term, String requesterEmail) {
-        UserModel requester = getByEmail(requesterEmail).orElseThrow();
-        return repository.findAll().stream()
-                .filter(u -> u.getUsername().toLowerCase().contains(term.toLowerCase()))
-                .map(u -> toProfileDTO(u, requester))
+        return searchUsersByCursor(term, requesterEmail, null, MAX_SEARCH_RESULTS).items();
+    }
+
+    /**
+     * Búsqueda por username o nombre completo: el índice en memoria resuelve qué ids van
+     * en la página y una sola consulta trae esas filas con sus contadores.
+     */
+    @Transactional(readOnly = true)
+    public PagedResponse<UserProfileDTO> searchUsersByCursor(String term, String requesterEmail, String cursor, int limit) {
+        Long requesterId = getIdByEmail(requesterEmail);
+        int safeLimit = Math.min(limit > 0 ? limit : 10, MAX_SEARCH_RESULTS);
+        Long cursorId = (cursor == null || cursor.isBlank()) ? null : Long.parseLong(cursor);
+
+        List<Long> ids = searchIndex.search(term, cursorId, safeLimit + 1);
+        boolean hasNext = ids.size() > safeLimit;
+        List<Long> pageIds = hasNext ? ids.subList(0, safeLimit) : ids;
+
+        List<UserProfileDTO> items = findSummariesInOrder(pageIds, requesterId);
+        String nextCursor = hasNext && !pageIds.isEmpty()
+                ? String.valueOf(pageIds.get(pageIds.size() - 1))
+                : null;
+
+        return new PagedResponse<>(items, nextCursor, hasNext);
+    }
+
+    /** Filas de {@code ids} en ese orden, con contadores y "lo sigo" tomados del grafo. */
+    private List<UserProfileDTO> findSummariesInOrder(List<Long> ids, Long requesterId) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, UserSummaryRow> byId = new HashMap<>();
+        for (UserSummaryRow row : RecipeDTOAssembler.inChunks(new LinkedHashSet<>(ids), repository::findSummariesByIdIn)) {
+            byId.put(row.getId(), row);
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(row -> toProfileDTO(row, requesterId))
                 .toList();
     }
 
@@ -343,10 +469,10 @@ public class UserService implements UserDetailsService {
     public PagedResponse<RecipeResponseDTO> getPublicRecipesByUsernameCursor(String username, String cursor, int limit, String requesterEmail) {
         UserModel target = repository.findByUsername(username)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with username: " + username));
-        java.util.Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(requesterEmail);
+        IngredientBitmap undesired = undesiredCache.forEmail(requesterEmail);
 
         int safeLimit = limit > 0 ? limit : 10;
-        Pageable pageable = org.springframework.data.domain.PageRequest.of(0, safeLimit + 1);
+        Pageable pageable = PageRequest.of(0, safeLimit + 1);
 
         List<com.dishly.app.models.RecipeModel> models;
         if (cursor == null || cursor.isBlank()) {
@@ -359,7 +485,7 @@ public class UserService implements UserDetailsService {
         boolean hasNext = models.size() > safeLimit;
         List<com.dishly.app.models.RecipeModel> pageModels = hasNext ? models.subList(0, safeLimit) : models;
 
-        List<RecipeResponseDTO> items = pageModels.stream().map(m -> recipeService.toDTO(m, undesiredIngredientIds)).toList();
+        List<RecipeResponseDTO> items = recipeService.toDTOs(pageModels, undesired);
         String nextCursor = hasNext && !items.isEmpty()
                 ? String.valueOf(items.get(items.size() - 1).id())
                 : null;
@@ -376,10 +502,10 @@ public class UserService implements UserDetailsService {
     public PagedResponse<MealPrepResponseDTO> getPublicMealPrepsByUsernameCursor(String username, String cursor, int limit, String requesterEmail) {
         UserModel target = repository.findByUsername(username)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with username: " + username));
-        java.util.Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(requesterEmail);
+        IngredientBitmap undesired = undesiredCache.forEmail(requesterEmail);
 
         int safeLimit = limit > 0 ? limit : 10;
-        Pageable pageable = org.springframework.data.domain.PageRequest.of(0, safeLimit + 1);
+        Pageable pageable = PageRequest.of(0, safeLimit + 1);
 
         List<com.dishly.app.models.MealPrepModel> models;
         if (cursor == null || cursor.isBlank()) {
@@ -392,7 +518,7 @@ public class UserService implements UserDetailsService {
         boolean hasNext = models.size() > safeLimit;
         List<com.dishly.app.models.MealPrepModel> pageModels = hasNext ? models.subList(0, safeLimit) : models;
 
-        List<MealPrepResponseDTO> items = pageModels.stream().map(m -> mealPrepService.toDTO(m, undesiredIngredientIds)).toList();
+        List<MealPrepResponseDTO> items = mealPrepService.toDTOs(pageModels, undesired);
         String nextCursor = hasNext && !items.isEmpty()
                 ? String.valueOf(items.get(items.size() - 1).id())
                 : null;
@@ -407,9 +533,9 @@ public class UserService implements UserDetailsService {
 
     @Transactional(readOnly = true)
     public PagedResponse<RecipeResponseDTO> getPublicRecipesByUserIdCursor(Long userId, String cursor, int limit, String requesterEmail) {
-        java.util.Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(requesterEmail);
+        IngredientBitmap undesired = undesiredCache.forEmail(requesterEmail);
         int safeLimit = limit > 0 ? limit : 10;
-        Pageable pageable = org.springframework.data.domain.PageRequest.of(0, safeLimit + 1);
+        Pageable pageable = PageRequest.of(0, safeLimit + 1);
 
         List<com.dishly.app.models.RecipeModel> models;
         if (cursor == null || cursor.isBlank()) {
@@ -422,7 +548,7 @@ public class UserService implements UserDetailsService {
         boolean hasNext = models.size() > safeLimit;
         List<com.dishly.app.models.RecipeModel> pageModels = hasNext ? models.subList(0, safeLimit) : models;
 
-        List<RecipeResponseDTO> items = pageModels.stream().map(m -> recipeService.toDTO(m, undesiredIngredientIds)).toList();
+        List<RecipeResponseDTO> items = recipeService.toDTOs(pageModels, undesired);
         String nextCursor = hasNext && !items.isEmpty()
                 ? String.valueOf(items.get(items.size() - 1).id())
                 : null;
@@ -437,9 +563,9 @@ public class UserService implements UserDetailsService {
 
     @Transactional(readOnly = true)
     public PagedResponse<MealPrepResponseDTO> getPublicMealPrepsByUserIdCursor(Long userId, String cursor, int limit, String requesterEmail) {
-        java.util.Set<Long> undesiredIngredientIds = getUndesiredIngredientIds(requesterEmail);
+        IngredientBitmap undesired = undesiredCache.forEmail(requesterEmail);
         int safeLimit = limit > 0 ? limit : 10;
-        Pageable pageable = org.springframework.data.domain.PageRequest.of(0, safeLimit + 1);
+        Pageable pageable = PageRequest.of(0, safeLimit + 1);
 
         List<com.dishly.app.models.MealPrepModel> models;
         if (cursor == null || cursor.isBlank()) {
@@ -452,7 +578,7 @@ public class UserService implements UserDetailsService {
         boolean hasNext = models.size() > safeLimit;
         List<com.dishly.app.models.MealPrepModel> pageModels = hasNext ? models.subList(0, safeLimit) : models;
 
-        List<MealPrepResponseDTO> items = pageModels.stream().map(m -> mealPrepService.toDTO(m, undesiredIngredientIds)).toList();
+        List<MealPrepResponseDTO> items = mealPrepService.toDTOs(pageModels, undesired);
         String nextCursor = hasNext && !items.isEmpty()
                 ? String.valueOf(items.get(items.size() - 1).id())
                 : null;
@@ -460,53 +586,61 @@ public class UserService implements UserDetailsService {
         return new PagedResponse<>(items, nextCursor, hasNext);
     }
 
-    private java.util.Set<Long> getUndesiredIngredientIds(String email) {
-        if (email == null || email.isBlank()) return java.util.Set.of();
-        return repository.findByEmail(email)
-                .map(u -> u.getUndesiredIngredients().stream()
-                        .map(IngredientModel::getId)
-                        .collect(java.util.stream.Collectors.toSet()))
-                .orElse(java.util.Set.of());
-    }
-
     @Transactional(readOnly = true)
     public PagedResponse<UserProfileDTO> getMyFollowersByCursor(String myEmail, String cursor, int limit) {
-        UserModel me = getByEmail(myEmail).orElseThrow(() -> new EntityNotFoundException("User not found with email: " + myEmail));
-        Long cursorId = (cursor == null || cursor.isBlank()) ? null : Long.parseLong(cursor);
-        int safeLimit = limit > 0 ? limit : 10;
-
-        List<UserModel> filtered = me.getFollowers().stream()
-                .filter(u -> cursorId == null || u.getId() < cursorId)
-                .sorted(Comparator.comparing(UserModel::getId).reversed())
-                .limit((long) safeLimit + 1)
-                .toList();
-
-        boolean hasNext = filtered.size() > safeLimit;
-        List<UserModel> pageModels = hasNext ? filtered.subList(0, safeLimit) : filtered;
-        List<UserProfileDTO> items = pageModels.stream().map(u -> toProfileDTO(u, me)).toList();
+        Long myId = requireIdByEmail(myEmail);
+        return followPage(true, myId, myId, cursor, limit);
+    }
 
-        String nextCursor = hasNext && !items.isEmpty()
-                ? String.valueOf(items.get(items.size() - 1).id())
-                : null;
+    @Transactional(readOnly = true)
+    public PagedResponse<UserProfileDTO> getMyFollowingByCursor(String myEmail, String cursor, int limit) {
+        Long myId = requireIdByEmail(myEmail);
+        return followPage(false, myId, myId, cursor, limit);
+    }
 
-        return new PagedResponse<>(items, nextCursor, hasNext);
+    @Transactional(readOnly = true)
+    public PagedResponse<UserProfileDTO> getFollowersByCursor(Long userId, String requesterEmail, String cursor, int limit) {
+        Long requesterId = requireIdByEmail(requesterEmail);
+        requireUser(userId);
+        return followPage(true, userId, requesterId, cursor, limit);
     }
 
     @Transactional(readOnly = true)
-    public PagedResponse<UserProfileDTO> getMyFollowingByCursor(String myEmail, String cursor, int limit) {
-        UserModel me = getByEmail(myEmail).orElseThrow(() -> new EntityNotFoundException("User not found with email: " + myEmail));
-        Long cursorId = (cursor == null || cursor.isBlank()) ? null : Long.parseLong(cursor);
+    public PagedResponse<UserProfileDTO> getFollowingByCursor(Long userId, String requesterEmail, String cursor, int limit) {
+        Long requesterId = requireIdByEmail(requesterEmail);
+        requireUser(userId);
+        return followPage(false, userId, requesterId, cursor, limit);
+    }
+
+    /**
+     * Página de seguidores ({@code followers}) o seguidos de {@code userId} por keyset sobre
+     * user_followers, con "lo sigo" de {@code requesterId} en la misma consulta.
+     */
+    private PagedResponse<UserProfileDTO> followPage(boolean followers, Long userId, Long requesterId,
+                                                     String cursor, int limit) {
         int safeLimit = limit > 0 ? limit : 10;
+        Pageable pageable = PageRequest.of(0, safeLimit + 1);
+        Long cursorId = (cursor == null || cursor.isBlank()) ? null : Long.parseLong(cursor);
 
-        List<UserModel> filtered = me.getFollowing().stream()
-                .filter(u -> cursorId == null || u.getId() < cursorId)
-                .sorted(Comparator.comparing(UserModel::getId).reversed())
-                .limit((long) safeLimit + 1)
-                .toList();
+        List<FollowPageRow> rows;
+        if (followers) {
+            rows = cursorId == null
+                    ? repository.findFollowersPage(userId, requesterId, pageable)
+                    : repository.findFollowersPageBefore(userId, requesterId, cursorId, pageable);
+        } else {
+            rows = cursorId == null
+                    ? repository.findFollowingPage(userId, requesterId, pageable)
+                    : repository.findFollowingPageBefore(userId, requesterId, cursorId, pageable);
+        }
 
-        boolean hasNext = filtered.size() > safeLimit;
-        List<UserModel> pageModels = hasNext ? filtered.subList(0, safeLimit) : filtered;
-        List<UserProfileDTO> items = pageModels.stream().map(u -> toProfileDTO(u, me)).toList();
+        boolean hasNext = rows.size() > safeLimit;
+        List<FollowPageRow> pageRows = hasNext ? rows.subList(0, safeLimit) : rows;
+        List<UserProfileDTO> items = pageRows.stream()
+                .map(row -> new UserProfileDTO(row.getId(), alias(row.getUsername(), row.getEmail()), row.getFullName(),
+                        images.urlOr(row.getPhotoHash(), ImageVariant.AVATAR, row.getPhoto()),
+                        row.getFollowedByMe() != null && row.getFollowedByMe() > 0,
+                        followGraph.followerCount(row.getId()), followGraph.followingCount(row.getId())))
+                .toList();
 
         String nextCursor = hasNext && !items.isEmpty()
                 ? String.valueOf(items.get(items.size() - 1).id())
@@ -515,13 +649,18 @@ public class UserService implements UserDetailsService {
         return new PagedResponse<>(items, nextCursor, hasNext);
     }
 
+    private Long requireIdByEmail(String email) {
+        return repository.findIdByEmail(email)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with email: " + email));
+    }
+
 
     @Transactional
     public UserPublicDTO getPublicProfile(Long userId, String myEmail) {
         UserModel target = getById(userId).orElseThrow(() -> new EntityNotFoundException("User not found with id: " + userId));;
         UserModel me = getByEmail(myEmail).orElseThrow(() -> new EntityNotFoundException("User not found with email: " + myEmail));
 
-        boolean followedByMe = target.getFollowers().contains(me);
+        boolean followedByMe = followGraph.isFollowing(me.getId(), target.getId());
 
         List<RecipeResponseDTO> publicRecipes = List.of();
 
@@ -531,9 +670,9 @@ public class UserService implements UserDetailsService {
                 target.getId(),
                 target.getUsername(),
                 target.getFullName(),
-                target.getPhoto(),
-                target.getFollowers().size(),
-                target.getFollowing().size(),
+                images.urlOr(target.getPhotoHash(), ImageVariant.DETAIL, target.getPhoto()),
+                followGraph.followerCount(target.getId()),
+                followGraph.followingCount(target.getId()),
                 publicRecipes,
                 publicMealPreps,
                 followedByMe
@@ -541,9 +680,10 @@ public class UserService implements UserDetailsService {
     }
 
     public UserProfileDTO toProfileDTO(UserModel user, UserModel me) {
-        boolean followed = me.getFollowing().contains(user);
-        return new UserProfileDTO(user.getId(), user.getUsername(), user.getFullName(), user.getPhoto(), followed,
-                user.getFollowers().size(), user.getFollowing().size());
+        boolean followed = followGraph.isFollowing(me.getId(), user.getId());
+        return new UserProfileDTO(user.getId(), user.getUsername(), user.getFullName(),
+                images.urlOr(user.getPhotoHash(), ImageVariant.AVATAR, user.getPhoto()), followed,
+                followGraph.followerCount(user.getId()), followGraph.followingCount(user.getId()));
     }
 
 
@@ -551,21 +691,30 @@ public class UserService implements UserDetailsService {
 
     // ==== Helper para mapear a DTO ====
 
-    private UserProfileDTO toProfileDTO(UserModel u) {
-        String alias = u.getUsername();
-        if (alias == null || alias.isBlank() || alias.contains("@")) {
-            alias = u.getEmail().substring(0, u.getEmail().indexOf('@'));
-        }
+    private UserProfileDTO toProfileDTO(UserSummaryRow row, Long requesterId) {
+        return new UserProfileDTO(row.getId(), alias(row.getUsername(), row.getEmail()), row.getFullName(),
+                images.urlOr(row.getPhotoHash(), ImageVariant.AVATAR, row.getPhoto()),
+                followGraph.isFollowing(requesterId, row.getId()),
+                followGraph.followerCount(row.getId()), followGraph.followingCount(row.getId()));
+    }
 
+    private UserProfileDTO toProfileDTO(UserModel u) {
         return new UserProfileDTO(
                 u.getId(),
-                alias,
+                alias(u.getUsername(), u.getEmail()),
                 u.getFullName(),
-                u.getPhoto(),
+                images.urlOr(u.getPhotoHash(), ImageVariant.DETAIL, u.getPhoto()),
                 false,
-                u.getFollowers().size(),
-                u.getFollowing().size()
+                followGraph.followerCount(u.getId()),
+                followGraph.followingCount(u.getId())
         );
     }
 
+    /** Username a mostrar: el prefijo del email si el username falta o quedó con el email entero. */
+    private static String alias(String username, String email) {
+        if (username != null && !username.isBlank() && !username.contains("@")) return username;
+        if (email == null || email.indexOf('@') < 0) return username;
+        return email.substring(0, email.indexOf('@'));
+    }
+
 }
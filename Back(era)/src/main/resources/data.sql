@@ -1,3 +1,20 @@
+-- Filas repetidas de antes de uk_undesired_ingredients_user_ingredient: sin esto la restricción
+-- no se puede crear. Hibernate la vuelve a intentar en el próximo arranque (ddl-auto=update)
+DELETE FROM undesired_ingredients a USING undesired_ingredients b
+WHERE a.ctid < b.ctid AND a.user_id = b.user_id AND a.ingredient_id = b.ingredient_id;
+
+-- Aristas repetidas de antes de uk_user_followers_user_follower: sin esto la restricción no se
+-- puede crear. Hibernate la vuelve a intentar en el próximo arranque (ddl-auto=update)
+DELETE FROM user_followers a USING user_followers b
+WHERE a.ctid < b.ctid AND a.user_id = b.user_id AND a.follower_id = b.follower_id;
+
+-- Pasos guardados antes de recipe_steps.step_index: se numeran en el orden en que están en la
+-- tabla, que es en el que se insertaron y se leían. Sin índice Hibernate no puede cargar la lista
+UPDATE recipe_steps s SET step_index = n.pos
+FROM  (SELECT ctid, ROW_NUMBER() OVER (PARTITION BY recipe_id ORDER BY ctid) - 1 AS pos
+       FROM recipe_steps) n
+WHERE s.ctid = n.ctid AND s.step_index IS NULL;
+
 INSERT INTO ingredients (name) VALUES ('Salt');
 INSERT INTO ingredients (name) VALUES ('Olive oil');
 INSERT INTO ingredients (name) VALUES ('Garlic');
@@ -0,0 +1,112 @@
+-- Búsqueda full-text y por trigramas en PostgreSQL (app.search.backend=postgres).
+-- Se ejecuta en cada arranque y es idempotente. Las sentencias terminan en ";;"
+-- porque los cuerpos de las funciones llevan ";" adentro.
+
+CREATE EXTENSION IF NOT EXISTS unaccent;;
+
+-- Configuración en español que además ignora acentos ("atun" encuentra "Atún")
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'dishly_es') THEN
+        CREATE TEXT SEARCH CONFIGURATION dishly_es (COPY = spanish);
+        ALTER TEXT SEARCH CONFIGURATION dishly_es
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, spanish_stem;
+    END IF;
+END
+$$;;
+
+ALTER TABLE recipes    ADD COLUMN IF NOT EXISTS search_vector tsvector;;
+ALTER TABLE meal_preps ADD COLUMN IF NOT EXISTS search_vector tsvector;;
+
+CREATE INDEX IF NOT EXISTS idx_recipes_search_vector    ON recipes    USING GIN (search_vector);;
+CREATE INDEX IF NOT EXISTS idx_meal_preps_search_vector ON meal_preps USING GIN (search_vector);;
+
+-- ---------- Ingredientes: trigramas sobre el nombre sin acentos (búsqueda aproximada) ----------
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;;
+
+CREATE OR REPLACE FUNCTION dishly_fold(text) RETURNS text AS $$
+    SELECT lower(public.unaccent('public.unaccent'::regdictionary, $1))
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT;;
+
+CREATE INDEX IF NOT EXISTS idx_ingredients_name_trgm ON ingredients USING GIN (dishly_fold(name) gin_trgm_ops);;
+
+-- ---------- Recetas: nombre (A), ingredientes (B), autor (C), descripción (D) ----------
+
+CREATE OR REPLACE FUNCTION dishly_recipes_search_vector() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+           setweight(to_tsvector('dishly_es', coalesce(NEW.name, '')), 'A')
+        || setweight(to_tsvector('dishly_es', coalesce((
+               SELECT string_agg(i.name, ' ')
+               FROM   recipe_ingredients ri
+               JOIN   ingredients i ON i.id = ri.ingredient_id
+               WHERE  ri.recipe_id = NEW.id), '')), 'B')
+        || setweight(to_tsvector('dishly_es', coalesce(NEW.author, '')), 'C')
+        || setweight(to_tsvector('dishly_es', coalesce(NEW.description, '')), 'D');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;;
+
+DROP TRIGGER IF EXISTS recipes_search_vector ON recipes;;
+CREATE TRIGGER recipes_search_vector
+    BEFORE INSERT OR UPDATE ON recipes
+    FOR EACH ROW EXECUTE FUNCTION dishly_recipes_search_vector();;
+
+-- ---------- Meal preps: nombre (A), ingredientes de sus recetas (B), autor (C), descripción (D) ----------
+
+CREATE OR REPLACE FUNCTION dishly_meal_preps_search_vector() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+           setweight(to_tsvector('dishly_es', coalesce(NEW.name, '')), 'A')
+        || setweight(to_tsvector('dishly_es', coalesce((
+               SELECT string_agg(i.name, ' ')
+               FROM   meal_prep_recipes mpr
+               JOIN   recipe_ingredients ri ON ri.recipe_id = mpr.recipe_id
+               JOIN   ingredients i ON i.id = ri.ingredient_id
+               WHERE  mpr.meal_prep_id = NEW.id), '')), 'B')
+        || setweight(to_tsvector('dishly_es', coalesce(NEW.author, '')), 'C')
+        || setweight(to_tsvector('dishly_es', coalesce(NEW.description, '')), 'D');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;;
+
+DROP TRIGGER IF EXISTS meal_preps_search_vector ON meal_preps;;
+CREATE TRIGGER meal_preps_search_vector
+    BEFORE INSERT OR UPDATE ON meal_preps
+    FOR EACH ROW EXECUTE FUNCTION dishly_meal_preps_search_vector();;
+
+-- ---------- Cambios en las tablas de relación: se fuerza el recálculo del padre ----------
+
+CREATE OR REPLACE FUNCTION dishly_recipe_ingredients_touch() RETURNS trigger AS $$
+DECLARE
+    rid BIGINT := CASE WHEN TG_OP = 'DELETE' THEN OLD.recipe_id ELSE NEW.recipe_id END;
+BEGIN
+    UPDATE recipes    SET search_vector = NULL WHERE id = rid;
+    UPDATE meal_preps SET search_vector = NULL
+    WHERE  id IN (SELECT meal_prep_id FROM meal_prep_recipes WHERE recipe_id = rid);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;;
+
+DROP TRIGGER IF EXISTS recipe_ingredients_search_touch ON recipe_ingredients;;
+CREATE TRIGGER recipe_ingredients_search_touch
+    AFTER INSERT OR UPDATE OR DELETE ON recipe_ingredients
+    FOR EACH ROW EXECUTE FUNCTION dishly_recipe_ingredients_touch();;
+
+CREATE OR REPLACE FUNCTION dishly_meal_prep_recipes_touch() RETURNS trigger AS $$
+BEGIN
+    UPDATE meal_preps SET search_vector = NULL
+    WHERE  id = CASE WHEN TG_OP = 'DELETE' THEN OLD.meal_prep_id ELSE NEW.meal_prep_id END;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;;
+
+DROP TRIGGER IF EXISTS meal_prep_recipes_search_touch ON meal_prep_recipes;;
+CREATE TRIGGER meal_prep_recipes_search_touch
+    AFTER INSERT OR UPDATE OR DELETE ON meal_prep_recipes
+    FOR EACH ROW EXECUTE FUNCTION dishly_meal_prep_recipes_touch();;
+
+-- Backfill de filas que todavía no tienen vector (el trigger lo calcula)
+UPDATE recipes    SET search_vector = NULL WHERE search_vector IS NULL;;
+UPDATE meal_preps SET search_vector = NULL WHERE search_vector IS NULL;;
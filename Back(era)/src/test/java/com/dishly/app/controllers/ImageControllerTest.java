@@ -0,0 +1,124 @@
+package com.dishly.app.controllers;
+
+import com.dishly.app.exceptions.RestExceptionHandler;
+import com.dishly.app.models.ImageBlobModel;
+import com.dishly.app.repositories.ImageBlobRepository;
+import com.dishly.app.services.ImageStoreService;
+import com.dishly.app.services.ThumbnailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ImageControllerTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D, 'I', 'H', 'D', 'R'};
+    private static final long MAX_BYTES = 64;
+
+    @TempDir
+    Path dir;
+
+    private final Set<String> blobs = new HashSet<>();
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ImageBlobRepository blobRepo = mock(ImageBlobRepository.class);
+        when(blobRepo.existsById(anyString())).thenAnswer(inv -> blobs.contains(inv.<String>getArgument(0)));
+        when(blobRepo.save(any(ImageBlobModel.class))).thenAnswer(inv -> {
+            ImageBlobModel blob = inv.getArgument(0);
+            blobs.add(blob.getHash());
+            return blob;
+        });
+
+        ImageStoreService images = new ImageStoreService(blobRepo, mock(ThumbnailService.class));
+        ReflectionTestUtils.setField(images, "dir", dir.toString());
+        ReflectionTestUtils.setField(images, "publicBaseUrl", "http://localhost:8080");
+        ReflectionTestUtils.setField(images, "maxUploadBytes", MAX_BYTES);
+        ReflectionTestUtils.invokeMethod(images, "init");
+
+        mvc = MockMvcBuilders.standaloneSetup(new ImageController(images))
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void multipartUploadReturnsTheBlobId() throws Exception {
+        String hash = sha256(PNG);
+
+        mvc.perform(multipart("/api/images").file(new MockMultipartFile("file", "foto.png", "image/png", PNG)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "http://localhost:8080/api/images/" + hash))
+                .andExpect(jsonPath("$.id").value(hash));
+
+        assertThat(blobs).containsExactly(hash);
+    }
+
+    @Test
+    void octetStreamUploadIsStoredFromTheBody() throws Exception {
+        String hash = sha256(PNG);
+
+        mvc.perform(post("/api/images").contentType(MediaType.APPLICATION_OCTET_STREAM).content(PNG))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(hash))
+                .andExpect(jsonPath("$.url").value("http://localhost:8080/api/images/" + hash));
+
+        assertThat(Files.readAllBytes(dir.resolve(hash.substring(0, 2)).resolve(hash))).isEqualTo(PNG);
+    }
+
+    @Test
+    void imageBodyWithAnyDeclaredTypeIsSniffed() throws Exception {
+        mvc.perform(post("/api/images").contentType(MediaType.IMAGE_GIF).content(PNG))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(sha256(PNG)));
+    }
+
+    @Test
+    void uploadsOverTheCapAre413() throws Exception {
+        byte[] tooLarge = new byte[(int) MAX_BYTES + 1];
+        System.arraycopy(PNG, 0, tooLarge, 0, PNG.length);
+
+        mvc.perform(post("/api/images").contentType(MediaType.APPLICATION_OCTET_STREAM).content(tooLarge))
+                .andExpect(status().isPayloadTooLarge());
+        mvc.perform(multipart("/api/images").file(new MockMultipartFile("file", "foto.png", "image/png", tooLarge)))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertThat(blobs).isEmpty();
+    }
+
+    @Test
+    void bodiesThatAreNotImagesAre400() throws Exception {
+        mvc.perform(post("/api/images").contentType(MediaType.IMAGE_PNG).content("<html></html>"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/images").contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[0]))
+                .andExpect(status().isBadRequest());
+
+        assertThat(blobs).isEmpty();
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
@@ -0,0 +1,97 @@
+package com.dishly.app.controllers;
+
+import com.dishly.app.exceptions.RestExceptionHandler;
+import com.dishly.app.repositories.RecipeRepository;
+import com.dishly.app.services.ImageStoreService;
+import com.dishly.app.services.PdfCacheService;
+import com.dishly.app.services.RecipeService;
+import com.dishly.app.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RecipeControllerImageTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D, 'I', 'H', 'D', 'R'};
+    private static final String HASH = "a".repeat(64);
+
+    private RecipeRepository recipeRepo;
+    private ImageStoreService images;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepo = mock(RecipeRepository.class);
+        images = mock(ImageStoreService.class);
+        when(images.url(HASH)).thenReturn("http://localhost:8080/api/images/" + HASH);
+
+        RecipeService recipeService = new RecipeService(recipeRepo, null, null, null, null, null, null, null,
+                null, null, images);
+        mvc = MockMvcBuilders.standaloneSetup(
+                        new RecipeController(recipeService, mock(UserService.class), mock(PdfCacheService.class)))
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+    }
+
+    private static String dataUrl(String type, byte[] bytes) {
+        return "data:" + type + ";base64," + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    @Test
+    void migratedImageRedirectsToTheBlob() throws Exception {
+        when(recipeRepo.findImageHashById(1L)).thenReturn(Optional.of(HASH));
+
+        mvc.perform(get("/api/recipes/1/image"))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost:8080/api/images/" + HASH));
+
+        verify(recipeRepo, never()).findImageById(1L);
+    }
+
+    @Test
+    void legacyImageIsServedWithTheSniffedType() throws Exception {
+        when(recipeRepo.findImageHashById(1L)).thenReturn(Optional.empty());
+        when(recipeRepo.findImageById(1L)).thenReturn(Optional.of(dataUrl("text/html", PNG)));
+
+        mvc.perform(get("/api/recipes/1/image"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(content().bytes(PNG));
+    }
+
+    @Test
+    void legacyRowsThatAreNotImagesAre404() throws Exception {
+        byte[] html = "<script>alert(1)</script>".getBytes(StandardCharsets.UTF_8);
+        when(recipeRepo.findImageHashById(1L)).thenReturn(Optional.empty());
+        when(recipeRepo.findImageById(1L)).thenReturn(Optional.of(dataUrl("image/png", html)));
+
+        mvc.perform(get("/api/recipes/1/image"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void recipeWithoutImageIs404() throws Exception {
+        when(recipeRepo.findImageHashById(1L)).thenReturn(Optional.empty());
+        when(recipeRepo.findImageById(1L)).thenReturn(Optional.empty());
+
+        mvc.perform(get("/api/recipes/1/image"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,67 @@
+package com.dishly.app.controllers;
+
+import com.dishly.app.services.PdfCacheService;
+import com.dishly.app.services.RecipeService;
+import com.dishly.app.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RecipeControllerPdfTest {
+
+    private static final byte[] PDF = "%PDF-1.4".getBytes();
+
+    private PdfCacheService pdfCache;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        pdfCache = mock(PdfCacheService.class);
+        when(pdfCache.recipeKey(5L)).thenReturn("recipe-5-3");
+
+        mvc = MockMvcBuilders.standaloneSetup(
+                new RecipeController(mock(RecipeService.class), mock(UserService.class), pdfCache)).build();
+    }
+
+    @Test
+    void firstDownloadCarriesTheKeyAsETag() throws Exception {
+        when(pdfCache.recipePdf(5L, "recipe-5-3")).thenReturn(PDF);
+
+        mvc.perform(get("/api/recipes/5/pdf"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"recipe-5-3\""))
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(content().bytes(PDF));
+    }
+
+    @Test
+    void matchingETagIs304WithoutTouchingTheCache() throws Exception {
+        mvc.perform(get("/api/recipes/5/pdf").header(HttpHeaders.IF_NONE_MATCH, "\"recipe-5-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(pdfCache, never()).recipePdf(any(), any());
+    }
+
+    @Test
+    void staleETagGetsTheNewVersion() throws Exception {
+        when(pdfCache.recipePdf(5L, "recipe-5-3")).thenReturn(PDF);
+
+        mvc.perform(get("/api/recipes/5/pdf").header(HttpHeaders.IF_NONE_MATCH, "\"recipe-5-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"recipe-5-3\""));
+    }
+}
@@ -0,0 +1,124 @@
+package com.dishly.app.repositories;
+
+import com.dishly.app.models.RatingAggregate;
+import com.dishly.app.models.RecipeModel;
+import com.dishly.app.models.ReviewModel;
+import com.dishly.app.projection.RecipeStepRow;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class RecipeRepositoryTest {
+
+    @Autowired
+    private RecipeRepository recipes;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void addRatingIncrementsSumCountAndHistogram() {
+        Long id = recipe("Tarta").getId();
+
+        recipes.addRating(id, 4);
+        recipes.addRating(id, 5);
+        recipes.addRating(id, 4);
+
+        RatingAggregate rating = reload(id).getRating();
+        assertThat(rating.getRatingSum()).isEqualTo(13);
+        assertThat(rating.getRatingCount()).isEqualTo(3);
+        assertThat(rating.histogram()).containsExactly(0, 0, 0, 2, 1);
+    }
+
+    @Test
+    void editKeepsIncrementMadeAfterLoading() {
+        Long id = recipe("Tarta").getId();
+        RecipeModel loaded = recipes.findById(id).orElseThrow();
+
+        // La reseña llega mientras la edición tiene la fila cargada con el agregado viejo
+        recipes.addRating(id, 5);
+        loaded.setName("Tarta de manzana");
+        recipes.saveAndFlush(loaded);
+
+        RecipeModel after = reload(id);
+        assertThat(after.getName()).isEqualTo("Tarta de manzana");
+        assertThat(after.getRating().getRatingCount()).isEqualTo(1);
+        assertThat(after.getRating().getRatingSum()).isEqualTo(5);
+        assertThat(after.getRating().histogram()).containsExactly(0, 0, 0, 0, 1);
+    }
+
+    @Test
+    void repairRecomputesDriftedHistogramOnly() {
+        RecipeModel drifted = recipe("Guiso");
+        review(drifted, 5);
+        review(drifted, 3);
+        // Suma y cantidad coinciden con las reseñas; el histograma no
+        drifted.getRating().setRatingSum(8);
+        drifted.getRating().setRatingCount(2);
+        drifted.getRating().setStars1(2);
+
+        RecipeModel consistent = recipe("Sopa");
+        review(consistent, 2);
+        consistent.getRating().setRatingSum(2);
+        consistent.getRating().setRatingCount(1);
+        consistent.getRating().setStars2(1);
+        em.flush();
+
+        assertThat(recipes.repairRatings()).isEqualTo(1);
+
+        RatingAggregate repaired = reload(drifted.getId()).getRating();
+        assertThat(repaired.getRatingSum()).isEqualTo(8);
+        assertThat(repaired.getRatingCount()).isEqualTo(2);
+        assertThat(repaired.histogram()).containsExactly(0, 0, 1, 0, 1);
+        assertThat(reload(consistent.getId()).getRating().histogram()).containsExactly(0, 1, 0, 0, 0);
+    }
+
+    @Test
+    void stepsComeBackInTheirOrder() {
+        RecipeModel tarta = recipe("Tarta");
+        tarta.getSteps().addAll(List.of("precalentar", "mezclar", "hornear"));
+        RecipeModel sopa = recipe("Sopa");
+        sopa.getSteps().addAll(List.of("hervir", "agregar", "servir"));
+        em.flush();
+        em.clear();
+
+        List<RecipeStepRow> rows = recipes.findStepsByRecipeIdIn(List.of(sopa.getId(), tarta.getId()));
+
+        assertThat(rows).extracting(RecipeStepRow::getRecipeId)
+                .containsExactly(tarta.getId(), tarta.getId(), tarta.getId(), sopa.getId(), sopa.getId(), sopa.getId());
+        assertThat(rows).extracting(RecipeStepRow::getStep)
+                .containsExactly("precalentar", "mezclar", "hornear", "hervir", "agregar", "servir");
+        assertThat(reload(tarta.getId()).getSteps()).containsExactly("precalentar", "mezclar", "hornear");
+    }
+
+    private RecipeModel recipe(String name) {
+        RecipeModel recipe = new RecipeModel();
+        recipe.setName(name);
+        em.persist(recipe);
+        em.flush();
+        return recipe;
+    }
+
+    private void review(RecipeModel recipe, int stars) {
+        ReviewModel review = new ReviewModel();
+        review.setRecipe(recipe);
+        review.setRating(stars);
+        em.persist(review);
+    }
+
+    private RecipeModel reload(Long id) {
+        em.flush();
+        em.clear();
+        return recipes.findById(id).orElseThrow();
+    }
+}
@@ -0,0 +1,94 @@
+package com.dishly.app.repositories;
+
+import com.dishly.app.models.UserModel;
+import com.dishly.app.projection.FollowPageRow;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private EntityManager em;
+
+    private UserModel chef;
+    private UserModel ana;
+    private UserModel beto;
+    private UserModel caro;
+    private UserModel dani;
+
+    @BeforeEach
+    void setUp() {
+        chef = user("chef");
+        ana = user("ana");
+        beto = user("beto");
+        caro = user("caro");
+        dani = user("dani");
+
+        // Los cuatro siguen a chef; ana además sigue a caro
+        chef.getFollowers().addAll(List.of(ana, beto, caro, dani));
+        caro.getFollowers().add(ana);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void followersPageWalksByIdDescending() {
+        List<FollowPageRow> first = users.findFollowersPage(chef.getId(), ana.getId(), PageRequest.of(0, 2));
+        assertThat(first).extracting(FollowPageRow::getId).containsExactly(dani.getId(), caro.getId());
+        assertThat(first).extracting(FollowPageRow::getUsername).containsExactly("dani", "caro");
+        assertThat(first).extracting(FollowPageRow::getEmail).containsExactly("dani@dishly.com", "caro@dishly.com");
+        // ana sigue a caro, no a dani
+        assertThat(first).extracting(FollowPageRow::getFollowedByMe).containsExactly(0L, 1L);
+
+        List<FollowPageRow> second = users.findFollowersPageBefore(
+                chef.getId(), ana.getId(), caro.getId(), PageRequest.of(0, 2));
+        assertThat(second).extracting(FollowPageRow::getId).containsExactly(beto.getId(), ana.getId());
+
+        assertThat(users.findFollowersPageBefore(chef.getId(), ana.getId(), ana.getId(), PageRequest.of(0, 2)))
+                .isEmpty();
+    }
+
+    @Test
+    void followingPageListsWhoTheUserFollows() {
+        List<FollowPageRow> page = users.findFollowingPage(ana.getId(), ana.getId(), PageRequest.of(0, 10));
+        assertThat(page).extracting(FollowPageRow::getId).containsExactly(caro.getId(), chef.getId());
+        assertThat(page).extracting(FollowPageRow::getFollowedByMe).containsExactly(1L, 1L);
+
+        List<FollowPageRow> before = users.findFollowingPageBefore(
+                ana.getId(), beto.getId(), caro.getId(), PageRequest.of(0, 10));
+        assertThat(before).extracting(FollowPageRow::getId).containsExactly(chef.getId());
+        assertThat(before).extracting(FollowPageRow::getFollowedByMe).containsExactly(1L);
+    }
+
+    @Test
+    void anonymousRequesterFollowsNobody() {
+        List<FollowPageRow> page = users.findFollowersPage(chef.getId(), null, PageRequest.of(0, 10));
+
+        assertThat(page).hasSize(4);
+        assertThat(page).extracting(FollowPageRow::getFollowedByMe).containsOnly(0L);
+    }
+
+    private UserModel user(String username) {
+        UserModel user = new UserModel();
+        user.setUsername(username);
+        user.setEmail(username + "@dishly.com");
+        em.persist(user);
+        return user;
+    }
+}
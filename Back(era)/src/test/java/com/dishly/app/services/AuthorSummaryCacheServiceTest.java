@@ -0,0 +1,150 @@
+package com.dishly.app.services;
+
+import com.dishly.app.projection.AuthorRow;
+import com.dishly.app.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthorSummaryCacheServiceTest {
+
+    private final Map<Long, AuthorRow> rows = new HashMap<>();
+    private UserRepository userRepo;
+    private AuthorSummaryCacheService cache;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 4; id++) rows.put(id, row(id, "user" + id, null));
+        rows.put(9L, row(9L, "grande", "x".repeat(200)));
+
+        userRepo = mock(UserRepository.class);
+        when(userRepo.findAuthorRowsByIdIn(any())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+        });
+        // Sin hash de blob: la foto es el valor inline de la fila
+        ImageStoreService images = mock(ImageStoreService.class);
+        when(images.urlOr(any(), any(ImageVariant.class), any())).thenAnswer(inv -> inv.getArgument(2));
+        cache = new AuthorSummaryCacheService(userRepo, images);
+        limits(10_000, 32L * 1024 * 1024);
+    }
+
+    @Test
+    void loadsMissingAuthorsInOneQueryAndThenHits() {
+        Map<Long, AuthorSummaryCacheService.AuthorSummary> first = cache.getAll(List.of(1L, 2L));
+
+        assertThat(first).containsOnlyKeys(1L, 2L);
+        assertThat(first.get(1L).username()).isEqualTo("user1");
+        verify(userRepo, times(1)).findAuthorRowsByIdIn(any());
+
+        assertThat(cache.get(2L).username()).isEqualTo("user2");
+        verify(userRepo, times(1)).findAuthorRowsByIdIn(any());
+
+        AuthorSummaryCacheService.Stats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+        assertThat(stats.size()).isEqualTo(2);
+    }
+
+    @Test
+    void unknownAuthorsAreNotCached() {
+        assertThat(cache.get(77L)).isNull();
+        assertThat(cache.get(77L)).isNull();
+        assertThat(cache.get(null)).isNull();
+
+        verify(userRepo, times(2)).findAuthorRowsByIdIn(any());
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOverEntryLimit() {
+        limits(2, 32L * 1024 * 1024);
+        cache.get(1L);
+        cache.get(2L);
+        cache.get(1L); // 2 queda como el menos usado
+        cache.get(3L);
+
+        assertThat(cache.stats().size()).isEqualTo(2);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+        clearInvocations(userRepo);
+
+        cache.get(1L);
+        cache.get(3L);
+        verify(userRepo, never()).findAuthorRowsByIdIn(any());
+        cache.get(2L);
+        verify(userRepo).findAuthorRowsByIdIn(argThat(ids -> ids.contains(2L)));
+    }
+
+    @Test
+    void evictsByWeightAndSkipsEntriesLargerThanTheBound() {
+        long small = new AuthorSummaryCacheService.AuthorSummary(1L, "user1", null).weight();
+        limits(10_000, 2 * small + 1);
+
+        cache.getAll(List.of(1L, 2L));
+        assertThat(cache.stats().weight()).isEqualTo(2 * small);
+
+        cache.get(3L);
+        AuthorSummaryCacheService.Stats stats = cache.stats();
+        assertThat(stats.size()).isEqualTo(2);
+        assertThat(stats.weight()).isLessThanOrEqualTo(2 * small + 1);
+        assertThat(stats.evictions()).isEqualTo(1);
+
+        // Más pesada que todo el límite: se devuelve pero no se guarda ni desplaza a nadie
+        assertThat(cache.get(9L).photo()).hasSize(200);
+        assertThat(cache.stats().size()).isEqualTo(2);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidationDropsTheEntry() {
+        cache.get(1L);
+        rows.put(1L, row(1L, "renombrado", null));
+
+        cache.invalidateAfterCommit(1L);
+
+        assertThat(cache.get(1L).username()).isEqualTo("renombrado");
+        verify(userRepo, times(2)).findAuthorRowsByIdIn(any());
+    }
+
+    @Test
+    void loadRacingWithInvalidationIsNotStored() {
+        AuthorRow stale = rows.get(1L);
+        doAnswer(inv -> {
+            cache.invalidateAfterCommit(1L); // el usuario cambia mientras corre la consulta
+            return List.of(stale);
+        }).when(userRepo).findAuthorRowsByIdIn(any());
+
+        assertThat(cache.get(1L).username()).isEqualTo("user1");
+        assertThat(cache.stats().size()).isZero();
+    }
+
+    private void limits(int maxEntries, long maxWeight) {
+        ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(cache, "maxWeight", maxWeight);
+    }
+
+    private static AuthorRow row(Long id, String username, String photo) {
+        AuthorRow row = mock(AuthorRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getUsername()).thenReturn(username);
+        when(row.getPhoto()).thenReturn(photo);
+        return row;
+    }
+}
@@ -0,0 +1,118 @@
+package com.dishly.app.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class Bm25IndexTest {
+
+    /** Mismos pesos que el índice de recetas: nombre, descripción, ingredientes. */
+    private static Bm25Index recipes() {
+        Bm25Index index = new Bm25Index(3.0, 1.0, 2.0);
+        index.put(1, "tarta de manzana", "postre con manzana", "manzana|harina|azucar");
+        index.put(2, "pollo al horno", "con papas y manzana", "pollo|papa");
+        index.put(3, "ensalada", "fresca", "lechuga|tomate");
+        return index;
+    }
+
+    private static List<Long> ids(List<Bm25Index.Scored> scored) {
+        return scored.stream().map(Bm25Index.Scored::id).toList();
+    }
+
+    @Test
+    void candidatesWithoutQueryTermsScoreZero() {
+        List<Bm25Index.Scored> scored = recipes().rank("manzana", List.of(1L, 2L, 3L), null, 10);
+
+        assertThat(ids(scored)).containsExactly(1L, 2L, 3L);
+        assertThat(scored.get(2).score()).isZero();
+        // Sin términos conocidos todos empatan en 0 y queda el orden por id
+        assertThat(ids(recipes().rank("sopa", List.of(1L, 2L, 3L), null, 10))).containsExactly(3L, 2L, 1L);
+        assertThat(ids(recipes().rank("", List.of(1L, 3L), null, 10))).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void nameWeighsMoreThanDescription() {
+        Bm25Index index = new Bm25Index(3.0, 1.0, 2.0);
+        index.put(10, "pollo", "", "");
+        index.put(20, "", "pollo", "");
+
+        assertThat(ids(index.rank("pollo", List.of(20L, 10L), null, 10))).containsExactly(10L, 20L);
+    }
+
+    @Test
+    void onlyCandidatesAreReturnedUpToTheLimit() {
+        assertThat(ids(recipes().rank("manzana", List.of(2L), null, 10))).containsExactly(2L);
+        assertThat(ids(recipes().rank("manzana", List.of(1L, 2L), null, 1))).containsExactly(1L);
+        assertThat(recipes().rank("manzana", List.of(1L, 2L), null, 0)).isEmpty();
+        assertThat(recipes().rank("manzana", List.of(), null, 10)).isEmpty();
+    }
+
+    @Test
+    void equalScoresAreOrderedByIdDescending() {
+        Bm25Index index = new Bm25Index(1.0);
+        index.put(5, "arroz");
+        index.put(9, "arroz");
+        index.put(7, "arroz");
+
+        assertThat(ids(index.rank("arroz", List.of(5L, 9L, 7L), null, 10))).containsExactly(9L, 7L, 5L);
+    }
+
+    @Test
+    void removeAndReplaceUpdateThePostings() {
+        Bm25Index index = recipes();
+        index.remove(1);
+        assertThat(index.rank("manzana", List.of(1L), null, 10).get(0).score()).isZero();
+        assertThat(index.rank("manzana", List.of(2L), null, 10).get(0).score()).isPositive();
+
+        index.put(2, "pollo al horno", "con papas", "pollo|papa");
+        assertThat(index.rank("manzana", List.of(2L), null, 10).get(0).score()).isZero();
+        assertThat(index.rank("pollo", List.of(2L), null, 10).get(0).score()).isPositive();
+    }
+
+    @Test
+    void cursorContinuesAfterTheLastResult() {
+        Bm25Index index = new Bm25Index(1.0);
+        List<Long> all = List.of(1L, 2L, 3L, 4L, 5L);
+        for (long id : all) index.put(id, "arroz");
+
+        List<Bm25Index.Scored> first = index.rank("arroz", all, null, 2);
+        assertThat(ids(first)).containsExactly(5L, 4L);
+
+        Bm25Index.Scored last = first.get(first.size() - 1);
+        Bm25Index.Cursor cursor = Bm25Index.Cursor.parse(new Bm25Index.Cursor(last.score(), last.id()).encode());
+        assertThat(ids(index.rank("arroz", all, cursor, 2))).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void cursorRoundTripsExactly() {
+        Bm25Index.Cursor cursor = new Bm25Index.Cursor(1.0 / 3, 42);
+
+        assertThat(Bm25Index.Cursor.parse(cursor.encode())).isEqualTo(cursor);
+        assertThat(cursor.encode()).doesNotContain("=", "+", "/");
+    }
+
+    @Test
+    void cursorIsBeforeLowerScoresAndLowerIdsOnTies() {
+        Bm25Index.Cursor cursor = new Bm25Index.Cursor(2.0, 10);
+
+        assertThat(cursor.isBefore(new Bm25Index.Scored(99, 1.0))).isTrue();
+        assertThat(cursor.isBefore(new Bm25Index.Scored(9, 2.0))).isTrue();
+        assertThat(cursor.isBefore(new Bm25Index.Scored(10, 2.0))).isFalse();
+        assertThat(cursor.isBefore(new Bm25Index.Scored(1, 3.0))).isFalse();
+    }
+
+    @Test
+    void blankCursorIsNullAndGarbageIsRejected() {
+        assertThat(Bm25Index.Cursor.parse(null)).isNull();
+        assertThat(Bm25Index.Cursor.parse(" ")).isNull();
+        assertThatThrownBy(() -> Bm25Index.Cursor.parse("no es un cursor!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Bm25Index.Cursor.parse("YWJj")) // "abc", sin separador
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Bm25Index.Cursor.parse("enp6OjE")) // "zzz:1"
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,121 @@
+package com.dishly.app.services;
+
+import com.dishly.app.dto.FederatedSearchResponseDTO;
+import com.dishly.app.dto.MealPrepResponseDTO;
+import com.dishly.app.dto.PagedResponse;
+import com.dishly.app.dto.RecipeResponseDTO;
+import com.dishly.app.dto.UserProfileDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FederatedSearchServiceTest {
+
+    private static final String EMAIL = "ana@dishly.com";
+
+    private RecipeService recipes;
+    private MealPrepService mealPreps;
+    private UserService users;
+    private IngredientService ingredients;
+    private FederatedSearchService search;
+
+    @BeforeEach
+    void setUp() {
+        recipes = mock(RecipeService.class);
+        mealPreps = mock(MealPrepService.class);
+        users = mock(UserService.class);
+        ingredients = mock(IngredientService.class);
+        when(recipes.searchByCursor(any(), any(), any(), any(), anyInt(), any(), anyBoolean(), anyBoolean()))
+                .thenReturn(new PagedResponse<>(List.of(), "r2", true));
+        when(mealPreps.searchByCursor(any(), any(), any(), any(), anyInt(), any(), anyBoolean(), anyBoolean()))
+                .thenReturn(new PagedResponse<>(List.of(), "m2", true));
+        when(users.searchUsersByCursor(any(), any(), any(), anyInt()))
+                .thenReturn(new PagedResponse<>(List.of(), "u2", true));
+        when(ingredients.searchByName(any(), anyInt())).thenReturn(List.of());
+
+        search = new FederatedSearchService(recipes, mealPreps, users, ingredients);
+        ReflectionTestUtils.setField(search, "timeoutMs", 200L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        search.shutdown();
+    }
+
+    @Test
+    void allSourcesAnswer() {
+        FederatedSearchResponseDTO res = search.searchAll("pasta", null, null, null, 10, EMAIL);
+
+        assertThat(res.recipes().nextCursor()).isEqualTo("r2");
+        assertThat(res.mealPreps().nextCursor()).isEqualTo("m2");
+        assertThat(res.users().nextCursor()).isEqualTo("u2");
+        assertThat(res.timedOut()).isEmpty();
+        assertThat(res.failed()).isEmpty();
+    }
+
+    @Test
+    void failedSourceComesBackEmptyWithoutCursor() {
+        when(users.searchUsersByCursor(any(), any(), eq("bad"), anyInt()))
+                .thenThrow(new NumberFormatException("bad"));
+
+        FederatedSearchResponseDTO res = search.searchAll("pasta", "r1", "m1", "bad", 10, EMAIL);
+
+        PagedResponse<UserProfileDTO> section = res.users();
+        assertThat(section.items()).isEmpty();
+        assertThat(section.nextCursor()).isNull();
+        assertThat(section.hasNext()).isFalse();
+        assertThat(res.failed()).containsExactly("users");
+        assertThat(res.timedOut()).isEmpty();
+        assertThat(res.recipes().nextCursor()).isEqualTo("r2");
+    }
+
+    @Test
+    void slowSourceKeepsTheRequestedCursor() {
+        when(mealPreps.searchByCursor(any(), any(), any(), eq("m1"), anyInt(), any(), anyBoolean(), anyBoolean()))
+                .thenAnswer(inv -> {
+                    Thread.sleep(5_000);
+                    return new PagedResponse<MealPrepResponseDTO>(List.of(), "late", true);
+                });
+
+        FederatedSearchResponseDTO res = search.searchAll("pasta", null, "m1", null, 10, EMAIL);
+
+        assertThat(res.mealPreps().items()).isEmpty();
+        assertThat(res.mealPreps().nextCursor()).isEqualTo("m1");
+        assertThat(res.timedOut()).containsExactly("mealPreps");
+        assertThat(res.failed()).isEmpty();
+        PagedResponse<RecipeResponseDTO> recipeSection = res.recipes();
+        assertThat(recipeSection.nextCursor()).isEqualTo("r2");
+    }
+
+    @Test
+    void limitIsClampedForEverySource() {
+        search.searchAll("pasta", null, null, null, 10_000, EMAIL);
+
+        int max = FederatedSearchService.MAX_SEARCH_RESULTS;
+        verify(recipes).searchByCursor("pasta", null, null, null, max, EMAIL, false, false);
+        verify(mealPreps).searchByCursor("pasta", null, null, null, max, EMAIL, false, false);
+        verify(users).searchUsersByCursor("pasta", EMAIL, null, max);
+        verify(ingredients).searchByName("pasta", max);
+    }
+
+    @Test
+    void anonymousSearchSkipsUsers() {
+        FederatedSearchResponseDTO res = search.searchAll("pasta", null, null, null, 0, null);
+
+        assertThat(res.users().items()).isEmpty();
+        assertThat(res.users().nextCursor()).isNull();
+        verify(recipes).searchByCursor("pasta", null, null, null, 10, null, false, false);
+    }
+}
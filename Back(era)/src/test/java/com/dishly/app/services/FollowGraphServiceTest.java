@@ -0,0 +1,122 @@
+package com.dishly.app.services;
+
+import com.dishly.app.projection.FollowRow;
+import com.dishly.app.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FollowGraphServiceTest {
+
+    private UserRepository userRepo;
+    private FollowGraphService graph;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepository.class);
+        // 2 y 3 siguen a 1; 1 sigue a 3; la fila repetida no debe contar dos veces
+        List<FollowRow> rows = List.of(row(1L, 2L), row(1L, 3L), row(3L, 1L), row(1L, 2L));
+        when(userRepo.findAllFollowRows()).thenReturn(rows);
+        graph = new FollowGraphService(userRepo);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void countsAndLooksUpEdges() {
+        assertThat(graph.followerCount(1L)).isEqualTo(2);
+        assertThat(graph.followingCount(1L)).isEqualTo(1);
+        assertThat(graph.followingCount(2L)).isEqualTo(1);
+        assertThat(graph.followerCount(2L)).isZero();
+        assertThat(graph.followerCount(null)).isZero();
+
+        assertThat(graph.isFollowing(2L, 1L)).isTrue();
+        assertThat(graph.isFollowing(1L, 2L)).isFalse();
+        assertThat(graph.isFollowing(1L, 3L)).isTrue();
+        assertThat(graph.isFollowing(null, 1L)).isFalse();
+
+        assertThat(graph.followerIds(1L)).containsExactly(2L, 3L);
+        assertThat(graph.followingIds(3L)).containsExactly(1L);
+    }
+
+    @Test
+    void buildsLazilyOnce() {
+        graph.followerCount(1L);
+        graph.followingCount(1L);
+
+        verify(userRepo, times(1)).findAllFollowRows();
+    }
+
+    @Test
+    void returnedIdsAreCopies() {
+        long[] ids = graph.followerIds(1L);
+        ids[0] = 99L;
+
+        assertThat(graph.followerIds(1L)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void followAndUnfollowAreIdempotent() {
+        graph.followerCount(1L);
+
+        graph.followAfterCommit(4L, 1L);
+        graph.followAfterCommit(4L, 1L);
+        assertThat(graph.followerIds(1L)).containsExactly(2L, 3L, 4L);
+        assertThat(graph.followingCount(4L)).isEqualTo(1);
+
+        graph.unfollowAfterCommit(2L, 1L);
+        graph.unfollowAfterCommit(2L, 1L);
+        assertThat(graph.followerIds(1L)).containsExactly(3L, 4L);
+        assertThat(graph.isFollowing(2L, 1L)).isFalse();
+        assertThat(graph.followingCount(2L)).isZero();
+    }
+
+    @Test
+    void removeUserDropsBothDirections() {
+        graph.followerCount(1L);
+
+        graph.removeUserAfterCommit(1L);
+
+        assertThat(graph.followerCount(1L)).isZero();
+        assertThat(graph.followingCount(1L)).isZero();
+        assertThat(graph.followingCount(2L)).isZero();
+        assertThat(graph.followerCount(3L)).isZero();
+        assertThat(graph.isFollowing(3L, 1L)).isFalse();
+    }
+
+    @Test
+    void writesWaitForCommit() {
+        graph.followerCount(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        graph.followAfterCommit(5L, 1L);
+        assertThat(graph.isFollowing(5L, 1L)).isFalse();
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        assertThat(graph.isFollowing(5L, 1L)).isTrue();
+    }
+
+    private static FollowRow row(Long userId, Long followerId) {
+        FollowRow row = mock(FollowRow.class);
+        when(row.getUserId()).thenReturn(userId);
+        when(row.getFollowerId()).thenReturn(followerId);
+        return row;
+    }
+}
@@ -0,0 +1,254 @@
+package com.dishly.app.services;
+
+import com.dishly.app.models.ImageBlobModel;
+import com.dishly.app.repositories.ImageBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageStoreServiceTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D, 'I', 'H', 'D', 'R'};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F'};
+    private static final byte[] GIF = {'G', 'I', 'F', '8', '9', 'a', 1, 0, 1, 0};
+    private static final byte[] WEBP = {'R', 'I', 'F', 'F', 0x24, 0, 0, 0, 'W', 'E', 'B', 'P', 'V', 'P', '8', ' '};
+
+    @TempDir
+    Path dir;
+
+    /** Tipo guardado por hash, lo que quedaría en image_blobs. */
+    private final Map<String, String> blobs = new HashMap<>();
+    private ThumbnailService thumbnails;
+    private ImageStoreService images;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ImageBlobRepository blobRepo = mock(ImageBlobRepository.class);
+        when(blobRepo.existsById(anyString())).thenAnswer(inv -> blobs.containsKey(inv.<String>getArgument(0)));
+        when(blobRepo.save(any(ImageBlobModel.class))).thenAnswer(inv -> {
+            ImageBlobModel blob = inv.getArgument(0);
+            blobs.put(blob.getHash(), blob.getContentType());
+            return blob;
+        });
+
+        thumbnails = mock(ThumbnailService.class);
+
+        images = new ImageStoreService(blobRepo, thumbnails);
+        ReflectionTestUtils.setField(images, "dir", dir.toString());
+        ReflectionTestUtils.setField(images, "publicBaseUrl", "http://localhost:8080");
+        ReflectionTestUtils.setField(images, "maxUploadBytes", 1024L);
+        images.init();
+    }
+
+    private static String dataUrl(String type, byte[] bytes) {
+        return "data:" + type + ";base64," + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    /* ---------- sniff ---------- */
+
+    @Test
+    void sniffRecognisesAcceptedFormats() {
+        assertThat(ImageStoreService.sniff(JPEG)).isEqualTo("image/jpeg");
+        assertThat(ImageStoreService.sniff(PNG)).isEqualTo("image/png");
+        assertThat(ImageStoreService.sniff(GIF)).isEqualTo("image/gif");
+        assertThat(ImageStoreService.sniff(WEBP)).isEqualTo("image/webp");
+    }
+
+    @Test
+    void sniffRejectsAnythingElse() {
+        assertThat(ImageStoreService.sniff("<svg xmlns=".getBytes(StandardCharsets.US_ASCII))).isNull();
+        assertThat(ImageStoreService.sniff(new byte[0])).isNull();
+        // RIFF que no es WebP (p. ej. un WAV)
+        assertThat(ImageStoreService.sniff("RIFF\0\0\0\0WAVE".getBytes(StandardCharsets.US_ASCII))).isNull();
+        assertThat(ImageStoreService.sniff(new byte[]{(byte) 0xFF, (byte) 0xD8})).isNull();
+    }
+
+    /* ---------- ImageContent.decode ---------- */
+
+    @Test
+    void decodeReadsDataUrlsAndBareBase64() {
+        ImageContent fromDataUrl = ImageContent.decode(dataUrl("image/png", PNG)).orElseThrow();
+        assertThat(fromDataUrl.contentType()).isEqualTo("image/png");
+        assertThat(fromDataUrl.bytes()).isEqualTo(PNG);
+
+        ImageContent bare = ImageContent.decode(Base64.getEncoder().encodeToString(JPEG)).orElseThrow();
+        assertThat(bare.contentType()).isEqualTo("image/jpeg");
+        assertThat(bare.bytes()).isEqualTo(JPEG);
+
+        // Base64 partido en líneas, como lo guardaban algunos clientes
+        String wrapped = Base64.getMimeEncoder(4, "\r\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(GIF);
+        assertThat(ImageContent.decode(wrapped).orElseThrow().bytes()).isEqualTo(GIF);
+    }
+
+    @Test
+    void decodeRejectsUrlsAndMalformedInput() {
+        String hash = "a".repeat(64);
+        assertThat(ImageContent.decode("http://localhost:8080/api/images/" + hash)).isEmpty();
+        assertThat(ImageContent.decode("not base64!")).isEmpty();
+        assertThat(ImageContent.decode("data:image/png,plain")).isEmpty();
+        assertThat(ImageContent.decode("data:image/png;base64")).isEmpty();
+        assertThat(ImageContent.decode("data:image/png;base64,")).isEmpty();
+        assertThat(ImageContent.decode("  ")).isEmpty();
+        assertThat(ImageContent.decode(null)).isEmpty();
+    }
+
+    /* ---------- resolve ---------- */
+
+    @Test
+    void resolveStoresADataUrlUnderItsHash() throws Exception {
+        String hash = images.resolve(dataUrl("image/png", PNG));
+
+        assertThat(hash).isEqualTo(sha256(PNG));
+        assertThat(blobs).containsEntry(hash, "image/png").hasSize(1);
+        Path stored = dir.resolve(hash.substring(0, 2)).resolve(hash);
+        assertThat(Files.readAllBytes(stored)).isEqualTo(PNG);
+        verify(thumbnails).schedule(eq(hash), any(Path.class));
+    }
+
+    @Test
+    void resolveSameImageTwiceStoresItOnce() {
+        String first = images.resolve(dataUrl("image/png", PNG));
+        String second = images.resolve(Base64.getEncoder().encodeToString(PNG));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(blobs).hasSize(1);
+        verify(thumbnails, times(1)).schedule(anyString(), any(Path.class));
+    }
+
+    @Test
+    void storedTypeComesFromTheBytesNotTheDataUrl() {
+        String hash = images.resolve(dataUrl("image/gif", WEBP));
+
+        assertThat(blobs).containsEntry(hash, "image/webp");
+        assertThat(images.find(hash).orElseThrow().contentType()).isEqualTo("image/webp");
+    }
+
+    @Test
+    void resolveKeepsUrlsOfStoredImages() {
+        String hash = images.resolve(dataUrl("image/jpeg", JPEG));
+
+        assertThat(images.resolve(images.url(hash))).isEqualTo(hash);
+        assertThat(images.resolve("/api/images/" + hash)).isEqualTo(hash);
+        assertThat(blobs).hasSize(1);
+    }
+
+    @Test
+    void resolveKeepsVariantUrlsSentBackByTheDtos() {
+        String hash = images.resolve(dataUrl("image/png", PNG));
+
+        assertThat(images.resolve(images.url(hash, ImageVariant.CARD))).isEqualTo(hash);
+        assertThat(images.resolve(images.url(hash, ImageVariant.AVATAR))).isEqualTo(hash);
+        assertThat(images.resolve("/api/images/" + hash + "/detail")).isEqualTo(hash);
+        assertThatThrownBy(() -> images.resolve(images.url(hash) + "/huge"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(blobs).hasSize(1);
+    }
+
+    @Test
+    void resolveAcceptsTheIdOfAnUpload() {
+        String hash = images.store(new ByteArrayInputStream(GIF));
+
+        assertThat(images.resolve(hash)).isEqualTo(hash);
+        assertThatThrownBy(() -> images.resolve("c".repeat(64)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("no encontrada");
+    }
+
+    @Test
+    void resolveBlankIsNoImage() {
+        assertThat(images.resolve(null)).isNull();
+        assertThat(images.resolve(" ")).isNull();
+    }
+
+    @Test
+    void resolveRejectsUrlsOfUnknownImages() {
+        assertThatThrownBy(() -> images.resolve(images.url("b".repeat(64))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(blobs).isEmpty();
+    }
+
+    @Test
+    void resolveRejectsContentThatIsNotAnImage() {
+        byte[] html = "<script>alert(1)</script>".getBytes(StandardCharsets.UTF_8);
+
+        // Ni con el tipo de la data URL ni disfrazado de imagen: manda el contenido
+        assertThatThrownBy(() -> images.resolve(dataUrl("text/html", html)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Formato");
+        assertThatThrownBy(() -> images.resolve(dataUrl("image/png", html)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Formato");
+        assertThat(blobs).isEmpty();
+    }
+
+    /* ---------- store ---------- */
+
+    @Test
+    void storeStreamsTheUploadUnderItsHash() throws Exception {
+        byte[] large = new byte[1000]; // más que un bloque de cabecera, menos que el tope
+        System.arraycopy(JPEG, 0, large, 0, JPEG.length);
+
+        String hash = images.store(new ByteArrayInputStream(large));
+
+        assertThat(hash).isEqualTo(sha256(large));
+        assertThat(blobs).containsEntry(hash, "image/jpeg");
+        assertThat(Files.readAllBytes(dir.resolve(hash.substring(0, 2)).resolve(hash))).isEqualTo(large);
+        assertThat(incomingFiles()).isEmpty();
+    }
+
+    @Test
+    void storeCutsUploadsOverTheCap() throws Exception {
+        byte[] tooLarge = new byte[1025];
+        System.arraycopy(PNG, 0, tooLarge, 0, PNG.length);
+
+        assertThatThrownBy(() -> images.store(new ByteArrayInputStream(tooLarge)))
+                .isInstanceOf(MaxUploadSizeExceededException.class);
+        assertThat(blobs).isEmpty();
+        assertThat(incomingFiles()).isEmpty();
+    }
+
+    @Test
+    void storeRejectsEmptyAndUnrecognisedBodies() throws Exception {
+        assertThatThrownBy(() -> images.store(new ByteArrayInputStream(new byte[0])))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> images.store(new ByteArrayInputStream("<html>".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Formato");
+        assertThat(blobs).isEmpty();
+        assertThat(incomingFiles()).isEmpty();
+    }
+
+    private List<Path> incomingFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir.resolve("incoming"))) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.dishly.app.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientBitmapTest {
+
+    @Test
+    void emptyAndNullInputsGiveEmpty() {
+        assertThat(IngredientBitmap.of(null)).isSameAs(IngredientBitmap.EMPTY);
+        assertThat(IngredientBitmap.of(List.of())).isSameAs(IngredientBitmap.EMPTY);
+        assertThat(IngredientBitmap.of(Arrays.asList(null, -3L)).isEmpty()).isTrue();
+        assertThat(IngredientBitmap.EMPTY.intersects(IngredientBitmap.of(List.of(1L)))).isFalse();
+        assertThat(IngredientBitmap.of(List.of(1L)).intersects(null)).isFalse();
+    }
+
+    @Test
+    void keepsDistinctSortedIdsAcrossGroups() {
+        // 70000 cae en el grupo 1 (id >>> 16)
+        IngredientBitmap bitmap = IngredientBitmap.of(List.of(70_000L, 5L, 3L, 5L, 65_535L));
+
+        assertThat(bitmap.cardinality()).isEqualTo(4);
+        assertThat(bitmap.toArray()).containsExactly(3L, 5L, 65_535L, 70_000L);
+        assertThat(bitmap.contains(65_535L)).isTrue();
+        assertThat(bitmap.contains(65_536L)).isFalse();
+        assertThat(bitmap.contains(-1L)).isFalse();
+    }
+
+    @Test
+    void intersectsOnlyWhenSharingAnId() {
+        IngredientBitmap recipe = IngredientBitmap.of(List.of(1L, 2L, 70_000L));
+
+        assertThat(recipe.intersects(IngredientBitmap.of(List.of(70_000L)))).isTrue();
+        assertThat(recipe.intersects(IngredientBitmap.of(List.of(3L, 4L)))).isFalse();
+        // Mismos 16 bits bajos, distinto grupo
+        assertThat(recipe.intersects(IngredientBitmap.of(List.of(65_537L)))).isFalse();
+    }
+
+    @Test
+    void largeGroupsUseBitmapContainersWithTheSameAnswers() {
+        // Más de 4096 ids en el grupo 0: pasa de arreglo a bitmap
+        List<Long> evens = LongStream.range(0, 10_000).map(i -> i * 2).boxed().toList();
+        IngredientBitmap dense = IngredientBitmap.of(evens);
+
+        assertThat(dense.cardinality()).isEqualTo(10_000);
+        assertThat(dense.contains(19_998L)).isTrue();
+        assertThat(dense.contains(19_999L)).isFalse();
+        assertThat(dense.toArray()).containsExactly(evens.stream().mapToLong(Long::longValue).toArray());
+
+        List<Long> odds = LongStream.range(0, 10_000).map(i -> i * 2 + 1).boxed().toList();
+        assertThat(dense.intersects(IngredientBitmap.of(odds))).isFalse();
+        assertThat(dense.intersects(IngredientBitmap.of(List.of(1L, 4_000L)))).isTrue();
+        assertThat(IngredientBitmap.of(List.of(1L, 4_000L)).intersects(dense)).isTrue();
+    }
+
+    @Test
+    void unionMergesAndDeduplicates() {
+        List<IngredientBitmap> parts = new ArrayList<>();
+        parts.add(IngredientBitmap.of(List.of(1L, 2L)));
+        parts.add(IngredientBitmap.EMPTY);
+        parts.add(IngredientBitmap.of(List.of(2L, 70_000L)));
+
+        assertThat(IngredientBitmap.union(parts).toArray()).containsExactly(1L, 2L, 70_000L);
+        assertThat(IngredientBitmap.union(List.of())).isSameAs(IngredientBitmap.EMPTY);
+    }
+}
@@ -0,0 +1,223 @@
+package com.dishly.app.services;
+
+import com.dishly.app.repositories.MealPrepRepository;
+import com.dishly.app.repositories.RecipeRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PdfCacheServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private PdfExportService pdfExport;
+    private RecipeRepository recipeRepo;
+    private MealPrepRepository mealPrepRepo;
+    private PdfCacheService cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pdfExport = mock(PdfExportService.class);
+        recipeRepo = mock(RecipeRepository.class);
+        mealPrepRepo = mock(MealPrepRepository.class);
+        cache = cache(1024, 1024);
+    }
+
+    private PdfCacheService cache(long memoryBytes, long diskBytes) throws Exception {
+        PdfCacheService c = new PdfCacheService(pdfExport, recipeRepo, mealPrepRepo);
+        ReflectionTestUtils.setField(c, "dir", dir.toString());
+        ReflectionTestUtils.setField(c, "maxMemoryBytes", memoryBytes);
+        ReflectionTestUtils.setField(c, "maxDiskBytes", diskBytes);
+        c.init();
+        return c;
+    }
+
+    private static byte[] pdf(int size) {
+        return new byte[size];
+    }
+
+    private List<String> files() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    /* ---------- claves ---------- */
+
+    @Test
+    void recipeKeyFollowsTheContentVersion() {
+        when(recipeRepo.findContentVersionById(5L)).thenReturn(Optional.of(3L), Optional.of(4L));
+
+        assertThat(cache.recipeKey(5L)).isEqualTo("recipe-5-3");
+        assertThat(cache.recipeKey(5L)).isEqualTo("recipe-5-4");
+    }
+
+    @Test
+    void mealPrepKeyChangesWithAnyOfItsRecipes() {
+        when(mealPrepRepo.findContentVersionById(2L)).thenReturn(Optional.of(1L));
+        when(mealPrepRepo.findRecipeVersions(2L)).thenReturn(
+                List.of("1:2", "2:1"), List.of("1:2", "2:1"), List.of("1:3", "2:1"), List.of("1:3"));
+
+        String key = cache.mealPrepKey(2L);
+        assertThat(key).matches("mealprep-2-1\\.[0-9a-f]{16}");
+        assertThat(cache.mealPrepKey(2L)).isEqualTo(key);
+
+        String edited = cache.mealPrepKey(2L);
+        assertThat(edited).isNotEqualTo(key);
+        // Se quitó una receta: la clave cambia aunque la suma de versiones sea la misma
+        assertThat(cache.mealPrepKey(2L)).isNotEqualTo(key).isNotEqualTo(edited);
+    }
+
+    @Test
+    void keysOfUnknownEntitiesFail() {
+        when(recipeRepo.findContentVersionById(9L)).thenReturn(Optional.empty());
+        when(mealPrepRepo.findContentVersionById(9L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> cache.recipeKey(9L)).isInstanceOf(EntityNotFoundException.class);
+        assertThatThrownBy(() -> cache.mealPrepKey(9L)).isInstanceOf(EntityNotFoundException.class);
+    }
+
+    /* ---------- capas ---------- */
+
+    @Test
+    void secondDownloadIsServedFromMemory() throws Exception {
+        byte[] bytes = pdf(100);
+        when(pdfExport.recipeToPdf(1L)).thenReturn(bytes);
+
+        assertThat(cache.recipePdf(1L, "recipe-1-1")).isEqualTo(bytes);
+        assertThat(cache.recipePdf(1L, "recipe-1-1")).isEqualTo(bytes);
+
+        verify(pdfExport, times(1)).recipeToPdf(1L);
+        assertThat(cache.stats()).isEqualTo(new PdfCacheService.Stats(1, 0, 1, 1, 100));
+        assertThat(files()).containsExactly("recipe-1-1.pdf");
+    }
+
+    @Test
+    void restartedCacheReadsFromDisk() throws Exception {
+        when(pdfExport.recipeToPdf(1L)).thenReturn(pdf(100));
+        cache.recipePdf(1L, "recipe-1-1");
+
+        PdfCacheService restarted = cache(1024, 1024);
+        assertThat(restarted.recipePdf(1L, "recipe-1-1")).hasSize(100);
+
+        verify(pdfExport, times(1)).recipeToPdf(1L);
+        assertThat(restarted.stats().diskHits()).isEqualTo(1);
+        assertThat(restarted.stats().memoryEntries()).isEqualTo(1);
+    }
+
+    @Test
+    void memoryLayerStaysUnderItsByteBound() throws Exception {
+        cache = cache(250, 1024);
+        when(pdfExport.recipeToPdf(1L)).thenReturn(pdf(100));
+        when(pdfExport.recipeToPdf(2L)).thenReturn(pdf(100));
+        when(pdfExport.recipeToPdf(3L)).thenReturn(pdf(100));
+
+        cache.recipePdf(1L, "recipe-1-1");
+        cache.recipePdf(2L, "recipe-2-1");
+        cache.recipePdf(1L, "recipe-1-1"); // 2 pasa a ser el menos usado
+        cache.recipePdf(3L, "recipe-3-1");
+
+        assertThat(cache.stats().memoryEntries()).isEqualTo(2);
+        assertThat(cache.stats().memoryBytes()).isEqualTo(200);
+
+        // 2 salió de memoria pero sigue en disco; 1 no se generó de nuevo
+        cache.recipePdf(2L, "recipe-2-1");
+        assertThat(cache.stats().diskHits()).isEqualTo(1);
+        verify(pdfExport, times(1)).recipeToPdf(1L);
+        verify(pdfExport, times(1)).recipeToPdf(2L);
+    }
+
+    @Test
+    void pdfsLargerThanTheMemoryBoundOnlyGoToDisk() throws Exception {
+        cache = cache(50, 1024);
+        when(pdfExport.recipeToPdf(1L)).thenReturn(pdf(100));
+
+        cache.recipePdf(1L, "recipe-1-1");
+        cache.recipePdf(1L, "recipe-1-1");
+
+        assertThat(cache.stats()).isEqualTo(new PdfCacheService.Stats(0, 1, 1, 0, 0));
+    }
+
+    @Test
+    void newVersionReplacesTheOldFile() throws Exception {
+        when(pdfExport.recipeToPdf(1L)).thenReturn(pdf(10));
+        when(pdfExport.recipeToPdf(11L)).thenReturn(pdf(10));
+
+        cache.recipePdf(1L, "recipe-1-1");
+        cache.recipePdf(11L, "recipe-11-1");
+        cache.recipePdf(1L, "recipe-1-2");
+
+        assertThat(files()).containsExactly("recipe-1-2.pdf", "recipe-11-1.pdf");
+    }
+
+    @Test
+    void trimDiskDropsTheOldestFilesOverTheBound() throws Exception {
+        cache = cache(1024, 250);
+        for (long id = 1; id <= 3; id++) {
+            when(pdfExport.recipeToPdf(id)).thenReturn(pdf(100));
+            cache.recipePdf(id, "recipe-" + id + "-1");
+            Files.setLastModifiedTime(dir.resolve("recipe-" + id + "-1.pdf"), FileTime.fromMillis(id * 1000));
+        }
+        // Guardar no recorta: eso queda para el tick programado
+        assertThat(files()).hasSize(3);
+
+        cache.trimDisk();
+
+        assertThat(files()).containsExactly("recipe-2-1.pdf", "recipe-3-1.pdf");
+    }
+
+    /* ---------- concurrencia ---------- */
+
+    @Test
+    void concurrentMissesRenderOnce() throws Exception {
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(pdfExport.recipeToPdf(1L)).thenAnswer(inv -> {
+            rendering.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return pdf(100);
+        });
+
+        CompletableFuture<byte[]> first = CompletableFuture.supplyAsync(() -> cache.recipePdf(1L, "recipe-1-1"));
+        assertThat(rendering.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread second = new Thread(() -> cache.recipePdf(1L, "recipe-1-1"));
+        second.start();
+        // Esperamos a que el segundo pedido quede bloqueado en la generación del primero
+        while (second.getState() != Thread.State.WAITING && second.isAlive()) Thread.onSpinWait();
+        release.countDown();
+
+        second.join(5_000);
+        assertThat(first.get(5, TimeUnit.SECONDS)).hasSize(100);
+        verify(pdfExport, times(1)).recipeToPdf(1L);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void failedRenderIsNotCached() {
+        when(pdfExport.recipeToPdf(1L)).thenThrow(new IllegalStateException("OpenPDF")).thenReturn(pdf(10));
+
+        assertThatThrownBy(() -> cache.recipePdf(1L, "recipe-1-1")).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.recipePdf(1L, "recipe-1-1")).hasSize(10);
+    }
+}
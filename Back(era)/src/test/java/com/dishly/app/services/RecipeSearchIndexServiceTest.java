@@ -0,0 +1,100 @@
+package com.dishly.app.services;
+
+import com.dishly.app.projection.RecipeIndexRow;
+import com.dishly.app.repositories.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecipeSearchIndexServiceTest {
+
+    private RecipeSearchIndexService index;
+
+    @BeforeEach
+    void setUp() {
+        List<RecipeIndexRow> rows = List.of(
+                row(1L, "Tarta de manzana", "ana", "postre de manzana"),
+                row(2L, "Pollo al horno", "beto", "con manzana asada"),
+                row(3L, "Manzanas asadas", "ana", "al horno"),
+                row(4L, "Ensalada", "caro", "fresca"));
+        RecipeRepository recipeRepo = mock(RecipeRepository.class);
+        when(recipeRepo.findAllIngredientRows()).thenReturn(List.of());
+        when(recipeRepo.findAllIndexRows()).thenReturn(rows);
+
+        index = new RecipeSearchIndexService(recipeRepo);
+        index.rebuild();
+    }
+
+    @Test
+    void relevanceModeReturnsTheSameRecipesAsChronological() {
+        List<Long> chronological = index.search("manzana", null, null, null, 10, true, doc -> true);
+        List<Long> ranked = index.rankedSearch("manzana", null, null, null, 10, true, doc -> true).stream()
+                .map(Bm25Index.Scored::id)
+                .toList();
+
+        assertThat(chronological).containsExactly(3L, 1L);
+        // El 2 sólo tiene "manzana" en la descripción; el 3 la contiene en "manzanas" y entra igual
+        assertThat(ranked).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void relevanceModeAppliesAuthorAndFilter() {
+        assertThat(index.rankedSearch("manzana", null, "ana", null, 10, true, doc -> doc.id() != 1L))
+                .extracting(Bm25Index.Scored::id)
+                .containsExactly(3L);
+        assertThat(index.rankedSearch("manzana", null, "beto", null, 10, true, doc -> true)).isEmpty();
+    }
+
+    @Test
+    void relevanceCursorWalksTheSameCandidates() {
+        List<Bm25Index.Scored> first = index.rankedSearch("a", null, null, null, 2, true, doc -> true);
+        Bm25Index.Scored last = first.get(first.size() - 1);
+        List<Bm25Index.Scored> rest = index.rankedSearch("a", null, null,
+                new Bm25Index.Cursor(last.score(), last.id()), 10, true, doc -> true);
+
+        assertThat(first).hasSize(2);
+        assertThat(first.stream().map(Bm25Index.Scored::id).toList())
+                .doesNotContainAnyElementsOf(rest.stream().map(Bm25Index.Scored::id).toList());
+        assertThat(first.size() + rest.size())
+                .isEqualTo(index.search("a", null, null, null, 10, true, doc -> true).size());
+    }
+
+    private static RecipeIndexRow row(Long id, String name, String author, String description) {
+        return new RecipeIndexRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return 100L + id;
+            }
+
+            @Override
+            public Boolean getPublicRecipe() {
+                return true;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getAuthor() {
+                return author;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
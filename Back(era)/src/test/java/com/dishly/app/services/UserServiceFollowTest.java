@@ -0,0 +1,101 @@
+package com.dishly.app.services;
+
+import com.dishly.app.repositories.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceFollowTest {
+
+    private static final String EMAIL = "ana@dishly.com";
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private FollowGraphService followGraph;
+
+    @InjectMocks
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findIdByEmail(EMAIL)).thenReturn(Optional.of(1L));
+    }
+
+    @Test
+    void followInsertsOneEdgeAndUpdatesTheGraph() {
+        when(repository.existsById(2L)).thenReturn(true);
+        when(followGraph.isFollowing(1L, 2L)).thenReturn(false);
+        when(repository.addFollower(2L, 1L)).thenReturn(1);
+
+        userService.follow(EMAIL, 2L);
+
+        verify(repository).addFollower(2L, 1L);
+        verify(followGraph).followAfterCommit(1L, 2L);
+    }
+
+    @Test
+    void followingAgainDoesNotTouchTheTable() {
+        when(repository.existsById(2L)).thenReturn(true);
+        when(followGraph.isFollowing(1L, 2L)).thenReturn(true);
+
+        userService.follow(EMAIL, 2L);
+
+        verify(repository, never()).addFollower(any(), any());
+        verify(followGraph, never()).followAfterCommit(any(), any());
+    }
+
+    @Test
+    void ignoredInsertDoesNotUpdateTheGraph() {
+        when(repository.existsById(2L)).thenReturn(true);
+        when(followGraph.isFollowing(1L, 2L)).thenReturn(false);
+        when(repository.addFollower(2L, 1L)).thenReturn(0); // otra petición ya la insertó
+
+        userService.follow(EMAIL, 2L);
+
+        verify(followGraph, never()).followAfterCommit(any(), any());
+    }
+
+    @Test
+    void followUnknownUserFails() {
+        when(repository.existsById(9L)).thenReturn(false);
+
+        assertThatThrownBy(() -> userService.follow(EMAIL, 9L))
+                .isInstanceOf(EntityNotFoundException.class);
+        verify(repository, never()).addFollower(any(), any());
+    }
+
+    @Test
+    void unfollowDeletesTheEdgeAndUpdatesTheGraph() {
+        when(repository.existsById(2L)).thenReturn(true);
+        when(repository.removeFollower(2L, 1L)).thenReturn(1);
+
+        userService.unfollow(EMAIL, 2L);
+
+        verify(followGraph).unfollowAfterCommit(1L, 2L);
+    }
+
+    @Test
+    void unfollowWithoutEdgeLeavesTheGraph() {
+        when(repository.existsById(2L)).thenReturn(true);
+        when(repository.removeFollower(2L, 1L)).thenReturn(0);
+
+        userService.unfollow(EMAIL, 2L);
+
+        verify(followGraph, never()).unfollowAfterCommit(any(), any());
+    }
+}
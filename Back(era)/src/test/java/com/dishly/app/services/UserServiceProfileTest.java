@@ -0,0 +1,90 @@
+package com.dishly.app.services;
+
+import com.dishly.app.dto.UserProfileDTO;
+import com.dishly.app.models.UserModel;
+import com.dishly.app.projection.UserSummaryRow;
+import com.dishly.app.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceProfileTest {
+
+    private static final String EMAIL = "chef@dishly.com";
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private FollowGraphService followGraph;
+
+    @Mock
+    private ImageStoreService images;
+
+    @InjectMocks
+    private UserService userService;
+
+    @Test
+    void listedUsersWithoutAUsableUsernameShowTheEmailPrefix() {
+        UserModel me = new UserModel();
+        me.setId(1L);
+        List<UserSummaryRow> rows = List.of(
+                row(2L, null, "beto@dishly.com"),
+                row(3L, "ana.perez@gmail.com", "ana.perez@gmail.com"),
+                row(4L, " ", "caro@dishly.com"),
+                row(5L, "dani", "daniel@dishly.com"));
+        when(repository.findByEmail(EMAIL)).thenReturn(Optional.of(me));
+        when(repository.existsById(1L)).thenReturn(true);
+        when(followGraph.followerIds(1L)).thenReturn(new long[]{2L, 3L, 4L, 5L});
+        when(repository.findSummariesByIdIn(any())).thenReturn(rows);
+
+        List<UserProfileDTO> followers = userService.getFollowers(1L, EMAIL);
+
+        assertThat(followers).extracting(UserProfileDTO::username)
+                .containsExactly("dani", "caro", "ana.perez", "beto");
+    }
+
+    private static UserSummaryRow row(Long id, String username, String email) {
+        return new UserSummaryRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+
+            @Override
+            public String getFullName() {
+                return null;
+            }
+
+            @Override
+            public String getPhoto() {
+                return null;
+            }
+
+            @Override
+            public String getPhotoHash() {
+                return null;
+            }
+        };
+    }
+}
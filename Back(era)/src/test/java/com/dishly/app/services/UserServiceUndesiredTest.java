@@ -0,0 +1,118 @@
+package com.dishly.app.services;
+
+import com.dishly.app.repositories.IngredientRepository;
+import com.dishly.app.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceUndesiredTest {
+
+    private static final Long USER = 7L;
+
+    @Mock
+    private UserRepository repository;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private UndesiredIngredientCacheService undesiredCache;
+
+    @InjectMocks
+    private UserService userService;
+
+    @Test
+    void replaceWritesOnlyTheDifference() {
+        when(ingredientRepository.findExistingIds(any())).thenAnswer(inv -> List.copyOf(inv.<Collection<Long>>getArgument(0)));
+        when(repository.findUndesiredIngredientIds(USER)).thenReturn(List.of(1L, 2L, 3L));
+        when(repository.removeUndesiredIngredientsIn(eq(USER), any())).thenReturn(1);
+        when(repository.addUndesiredIngredients(eq(USER), any())).thenReturn(2);
+
+        userService.replaceUndesiredIngredients(USER, List.of(2L, 3L, 4L, 5L));
+
+        verify(repository).removeUndesiredIngredientsIn(USER, List.of(1L));
+        verify(repository).addUndesiredIngredients(USER, List.of(4L, 5L));
+        verify(repository, never()).clearUndesiredIngredients(anyLong());
+        verify(undesiredCache).invalidateAfterCommit(USER);
+    }
+
+    @Test
+    void replaceWithTheSameSetWritesNothing() {
+        when(ingredientRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L));
+        when(repository.findUndesiredIngredientIds(USER)).thenReturn(List.of(2L, 1L));
+
+        userService.replaceUndesiredIngredients(USER, List.of(1L, 2L, 2L));
+
+        verify(repository, never()).removeUndesiredIngredientsIn(anyLong(), anyCollection());
+        verify(repository, never()).addUndesiredIngredients(anyLong(), anyCollection());
+        verify(undesiredCache, never()).invalidateAfterCommit(any());
+    }
+
+    @Test
+    void replaceSplitsLargeDifferencesIntoChunks() {
+        List<Long> wanted = LongStream.rangeClosed(1, 1_200).boxed().toList();
+        when(ingredientRepository.findExistingIds(any())).thenAnswer(inv -> List.copyOf(inv.<Collection<Long>>getArgument(0)));
+        when(repository.findUndesiredIngredientIds(USER)).thenReturn(List.of());
+        when(repository.addUndesiredIngredients(eq(USER), any())).thenAnswer(inv -> inv.<Collection<Long>>getArgument(1).size());
+
+        userService.replaceUndesiredIngredients(USER, wanted);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, times(3)).addUndesiredIngredients(eq(USER), chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(Collection::size).containsExactly(500, 500, 200);
+        verify(undesiredCache).invalidateAfterCommit(USER);
+    }
+
+    @Test
+    void replaceWithNothingClearsInOneStatement() {
+        when(repository.clearUndesiredIngredients(USER)).thenReturn(0);
+
+        userService.replaceUndesiredIngredients(USER, List.of());
+
+        verify(repository, never()).findUndesiredIngredientIds(any());
+        verify(undesiredCache, never()).invalidateAfterCommit(any());
+    }
+
+    @Test
+    void replaceRejectsUnknownIngredientsBeforeWriting() {
+        when(ingredientRepository.findExistingIds(any())).thenReturn(List.of(1L));
+
+        assertThatThrownBy(() -> userService.replaceUndesiredIngredients(USER, List.of(1L, 99L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("99");
+        verify(repository, never()).addUndesiredIngredients(anyLong(), anyCollection());
+        verify(repository, never()).clearUndesiredIngredients(anyLong());
+    }
+
+    @Test
+    void addingAnExistingIngredientDoesNotInvalidate() {
+        when(repository.existsById(USER)).thenReturn(true);
+        when(ingredientRepository.existsById(3L)).thenReturn(true);
+        when(repository.addUndesiredIngredient(USER, 3L)).thenReturn(0);
+
+        userService.addUndesiredIngredient(USER, 3L);
+
+        verify(undesiredCache, never()).invalidateAfterCommit(any());
+    }
+}